@@ -2,11 +2,19 @@ package io.github.lucianodacunha.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiApplication {
 
+	private static final int PASSOS_DA_INICIALIZACAO = 10_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(ApiApplication.class, args);
+		var aplicacao = new SpringApplication(ApiApplication.class);
+		// linha do tempo da inicialização, para o RelatorioDeInicializacao e o /actuator/startup
+		aplicacao.setApplicationStartup(new BufferingApplicationStartup(PASSOS_DA_INICIALIZACAO));
+		aplicacao.run(args);
 	}
 }
@@ -1,11 +1,16 @@
 package io.github.lucianodacunha.api.controller;
 
 import io.github.lucianodacunha.api.entity.Usuario;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
+import io.github.lucianodacunha.api.infra.security.LoginExecutorConfigurations;
 import io.github.lucianodacunha.api.model.DadosAutenticacao;
 import io.github.lucianodacunha.api.model.DadosTokenJWT;
 import io.github.lucianodacunha.api.service.TokenService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,24 +19,45 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
 @RestController
 @RequestMapping("/login")
 public class AutenticacaoController {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AutenticacaoController.class);
+
     @Autowired
     private AuthenticationManager manager;
 
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    @Qualifier(LoginExecutorConfigurations.EXECUTOR_DE_LOGIN)
+    private ExecutorService executorDeLogin;
+
+    @Autowired
+    private AmostragemDeLog amostragem;
+
+    /**
+     * A autenticação (e o hash BCrypt) roda no executor de login, liberando
+     * a thread do Tomcat. Se o executor estiver saturado, a
+     * RejectedExecutionException vira 429 no TratadorDeErros.
+     */
     @PostMapping
-    public ResponseEntity efetuarLogin(@RequestBody @Valid DadosAutenticacao dados) {
-        var authenticationToken = new UsernamePasswordAuthenticationToken(dados.login(), dados.senha());
-        var authentication = manager.authenticate(authenticationToken);
+    public CompletableFuture<ResponseEntity> efetuarLogin(@RequestBody @Valid DadosAutenticacao dados) {
+        return CompletableFuture.supplyAsync(() -> {
+            var authenticationToken = new UsernamePasswordAuthenticationToken(dados.login(), dados.senha());
+            var authentication = manager.authenticate(authenticationToken);
 
-        var tokenJWT = tokenService.gerarToken((Usuario) authentication.getPrincipal());
+            var usuario = (Usuario) authentication.getPrincipal();
+            var tokenJWT = tokenService.gerarToken(usuario);
+            amostragem.info(LOG, "login").addKeyValue("usuario", usuario.getId()).log("login efetuado");
 
-        return ResponseEntity.ok(new DadosTokenJWT(tokenJWT));
+            return ResponseEntity.ok(new DadosTokenJWT(tokenJWT));
+        }, executorDeLogin);
     }
 
 }
@@ -1,32 +1,71 @@
 package io.github.lucianodacunha.api.controller;// Trecho de código suprimido
 
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
 import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
 import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
 import io.github.lucianodacunha.api.model.DadosDetalhamentoConsulta;
+import io.github.lucianodacunha.api.model.FormatoArquivo;
+import io.github.lucianodacunha.api.model.SituacaoConsulta;
 import io.github.lucianodacunha.api.service.AgendaDeConsultasService;
+import io.github.lucianodacunha.api.service.AgendamentoEmLoteService;
+import io.github.lucianodacunha.api.service.ExportacaoDeConsultasService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("consultas")
 @SecurityRequirement(name = "bearer-key")
 public class ConsultaController {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ConsultaController.class);
+
     @Autowired
     private AgendaDeConsultasService agenda;
 
+    @Autowired
+    private AgendamentoEmLoteService agendamentoEmLote;
+
+    @Autowired
+    private ExportacaoDeConsultasService exportacao;
+
+    @Autowired
+    private AmostragemDeLog amostragem;
+
     @PostMapping
     @Transactional
     public ResponseEntity agendar(@RequestBody @Valid DadosAgendamentoConsulta dados) {
-        System.out.println(dados);
         DadosDetalhamentoConsulta dadosDetalhamentoConsulta = agenda.agendar(dados);
         return ResponseEntity.ok(dadosDetalhamentoConsulta);
     }
 
+    /**
+     * Os itens do lote são validados individualmente pelo service, que
+     * devolve um resultado por item; por isso não há @Valid aqui.
+     */
+    @PostMapping("/lote")
+    @Transactional
+    public ResponseEntity agendarEmLote(@RequestBody List<DadosAgendamentoConsulta> dados) {
+        var resultados = agendamentoEmLote.agendar(dados);
+        amostragem.info(LOG, "consultas.agendar-lote")
+                .addKeyValue("itens", resultados.size())
+                .addKeyValue("recusados", resultados.stream().filter(r -> r.erro() != null).count())
+                .log("lote de agendamentos processado");
+        return ResponseEntity.ok(resultados);
+    }
+
     @DeleteMapping
     @Transactional
     public ResponseEntity cancelar(@RequestBody @Valid DadosCancelamentoConsulta dados) {
@@ -34,4 +73,24 @@ public class ConsultaController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * As linhas são escritas direto na resposta enquanto são lidas do banco.
+     * Não usa StreamingResponseBody porque exportações grandes passariam do
+     * timeout de requisições assíncronas do Spring MVC.
+     */
+    @GetMapping("/exportacao")
+    public void exportar(@RequestParam(defaultValue = "NDJSON") FormatoArquivo formato,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+                         @RequestParam(defaultValue = "TODAS") SituacaoConsulta situacao,
+                         HttpServletResponse response) throws IOException {
+        exportacao.exportar(formato, inicio, fim, situacao, () -> {
+            response.setContentType(formato.getContentType());
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"consultas." + formato.name().toLowerCase() + "\"");
+            return response.getOutputStream();
+        });
+    }
+
 }
\ No newline at end of file
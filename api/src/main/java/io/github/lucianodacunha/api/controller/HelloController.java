@@ -1,6 +1,8 @@
 package io.github.lucianodacunha.api.controller;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,13 +18,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/hello")
 public class HelloController {
 
+    private static final Logger LOG = LoggerFactory.getLogger(HelloController.class);
+
     /**
      * Mapeamento do método que será executado.
      * @return
      */
     @GetMapping
     public String helloWorld(){
-        System.out.println("get recebido...");
+        LOG.debug("get recebido");
         return "E aí mundão, firmeza?!";
     }
 }
@@ -1,42 +1,97 @@
 package io.github.lucianodacunha.api.controller;
 
 import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
+import io.github.lucianodacunha.api.model.CursorDeListagem;
+import io.github.lucianodacunha.api.model.DadosAgendaMedico;
 import io.github.lucianodacunha.api.model.DadosAtualizacaoMedico;
 import io.github.lucianodacunha.api.model.DadosCadastroMedico;
 import io.github.lucianodacunha.api.model.DadosDetalhamentoMedico;
+import io.github.lucianodacunha.api.model.DadosDisponibilidadeMedico;
 import io.github.lucianodacunha.api.model.DadosListagemMedico;
+import io.github.lucianodacunha.api.model.DadosPaginaCursor;
+import io.github.lucianodacunha.api.model.DadosRelatorioImportacao;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.FormatoArquivo;
 import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.service.AgendaDosMedicosService;
+import io.github.lucianodacunha.api.service.DisponibilidadeDeMedicosService;
+import io.github.lucianodacunha.api.service.ImportacaoDeCadastrosService;
+import io.github.lucianodacunha.api.service.IndiceDeOcupacaoDeHorarios;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/medicos")
 @SecurityRequirement(name = "bearer-key")
 public class MedicoController {
+    private static final Logger LOG = LoggerFactory.getLogger(MedicoController.class);
+    private static final int TAMANHO_MAXIMO_PAGINA_CURSOR = 100;
+
     @Autowired
     private MedicoRepository repository;
 
+    @Autowired
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Autowired
+    private DisponibilidadeDeMedicosService disponibilidade;
+
+    @Autowired
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Autowired
+    private ImportacaoDeCadastrosService importacao;
+
+    @Autowired
+    private AmostragemDeLog amostragem;
+
     @PostMapping
     @Transactional
     public ResponseEntity cadastrar(@RequestBody @Valid DadosCadastroMedico dados,
                                     UriComponentsBuilder uriBuilder){
         var medico = new Medico(dados);
         repository.save(medico);
+        indiceDeOcupacao.registrarMedico(medico.getId(), medico.getEspecialidade());
+        amostragem.info(LOG, "medicos.cadastrar")
+                .addKeyValue("medico", medico.getId())
+                .addKeyValue("especialidade", medico.getEspecialidade())
+                .log("médico cadastrado");
 
         var uri = uriBuilder.path("/medicos/{id}").buildAndExpand(medico.getId()).toUri();
         return ResponseEntity.created(uri).body(new DadosDetalhamentoMedico(medico));
 
     }
 
+    /**
+     * Cadastro em lote a partir de um CSV com cabeçalho ou de um NDJSON, lido
+     * do corpo da requisição enquanto é processado. Sem @Transactional: o
+     * service grava cada lote de registros na sua própria transação.
+     */
+    @PostMapping(value = "/importacao", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<DadosRelatorioImportacao> importar(HttpServletRequest request) throws IOException {
+        var formato = FormatoArquivo.doContentType(request.getContentType()).orElseThrow();
+        return ResponseEntity.ok(importacao.importarMedicos(formato, request.getInputStream()));
+    }
+
     /**
      * Para fazer paginação, devemos retornar um objeto Page.
      * O repository tem uma sobrecarga do método find que retorna um Page, e
@@ -48,15 +103,35 @@ public class MedicoController {
      */
     @GetMapping
     public ResponseEntity <Page<DadosListagemMedico>> listar(@PageableDefault(size = 10, sort = {"nome"}) Pageable paginacao) {
-        var page = repository.findAllByAtivoTrue(paginacao).map(DadosListagemMedico::new);
+        var page = repository.findListagemDosAtivos(paginacao);
         return ResponseEntity.ok(page);
     }
 
+    /**
+     * Listagem por cursor, usada quando o parâmetro cursor é informado (vazio
+     * na primeira página). O tempo de resposta não cresce com a profundidade
+     * da página, pois não há OFFSET nem COUNT; cada resposta traz o
+     * proximoCursor a ser enviado na requisição seguinte.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<DadosPaginaCursor<DadosListagemMedico>> listarPorCursor(@RequestParam String cursor,
+                                                                                   @RequestParam(defaultValue = "10") int tamanho) {
+        var posicao = CursorDeListagem.decodificar(cursor);
+        var pagina = PageRequest.of(0, Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA_CURSOR));
+        var slice = posicao == null
+                ? repository.findPrimeiraPaginaDosAtivos(pagina)
+                : repository.findPaginaDosAtivosApos(posicao.nome(), posicao.id(), pagina);
+
+        return ResponseEntity.ok(DadosPaginaCursor.de(slice,
+                m -> new CursorDeListagem(m.nome(), m.id())));
+    }
+
     @PutMapping
     @Transactional
     public ResponseEntity atualizar(@RequestBody @Valid DadosAtualizacaoMedico dados) {
         var medico = repository.getReferenceById(dados.id());
         medico.atualizarInformacoes(dados);
+        amostragem.info(LOG, "medicos.atualizar").addKeyValue("medico", dados.id()).log("médico atualizado");
 
         return ResponseEntity.ok(new DadosDetalhamentoMedico(medico));
     }
@@ -66,14 +141,36 @@ public class MedicoController {
     public ResponseEntity excluir(@PathVariable Long id){
         var medico = repository.getReferenceById(id);
         repository.delete(medico);
+        indiceDeOcupacao.removerMedico(id);
+        amostragem.info(LOG, "medicos.excluir").addKeyValue("medico", id).log("médico excluído");
 
         return ResponseEntity.ok(new DadosDetalhamentoMedico(medico));
     }
 
+    /**
+     * Horários livres de cada médico ativo da especialidade no dia, para que
+     * o cliente escolha um horário antes de agendar em vez de tentar
+     * horários em POST /consultas até um ser aceito.
+     */
+    @GetMapping("/disponibilidade")
+    public ResponseEntity<List<DadosDisponibilidadeMedico>> disponibilidade(@RequestParam Especialidade especialidade,
+                                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia) {
+        return ResponseEntity.ok(disponibilidade.consultar(especialidade, dia));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity detalhar(@PathVariable Long id){
         var medico = repository.getReferenceById(id);
         return ResponseEntity.ok(new DadosDetalhamentoMedico(medico));
     }
-}
 
+    /**
+     * Consultas ativas do médico no dia, lidas da projeção agendas_medicos
+     * por chave primária, sem consultar a tabela consultas.
+     */
+    @GetMapping("/{id}/agenda")
+    public ResponseEntity<DadosAgendaMedico> agenda(@PathVariable Long id,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia) {
+        return ResponseEntity.ok(agendaDosMedicos.consultar(id, dia));
+    }
+}
@@ -1,17 +1,25 @@
 package io.github.lucianodacunha.api.controller;
 
 import io.github.lucianodacunha.api.entity.Paciente;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
 import io.github.lucianodacunha.api.model.*;
 import io.github.lucianodacunha.api.repository.PacienteRepository;
+import io.github.lucianodacunha.api.service.ImportacaoDeCadastrosService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -22,6 +30,8 @@ import java.util.List;
 @RequestMapping("/pacientes")
 @SecurityRequirement(name = "bearer-key")
 public class PacienteController {
+    private static final Logger LOG = LoggerFactory.getLogger(PacienteController.class);
+    private static final int TAMANHO_MAXIMO_PAGINA_CURSOR = 100;
 
     /**
      * Indica ao Spring que ele deve instanciar esse objeto.
@@ -29,6 +39,12 @@ public class PacienteController {
     @Autowired
     private PacienteRepository repository;
 
+    @Autowired
+    private ImportacaoDeCadastrosService importacao;
+
+    @Autowired
+    private AmostragemDeLog amostragem;
+
     /**
      * RequestBody é a anotação que indica que o Spring deve puxar do corpo da
      * requisição o conteúdo do parâmetro {dados}.
@@ -40,13 +56,41 @@ public class PacienteController {
         /**
          * Com o autowired, nesse momento, esse objeto já existe no Spring.
          */
-        repository.save(new Paciente(dados));
+        var paciente = repository.save(new Paciente(dados));
+        amostragem.info(LOG, "pacientes.cadastrar").addKeyValue("paciente", paciente.getId()).log("paciente cadastrado");
+    }
+
+    /**
+     * Cadastro em lote a partir de um CSV com cabeçalho ou de um NDJSON; o
+     * service grava cada lote de registros na sua própria transação.
+     */
+    @PostMapping(value = "/importacao", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<DadosRelatorioImportacao> importar(HttpServletRequest request) throws IOException {
+        var formato = FormatoArquivo.doContentType(request.getContentType()).orElseThrow();
+        return ResponseEntity.ok(importacao.importarPacientes(formato, request.getInputStream()));
     }
 
     @GetMapping
     public Page<DadosListagemPaciente> listar(
             @PageableDefault(size = 10, sort = {"nome"}) Pageable pagina){
-        return repository.findAllByAtivoTrue(pagina).map(DadosListagemPaciente::new);
+        return repository.findListagemDosAtivos(pagina);
+    }
+
+    /**
+     * Listagem por cursor (sem OFFSET nem COUNT), usada quando o parâmetro
+     * cursor é informado; na primeira página ele vai vazio.
+     */
+    @GetMapping(params = "cursor")
+    public DadosPaginaCursor<DadosListagemPaciente> listarPorCursor(@RequestParam String cursor,
+                                                                    @RequestParam(defaultValue = "10") int tamanho) {
+        var posicao = CursorDeListagem.decodificar(cursor);
+        var pagina = PageRequest.of(0, Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA_CURSOR));
+        var slice = posicao == null
+                ? repository.findPrimeiraPaginaDosAtivos(pagina)
+                : repository.findPaginaDosAtivosApos(posicao.nome(), posicao.id(), pagina);
+
+        return DadosPaginaCursor.de(slice,
+                p -> new CursorDeListagem(p.nome(), p.id()));
     }
 
     @PutMapping
@@ -54,6 +98,7 @@ public class PacienteController {
     public void atualizar(@RequestBody @Valid DadosAtualizacaoPaciente dados) {
         var paciente = repository.getReferenceById(dados.id());
         paciente.atualizarInformacoes(dados);
+        amostragem.info(LOG, "pacientes.atualizar").addKeyValue("paciente", dados.id()).log("paciente atualizado");
     }
 
     @DeleteMapping("/{id}")
@@ -61,5 +106,6 @@ public class PacienteController {
     public void excluir(@PathVariable Long id){
         Paciente paciente = repository.getReferenceById(id);
         paciente.excluir();
+        amostragem.info(LOG, "pacientes.excluir").addKeyValue("paciente", id).log("paciente excluído");
     }
 }
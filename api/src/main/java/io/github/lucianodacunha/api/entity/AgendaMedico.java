@@ -0,0 +1,59 @@
+package io.github.lucianodacunha.api.entity;
+
+import io.github.lucianodacunha.api.model.DadosHorarioAgenda;
+import jakarta.persistence.Convert;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Agenda de um médico em um dia, mantida junto com cada agendamento e
+ * cancelamento. A lista é sempre substituída, nunca alterada no lugar, para
+ * que o Hibernate perceba a mudança ao comparar com o snapshot.
+ */
+@Table(name = "agendas_medicos")
+@Entity(name = "AgendaMedico")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class AgendaMedico {
+
+    private static final Comparator<DadosHorarioAgenda> ORDEM = Comparator
+            .comparing(DadosHorarioAgenda::horario)
+            .thenComparing(DadosHorarioAgenda::idConsulta);
+
+    @EmbeddedId
+    private AgendaMedicoId id;
+
+    @Convert(converter = HorariosDaAgendaConverter.class)
+    private List<DadosHorarioAgenda> consultas;
+
+    public void adicionar(DadosHorarioAgenda horario) {
+        var novas = new ArrayList<>(consultas);
+        novas.removeIf(h -> h.idConsulta().equals(horario.idConsulta()));
+        novas.add(horario);
+        substituir(novas);
+    }
+
+    public void remover(Long idConsulta) {
+        var novas = new ArrayList<>(consultas);
+        if (novas.removeIf(h -> h.idConsulta().equals(idConsulta))) {
+            substituir(novas);
+        }
+    }
+
+    public void substituir(List<DadosHorarioAgenda> consultas) {
+        this.consultas = ordenar(consultas);
+    }
+
+    public static List<DadosHorarioAgenda> ordenar(List<DadosHorarioAgenda> consultas) {
+        return consultas.stream().sorted(ORDEM).toList();
+    }
+}
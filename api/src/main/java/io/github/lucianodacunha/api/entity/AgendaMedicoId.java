@@ -0,0 +1,22 @@
+package io.github.lucianodacunha.api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class AgendaMedicoId implements Serializable {
+    @Column(name = "medico_id")
+    private Long idMedico;
+    private LocalDate dia;
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.time.LocalDateTime;
 
@@ -17,8 +19,28 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "id")
 public class Consulta {
 
+    /**
+     * Com IDENTITY o Hibernate precisa executar cada insert para descobrir o
+     * id, o que desliga o batch de inserts. A tabela consultas_seq reserva
+     * blocos de ids (pooled-lo), permitindo agendamentos em lote com JDBC
+     * batch. force_table_use mantém o mesmo comportamento em bancos que
+     * suportam sequences.
+     *
+     * Cada novo bloco é lido numa conexão separada enquanto a requisição já
+     * segura a sua; por isso o bloco comporta um lote inteiro
+     * (api.agendamento.lote.tamanho-maximo) e o pool tem uma conexão além
+     * das requisições simultâneas para cada gerador de ids por tabela.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "consultas_seq")
+    @GenericGenerator(name = "consultas_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "consultas_seq"),
+                    @Parameter(name = "increment_size", value = "500"),
+                    @Parameter(name = "optimizer", value = "pooled-lo"),
+                    @Parameter(name = "force_table_use", value = "true")
+            })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,108 @@
+package io.github.lucianodacunha.api.entity;
+
+import io.github.lucianodacunha.api.model.TipoEvento;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de domínio aguardando publicação. Um agendamento em lote grava até
+ * api.agendamento.lote.tamanho-maximo eventos na mesma transação; com
+ * IDENTITY seria um insert por evento, executado já no persist. Os ids vêm
+ * então de eventos_outbox_seq em blocos do tamanho de um lote, e os eventos
+ * do lote vão num único JDBC batch. Como cada instância da API tem o seu
+ * bloco, os ids não dizem a ordem: a ordem de publicação dentro de cada
+ * agregado é a da sequencia.
+ */
+@Table(name = "eventos_outbox")
+@Entity(name = "EventoOutbox")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class EventoOutbox {
+
+    private static final int TAMANHO_MAXIMO_DO_ERRO = 500;
+
+    @Id
+    @GeneratedValue(generator = "eventos_outbox_seq")
+    @GenericGenerator(name = "eventos_outbox_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "eventos_outbox_seq"),
+                    @Parameter(name = "increment_size", value = "500"),
+                    @Parameter(name = "optimizer", value = "pooled-lo"),
+                    @Parameter(name = "force_table_use", value = "true")
+            })
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private TipoEvento tipo;
+
+    @Column(name = "agregado_id")
+    private Long agregadoId;
+
+    private int sequencia;
+
+    private String conteudo;
+
+    @Column(name = "criado_em")
+    private LocalDateTime criadoEm;
+
+    private int tentativas;
+
+    @Column(name = "proxima_tentativa")
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "ultimo_erro")
+    private String ultimoErro;
+
+    @Column(name = "publicado_em")
+    private LocalDateTime publicadoEm;
+
+    @Column(name = "descartado_em")
+    private LocalDateTime descartadoEm;
+
+    public EventoOutbox(TipoEvento tipo, Long agregadoId, int sequencia, String conteudo, LocalDateTime criadoEm) {
+        this.tipo = tipo;
+        this.agregadoId = agregadoId;
+        this.sequencia = sequencia;
+        this.conteudo = conteudo;
+        this.criadoEm = criadoEm;
+    }
+
+    /**
+     * Tira o evento dos prontos até reservadoAte, enquanto a publicação
+     * acontece fora da transação que o leu.
+     */
+    public void reservar(LocalDateTime reservadoAte) {
+        this.proximaTentativa = reservadoAte;
+    }
+
+    public void publicado(LocalDateTime agora) {
+        this.publicadoEm = agora;
+    }
+
+    /**
+     * Registra a falha e agenda a próxima tentativa; com descartar, o evento
+     * vai para a fila de descartados e não é mais tentado.
+     */
+    public void falhou(String erro, LocalDateTime proximaTentativa, boolean descartar, LocalDateTime agora) {
+        this.tentativas++;
+        this.ultimoErro = erro != null && erro.length() > TAMANHO_MAXIMO_DO_ERRO ? erro.substring(0, TAMANHO_MAXIMO_DO_ERRO) : erro;
+        this.proximaTentativa = proximaTentativa;
+        if (descartar) {
+            this.descartadoEm = agora;
+        }
+    }
+}
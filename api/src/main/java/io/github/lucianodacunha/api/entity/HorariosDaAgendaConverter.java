@@ -0,0 +1,47 @@
+package io.github.lucianodacunha.api.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.lucianodacunha.api.model.DadosHorarioAgenda;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Grava os horários da agenda como um array JSON, com o horário no formato
+ * "HH:mm:ss", por exemplo [{"horario":"10:00:00","idConsulta":1,"idPaciente":2}].
+ */
+@Converter
+public class HorariosDaAgendaConverter implements AttributeConverter<List<DadosHorarioAgenda>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final TypeReference<List<DadosHorarioAgenda>> TIPO = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(List<DadosHorarioAgenda> horarios) {
+        try {
+            return MAPPER.writeValueAsString(horarios == null ? List.of() : horarios);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Erro ao converter a agenda para JSON", ex);
+        }
+    }
+
+    @Override
+    public List<DadosHorarioAgenda> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return List.copyOf(MAPPER.readValue(json, TIPO));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Agenda com JSON inválido: " + json, ex);
+        }
+    }
+}
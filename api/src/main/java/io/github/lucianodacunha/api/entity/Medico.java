@@ -1,8 +1,10 @@
 package io.github.lucianodacunha.api.entity;
 
+import io.github.lucianodacunha.api.infra.cache.CacheDeSegundoNivelConfigurations;
 import io.github.lucianodacunha.api.model.DadosAtualizacaoMedico;
 import io.github.lucianodacunha.api.model.DadosCadastroMedico;
 import io.github.lucianodacunha.api.model.Especialidade;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Table;
 import jakarta.persistence.Entity;
@@ -14,10 +16,14 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.Id;
 
 @Table(name = "medicos")
 @Entity(name = "Medico")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheDeSegundoNivelConfigurations.REGIAO_MEDICOS)
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
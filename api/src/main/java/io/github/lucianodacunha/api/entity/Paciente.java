@@ -1,5 +1,6 @@
 package io.github.lucianodacunha.api.entity;
 
+import io.github.lucianodacunha.api.infra.cache.CacheDeSegundoNivelConfigurations;
 import io.github.lucianodacunha.api.model.DadosAtualizacaoMedico;
 import io.github.lucianodacunha.api.model.DadosAtualizacaoPaciente;
 import io.github.lucianodacunha.api.model.DadosCadastroPaciente;
@@ -8,9 +9,13 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Table(name = "pacientes")
 @Entity(name = "Paciente")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheDeSegundoNivelConfigurations.REGIAO_PACIENTES)
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,29 @@
+package io.github.lucianodacunha.api.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trava de uma tarefa agendada entre as instâncias da API. As linhas são
+ * criadas pelas migrations e alteradas só pelo TarefaAgendadaRepository.
+ */
+@Table(name = "tarefas_agendadas")
+@Entity(name = "TarefaAgendada")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "nome")
+public class TarefaAgendada {
+
+    @Id
+    private String nome;
+
+    private LocalDateTime travadaAte;
+
+    private LocalDateTime concluidaEm;
+}
@@ -0,0 +1,24 @@
+package io.github.lucianodacunha.api.entity;
+
+import io.github.lucianodacunha.api.service.CacheDeUsuarios;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Instanciado pelo Hibernate através do container do Spring, por isso
+ * aceita injeção de dependências.
+ */
+public class UsuarioListener {
+
+    @Autowired
+    private CacheDeUsuarios cacheDeUsuarios;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidarCache(Usuario usuario) {
+        cacheDeUsuarios.invalidar(usuario.getLogin());
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.lucianodacunha.api.exception;
+
+/**
+ * Código estável de cada recusa por regra de negócio, usado na tag motivo
+ * de api.validacao.recusas. Duas regras diferentes não compartilham código,
+ * mesmo quando lançadas pela mesma classe, e o código não muda quando a
+ * mensagem ou a classe que recusa mudam: dashboards e alertas dependem dele.
+ */
+public enum MotivoRecusa {
+    PACIENTE_INEXISTENTE,
+    MEDICO_INEXISTENTE,
+    CONSULTA_INEXISTENTE,
+    PACIENTE_INATIVO,
+    MEDICO_INATIVO,
+    ESPECIALIDADE_OBRIGATORIA,
+    SEM_MEDICO_DISPONIVEL,
+    AGENDAMENTO_SEM_ANTECEDENCIA,
+    FORA_DO_HORARIO_DE_FUNCIONAMENTO,
+    HORARIO_OCUPADO,
+    HORARIO_EM_RESERVA,
+    PACIENTE_COM_CONSULTA_NO_DIA,
+    CANCELAMENTO_SEM_ANTECEDENCIA,
+    LOTE_VAZIO,
+    LOTE_ACIMA_DO_MAXIMO,
+    ARQUIVO_SEM_CABECALHO,
+    COLUNAS_AUSENTES,
+    CURSOR_INVALIDO
+}
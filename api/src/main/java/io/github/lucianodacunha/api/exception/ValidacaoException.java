@@ -1,7 +1,15 @@
 package io.github.lucianodacunha.api.exception;
 
 public class ValidacaoException extends RuntimeException {
-    public ValidacaoException(String mensagem) {
+
+    private final MotivoRecusa motivo;
+
+    public ValidacaoException(MotivoRecusa motivo, String mensagem) {
         super(mensagem);
+        this.motivo = motivo;
+    }
+
+    public MotivoRecusa getMotivo() {
+        return motivo;
     }
 }
\ No newline at end of file
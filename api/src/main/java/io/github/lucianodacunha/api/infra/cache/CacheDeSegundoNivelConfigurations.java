@@ -0,0 +1,100 @@
+package io.github.lucianodacunha.api.infra.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de segundo nível do Hibernate, local à instância (Caffeine via
+ * JCache), para Medico, Paciente e Usuario e para as queries marcadas como
+ * cacheáveis. Alterações feitas pelo Hibernate (atualizarInformacoes,
+ * excluir, delete) atualizam ou removem a entrada no commit, e qualquer
+ * escrita em uma tabela invalida as queries cacheadas que a leem.
+ *
+ * Escritas que não passam pelo Hibernate (JdbcTemplate, outra instância da
+ * API, alteração direta no banco) não são vistas: a expiração limita por
+ * quanto tempo um dado alterado por fora pode continuar sendo servido.
+ */
+@Configuration
+public class CacheDeSegundoNivelConfigurations {
+
+    public static final String REGIAO_MEDICOS = "medicos";
+    public static final String REGIAO_PACIENTES = "pacientes";
+    public static final String REGIAO_USUARIOS = "usuarios";
+
+    @Value("${api.cache.segundo-nivel.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${api.cache.segundo-nivel.tamanho-maximo:10000}")
+    private long tamanhoMaximo;
+
+    @Value("${api.cache.segundo-nivel.consultas.tamanho-maximo:1000}")
+    private long tamanhoMaximoDasQueries;
+
+    @Value("${api.cache.segundo-nivel.expiracao-minutos:10}")
+    private long expiracaoEmMinutos;
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheDeSegundoNivel() {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, habilitado);
+            propriedades.put(AvailableSettings.USE_QUERY_CACHE, habilitado);
+            if (!habilitado) {
+                return;
+            }
+
+            propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propriedades.put(ConfigSettings.CACHE_MANAGER, criarCacheManager());
+            // toda região precisa ter sido criada acima, com limite de tamanho
+            propriedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    /**
+     * Um CacheManager por contexto (URI própria), para que dois contextos no
+     * mesmo processo, como nos testes, não compartilhem entradas. O Hibernate
+     * fecha o CacheManager junto com a SessionFactory.
+     */
+    private CacheManager criarCacheManager() {
+        var cacheManager = new CaffeineCachingProvider()
+                .getCacheManager(URI.create("hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(REGIAO_MEDICOS, configuracao(tamanhoMaximo, expiracaoEmMinutos));
+        cacheManager.createCache(REGIAO_PACIENTES, configuracao(tamanhoMaximo, expiracaoEmMinutos));
+        cacheManager.createCache(REGIAO_USUARIOS, configuracao(tamanhoMaximo, expiracaoEmMinutos));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuracao(tamanhoMaximoDasQueries, expiracaoEmMinutos));
+        // os timestamps de atualização por tabela decidem se uma query cacheada
+        // ainda vale: não podem ser descartados nem expirar
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuracao(0, 0));
+
+        return cacheManager;
+    }
+
+    private CaffeineConfiguration<Object, Object> configuracao(long tamanhoMaximo, long expiracaoEmMinutos) {
+        var configuracao = new CaffeineConfiguration<>();
+        configuracao.setStoreByValue(false);
+        configuracao.setStatisticsEnabled(true);
+        if (tamanhoMaximo > 0) {
+            configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+        }
+        if (expiracaoEmMinutos > 0) {
+            configuracao.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(expiracaoEmMinutos)));
+        }
+        return configuracao;
+    }
+}
@@ -1,13 +1,19 @@
 package io.github.lucianodacunha.api.infra.exception;
 
 import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.metricas.ContadorDeRecusas;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Em APIs Rest, classes de tratamento de exceptions devem ser anotadas com
  * o @RestControllerAdvice e não com o @RestController.
@@ -15,6 +21,9 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class TratadorDeErros {
 
+    @Autowired
+    private ContadorDeRecusas contadorDeRecusas;
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity tratarErro404(){
         return ResponseEntity.notFound().build();
@@ -30,9 +39,21 @@ public class TratadorDeErros {
 
     @ExceptionHandler(ValidacaoException.class)
     public ResponseEntity tratarErroRegraDeNegocio(ValidacaoException ex){
+        contadorDeRecusas.registrar(ex, "requisicao");
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
+    /**
+     * Executor dedicado (ex.: login) sem espaço na fila: o cliente deve
+     * tentar novamente em instantes.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity tratarErro429(){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Serviço sobrecarregado, tente novamente em instantes.");
+    }
+
     private record DadosErroValidacao(String campo, String mensagem) {
         public DadosErroValidacao(FieldError erro) {
             this(erro.getField(), erro.getDefaultMessage());
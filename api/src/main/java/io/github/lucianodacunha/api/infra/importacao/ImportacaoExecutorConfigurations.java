@@ -0,0 +1,43 @@
+package io.github.lucianodacunha.api.infra.importacao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool que valida (Bean Validation) os registros das importações em lote.
+ * Com a fila cheia a validação roda na própria thread da requisição, o que
+ * segura a leitura do arquivo em vez de acumular registros em memória.
+ */
+@Configuration
+public class ImportacaoExecutorConfigurations {
+
+    public static final String EXECUTOR_DE_IMPORTACAO = "executorDeImportacao";
+
+    @Value("${api.importacao.threads:0}")
+    private int quantidadeDeThreads;
+
+    @Value("${api.importacao.tamanho-fila:100}")
+    private int tamanhoDaFila;
+
+    @Bean(name = EXECUTOR_DE_IMPORTACAO, destroyMethod = "shutdown")
+    public ExecutorService executorDeImportacao(MeterRegistry meterRegistry) {
+        var threads = quantidadeDeThreads > 0 ? quantidadeDeThreads : Runtime.getRuntime().availableProcessors();
+        var executor = new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoDaFila),
+                new CustomizableThreadFactory("importacao-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "importacao");
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.lucianodacunha.api.infra.inicializacao;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+public class InicializacaoConfigurations {
+
+    /**
+     * Com spring.main.lazy-initialization os beans só são criados no
+     * primeiro uso. Continuam sendo criados na subida:
+     * o banco, as migrations e o Hibernate, para que um erro de conexão, de
+     * migration ou de mapeamento derrube a instância antes de ela receber
+     * tráfego e para que a primeira requisição não pague o bootstrap do
+     * JPA; e os beans com @Scheduled, que sem isso nunca seriam agendados.
+     */
+    private static final List<Class<?>> CRIADOS_NA_SUBIDA = List.of(
+            DataSource.class,
+            FlywayMigrationInitializer.class,
+            AbstractEntityManagerFactoryBean.class,
+            EntityManagerFactory.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter beansCriadosNaSubida() {
+        return (nome, definicao, tipo) -> tipo != null
+                && (CRIADOS_NA_SUBIDA.stream().anyMatch(t -> t.isAssignableFrom(tipo)) || possuiAgendamento(tipo));
+    }
+
+    private static boolean possuiAgendamento(Class<?> tipo) {
+        return Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(tipo, ReflectionUtils.USER_DECLARED_METHODS))
+                .anyMatch(metodo -> AnnotatedElementUtils.hasAnnotation(metodo, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(metodo, Schedules.class));
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.lucianodacunha.api.infra.inicializacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.model.DadosPassoInicializacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+
+/**
+ * Ao ficar pronta, a aplicação registra no log quanto levou para subir e os
+ * api.inicializacao.passos-no-log passos mais demorados da linha do tempo
+ * (ApplicationStartup); com api.inicializacao.relatorio preenchido, grava a
+ * linha do tempo inteira nesse arquivo em JSON. A linha do tempo só existe
+ * quando a aplicação sobe pelo ApiApplication.main, que usa o
+ * BufferingApplicationStartup, e continua disponível em /actuator/startup.
+ */
+@Component
+public class RelatorioDeInicializacao {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RelatorioDeInicializacao.class);
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Value("${api.inicializacao.passos-no-log:10}")
+    private int passosNoLog;
+
+    @Value("${api.inicializacao.relatorio:}")
+    private String arquivo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrar(ApplicationReadyEvent evento) throws IOException {
+        if (!(evento.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+
+        var linhaDoTempo = startup.getBufferedTimeline();
+        var passos = linhaDoTempo.getEvents().stream().map(DadosPassoInicializacao::new).toList();
+        var prontoEmMs = evento.getTimeTaken() == null ? null : evento.getTimeTaken().toMillis();
+
+        LOG.atInfo()
+                .addKeyValue("pronto_ms", prontoEmMs)
+                .addKeyValue("passos", passos.size())
+                .log("inicialização concluída");
+        passos.stream()
+                .sorted(Comparator.comparingDouble(DadosPassoInicializacao::duracaoMs).reversed())
+                .limit(passosNoLog)
+                .forEach(passo -> LOG.atInfo()
+                        .addKeyValue("passo", passo.nome())
+                        .addKeyValue("tags", passo.tags())
+                        .addKeyValue("duracao_ms", Math.round(passo.duracaoMs()))
+                        .log("passo da inicialização"));
+
+        if (!arquivo.isBlank()) {
+            var relatorio = new LinkedHashMap<String, Object>();
+            relatorio.put("iniciadoEm", linhaDoTempo.getStartTime());
+            relatorio.put("prontoEmMs", prontoEmMs);
+            relatorio.put("passos", passos);
+
+            var destino = Path.of(arquivo);
+            if (destino.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(destino.toAbsolutePath().getParent());
+            }
+            mapper.writerWithDefaultPrettyPrinter().writeValue(destino.toFile(), relatorio);
+        }
+    }
+}
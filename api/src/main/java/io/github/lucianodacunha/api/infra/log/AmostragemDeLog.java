@@ -0,0 +1,59 @@
+package io.github.lucianodacunha.api.infra.log;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Amostragem dos logs de eventos por nome de evento (normalmente um por
+ * endpoint ou operação de domínio). A taxa vem de
+ * api.log.amostragem.por-evento (lista de evento=taxa) ou, para os demais,
+ * de api.log.amostragem.padrao. Um evento fora da amostra, ou com o nível
+ * desligado, recebe um builder que não faz nada: os campos nem chegam a
+ * ser montados na mensagem.
+ */
+@Component
+public class AmostragemDeLog {
+
+    @Value("${api.log.amostragem.padrao:1}")
+    private double taxaPadrao;
+
+    @Value("${api.log.amostragem.por-evento:}")
+    private List<String> taxasPorEvento;
+
+    private final Map<String, Double> taxas = new HashMap<>();
+
+    @PostConstruct
+    void carregarTaxas() {
+        for (var regra : taxasPorEvento) {
+            var separador = regra.lastIndexOf('=');
+            if (separador < 1) {
+                throw new IllegalArgumentException("api.log.amostragem.por-evento: esperado evento=taxa em \"" + regra + "\"");
+            }
+            taxas.put(regra.substring(0, separador).trim(), Double.parseDouble(regra.substring(separador + 1).trim()));
+        }
+    }
+
+    /**
+     * Builder de um evento INFO com o campo evento já preenchido.
+     */
+    public LoggingEventBuilder info(Logger log, String evento) {
+        if (!log.isInfoEnabled() || !amostrado(evento)) {
+            return NOPLoggingEventBuilder.singleton();
+        }
+        return log.atInfo().addKeyValue("evento", evento);
+    }
+
+    private boolean amostrado(String evento) {
+        var taxa = taxas.getOrDefault(evento, taxaPadrao);
+        return taxa >= 1 || ThreadLocalRandom.current().nextDouble() < taxa;
+    }
+}
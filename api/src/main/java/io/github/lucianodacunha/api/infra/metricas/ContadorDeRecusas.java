@@ -0,0 +1,30 @@
+package io.github.lucianodacunha.api.infra.metricas;
+
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conta as requisições recusadas por regra de negócio
+ * (api.validacao.recusas{motivo, origem}). O motivo é o MotivoRecusa da
+ * ValidacaoException e não a mensagem: mensagens montadas com dados da
+ * requisição criariam uma série nova a cada valor. O texto da recusa
+ * continua no log e na resposta.
+ */
+@Component
+public class ContadorDeRecusas {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public void registrar(ValidacaoException ex, String origem) {
+        Counter.builder("api.validacao.recusas")
+                .description("Recusas por regra de negócio (ValidacaoException)")
+                .tag("motivo", ex.getMotivo().name())
+                .tag("origem", origem)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.lucianodacunha.api.infra.metricas;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Tempos por fase e quantidade de comandos SQL da requisição amostrada que
+ * está na thread atual. Fora de uma requisição amostrada atual() devolve
+ * null e os pontos de medição não fazem nada, então o custo de deixá-los no
+ * código é um ThreadLocal.get().
+ */
+public final class MedicaoDaRequisicao {
+
+    private static final ThreadLocal<MedicaoDaRequisicao> ATUAL = new ThreadLocal<>();
+
+    public enum Fase {
+        AUTENTICACAO("auth"),
+        VALIDACAO("validacao"),
+        SQL("sql"),
+        FLUSH("flush"),
+        SERIALIZACAO("serializacao");
+
+        private final String nome;
+
+        Fase(String nome) {
+            this.nome = nome;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+    }
+
+    private final long inicio = System.nanoTime();
+    private final Map<Fase, Long> duracoes = new EnumMap<>(Fase.class);
+    private int comandosSql;
+    private long inicioDaSerializacao;
+
+    private MedicaoDaRequisicao() {
+    }
+
+    static MedicaoDaRequisicao iniciar() {
+        var medicao = new MedicaoDaRequisicao();
+        ATUAL.set(medicao);
+        return medicao;
+    }
+
+    static void encerrar() {
+        ATUAL.remove();
+    }
+
+    public static MedicaoDaRequisicao atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Soma a duração à fase da requisição atual, se ela estiver sendo medida.
+     */
+    public static void registrar(Fase fase, long duracaoEmNanos) {
+        var medicao = ATUAL.get();
+        if (medicao != null) {
+            medicao.duracoes.merge(fase, duracaoEmNanos, Long::sum);
+        }
+    }
+
+    public static void contarSql() {
+        var medicao = ATUAL.get();
+        if (medicao != null) {
+            medicao.comandosSql++;
+        }
+    }
+
+    void marcarInicioDaSerializacao() {
+        if (inicioDaSerializacao == 0) {
+            inicioDaSerializacao = System.nanoTime();
+        }
+    }
+
+    void encerrarSerializacao() {
+        if (inicioDaSerializacao != 0) {
+            duracoes.put(Fase.SERIALIZACAO, System.nanoTime() - inicioDaSerializacao);
+        }
+    }
+
+    long duracao(Fase fase) {
+        return duracoes.getOrDefault(fase, 0L);
+    }
+
+    int getComandosSql() {
+        return comandosSql;
+    }
+
+    long decorrido() {
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Valor do header Server-Timing com as fases medidas até agora e o tempo
+     * decorrido com o nome informado ("app" quando o corpo começa a ser
+     * escrito, "total" quando a resposta termina sem corpo).
+     */
+    String serverTiming(String nomeDoDecorrido) {
+        var header = new StringJoiner(", ");
+        duracoes.forEach((fase, duracao) -> {
+            var metrica = fase.getNome() + ";dur=" + emMilissegundos(duracao);
+            if (fase == Fase.SQL) {
+                metrica += ";desc=\"" + comandosSql + " comandos\"";
+            }
+            header.add(metrica);
+        });
+        header.add(nomeDoDecorrido + ";dur=" + emMilissegundos(decorrido()));
+        return header.toString();
+    }
+
+    static String emMilissegundos(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.lucianodacunha.api.infra.metricas;
+
+import org.hibernate.BaseSessionEventListener;
+
+import static io.github.lucianodacunha.api.infra.metricas.MedicaoDaRequisicao.Fase;
+
+/**
+ * Listener de sessão do Hibernate (uma instância por sessão) que soma à
+ * requisição amostrada os comandos SQL executados, o tempo deles no JDBC e o
+ * tempo de flush (inclusive o parcial, antes de queries). Um batch conta como um comando. SQL executado direto pelo
+ * JdbcTemplate não passa por aqui.
+ */
+public class MedicaoDeSqlListener extends BaseSessionEventListener {
+
+    private long inicioDoComando;
+    private long inicioDoFlush;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicioDoComando = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        encerrarComando();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicioDoComando = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        encerrarComando();
+    }
+
+    @Override
+    public void flushStart() {
+        inicioDoFlush = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        MedicaoDaRequisicao.registrar(Fase.FLUSH, System.nanoTime() - inicioDoFlush);
+    }
+
+    @Override
+    public void partialFlushStart() {
+        inicioDoFlush = System.nanoTime();
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        MedicaoDaRequisicao.registrar(Fase.FLUSH, System.nanoTime() - inicioDoFlush);
+    }
+
+    private void encerrarComando() {
+        MedicaoDaRequisicao.registrar(Fase.SQL, System.nanoTime() - inicioDoComando);
+        MedicaoDaRequisicao.contarSql();
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.lucianodacunha.api.infra.metricas;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class ServerTimingConfigurations {
+
+    /**
+     * Fração das requisições medidas (0 desliga, 1 mede todas).
+     */
+    @Value("${api.server-timing.amostragem:0.01}")
+    private double amostragem;
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        var registro = new FilterRegistrationBean<>(new ServerTimingFilter(amostragem));
+        // antes do limite de conexões e do Spring Security, para o total incluir as esperas
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 90);
+        return registro;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer medicaoDeSql() {
+        return propriedades -> propriedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, MedicaoDeSqlListener.class.getName());
+    }
+}
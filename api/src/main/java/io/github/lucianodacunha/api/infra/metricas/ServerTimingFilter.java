@@ -0,0 +1,143 @@
+package io.github.lucianodacunha.api.infra.metricas;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.github.lucianodacunha.api.infra.metricas.MedicaoDaRequisicao.Fase;
+import static io.github.lucianodacunha.api.infra.metricas.MedicaoDaRequisicao.emMilissegundos;
+
+/**
+ * Mede uma amostra das requisições (api.server-timing.amostragem) por fase:
+ * autenticação, validadores, SQL e flush do Hibernate e serialização da
+ * resposta. O header Server-Timing é gravado no último momento em que os
+ * headers ainda podem mudar, quando a aplicação começa a escrever o corpo
+ * (ou chama sendError), com o tempo decorrido até ali em "app"; a
+ * serialização é medida a partir desse ponto e só aparece no log. Respostas
+ * que terminam sem escrever nada recebem o header com o "total".
+ *
+ * Toda requisição amostrada gera uma linha de log com os tempos como campos
+ * do evento (chave=valor no console).
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final double amostragem;
+
+    public ServerTimingFilter(double amostragem) {
+        this.amostragem = amostragem;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return amostragem <= 0 || ThreadLocalRandom.current().nextDouble() >= amostragem;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        var medicao = MedicaoDaRequisicao.iniciar();
+        var resposta = new RespostaMedida(response, medicao);
+        try {
+            filterChain.doFilter(request, resposta);
+        } finally {
+            MedicaoDaRequisicao.encerrar();
+            medicao.encerrarSerializacao();
+            if (!resposta.headerGravado && !response.isCommitted()) {
+                response.setHeader(SERVER_TIMING, medicao.serverTiming("total"));
+            }
+            registrarNoLog(request, response, medicao);
+        }
+    }
+
+    private void registrarNoLog(HttpServletRequest request, HttpServletResponse response, MedicaoDaRequisicao medicao) {
+        if (!LOG.isInfoEnabled()) {
+            return;
+        }
+        LOG.atInfo()
+                .addKeyValue("metodo", request.getMethod())
+                .addKeyValue("uri", request.getRequestURI())
+                .addKeyValue("status", response.getStatus())
+                .addKeyValue("total_ms", emMilissegundos(medicao.decorrido()))
+                .addKeyValue("auth_ms", emMilissegundos(medicao.duracao(Fase.AUTENTICACAO)))
+                .addKeyValue("validacao_ms", emMilissegundos(medicao.duracao(Fase.VALIDACAO)))
+                .addKeyValue("sql", medicao.getComandosSql())
+                .addKeyValue("sql_ms", emMilissegundos(medicao.duracao(Fase.SQL)))
+                .addKeyValue("flush_ms", emMilissegundos(medicao.duracao(Fase.FLUSH)))
+                .addKeyValue("serializacao_ms", emMilissegundos(medicao.duracao(Fase.SERIALIZACAO)))
+                .log("requisição medida");
+    }
+
+    /**
+     * Grava o header na primeira operação que pode confirmar a resposta.
+     */
+    private static class RespostaMedida extends HttpServletResponseWrapper {
+
+        private final MedicaoDaRequisicao medicao;
+        private boolean headerGravado;
+
+        RespostaMedida(HttpServletResponse response, MedicaoDaRequisicao medicao) {
+            super(response);
+            this.medicao = medicao;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            antesDeEscrever();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            antesDeEscrever();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            antesDeEscrever();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            antesDeEscrever();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            antesDeEscrever();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            antesDeEscrever();
+            super.sendRedirect(location);
+        }
+
+        private void antesDeEscrever() {
+            if (headerGravado) {
+                return;
+            }
+            headerGravado = true;
+            if (!isCommitted()) {
+                setHeader(SERVER_TIMING, medicao.serverTiming("app"));
+            }
+            medicao.marcarInicioDaSerializacao();
+        }
+    }
+}
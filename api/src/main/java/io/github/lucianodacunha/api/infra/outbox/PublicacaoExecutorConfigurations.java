@@ -0,0 +1,41 @@
+package io.github.lucianodacunha.api.infra.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads em que o DespachanteDeEventos chama os destinos, para poder
+ * desistir de uma chamada que passa de api.outbox.timeout-ms. Um destino
+ * que ignora a interrupção continua preso na sua thread; por isso há mais
+ * de uma, e sem fila: com todas presas a publicação é recusada na hora e
+ * conta como falha do evento.
+ */
+@Configuration
+public class PublicacaoExecutorConfigurations {
+
+    public static final String EXECUTOR_DE_PUBLICACAO = "executorDePublicacao";
+
+    @Value("${api.outbox.threads:4}")
+    private int quantidadeDeThreads;
+
+    @Bean(name = EXECUTOR_DE_PUBLICACAO, destroyMethod = "shutdownNow")
+    public ExecutorService executorDePublicacao(MeterRegistry meterRegistry) {
+        var executor = new ThreadPoolExecutor(
+                0, quantidadeDeThreads,
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new CustomizableThreadFactory("outbox-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "outbox");
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.lucianodacunha.api.infra.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool exclusivo para o login. O hash BCrypt é caro em CPU e, rodando nas
+ * threads do Tomcat, um pico de logins atrasava todas as outras
+ * requisições. Aqui o número de threads e o tamanho da fila são limitados;
+ * com a fila cheia o login é recusado na hora (429) em vez de esperar.
+ */
+@Configuration
+public class LoginExecutorConfigurations {
+
+    public static final String EXECUTOR_DE_LOGIN = "executorDeLogin";
+
+    @Value("${api.security.login.threads:0}")
+    private int quantidadeDeThreads;
+
+    @Value("${api.security.login.tamanho-fila:100}")
+    private int tamanhoDaFila;
+
+    @Bean(name = EXECUTOR_DE_LOGIN, destroyMethod = "shutdown")
+    public ExecutorService executorDeLogin(MeterRegistry meterRegistry) {
+        var threads = quantidadeDeThreads > 0 ? quantidadeDeThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        var executor = new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoDaFila),
+                new CustomizableThreadFactory("login-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // publica executor.queued (profundidade da fila), executor.active,
+        // executor.completed e o tempo de execução de cada login
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "login");
+    }
+}
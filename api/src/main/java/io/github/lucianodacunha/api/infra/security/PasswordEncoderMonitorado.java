@@ -0,0 +1,33 @@
+package io.github.lucianodacunha.api.infra.security;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Mede o tempo gasto pelo BCrypt ao gerar e ao conferir hashes de senha.
+ */
+class PasswordEncoderMonitorado implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer tempoDeHash;
+
+    PasswordEncoderMonitorado(PasswordEncoder delegate, Timer tempoDeHash) {
+        this.delegate = delegate;
+        this.tempoDeHash = tempoDeHash;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return tempoDeHash.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return tempoDeHash.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,6 +1,9 @@
 package io.github.lucianodacunha.api.infra.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -21,6 +24,25 @@ public class SecurityConfigurations {
     @Autowired
     private SecurityFilter securityFilter;
 
+    /**
+     * Custo (log2 das rodadas) usado nos novos hashes. Hashes já gravados
+     * guardam o próprio custo e continuam sendo conferidos normalmente.
+     */
+    @Value("${api.security.bcrypt.custo:10}")
+    private int custoBCrypt;
+
+    /**
+     * Porta separada do actuator (management.server.port), publicada só na
+     * rede interna: nela o Prometheus faz o scrape sem token, já que o JWT
+     * de usuário vence em 2 h. Sem porta separada (ou com a mesma da API) o
+     * actuator fica na porta da API e, fora o health, exige o token.
+     */
+    @Value("${management.server.port:-1}")
+    private int portaDeGerenciamento;
+
+    @Value("${server.port:8080}")
+    private int portaDaApi;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.csrf().disable()
@@ -28,19 +50,29 @@ public class SecurityConfigurations {
                 .and().authorizeHttpRequests()
                 .requestMatchers(HttpMethod.POST, "/login").permitAll()
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                .requestMatchers(request -> naPortaDeGerenciamento(request.getLocalPort())).permitAll()
                 .anyRequest().authenticated()
                 .and().addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
+    private boolean naPortaDeGerenciamento(int porta) {
+        return portaDeGerenciamento > 0 && portaDeGerenciamento != portaDaApi && porta == portaDeGerenciamento;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        var tempoDeHash = Timer.builder("api.login.hash")
+                .description("Tempo gasto pelo BCrypt para gerar ou conferir uma senha")
+                .tag("custo", String.valueOf(custoBCrypt))
+                .register(meterRegistry);
+        return new PasswordEncoderMonitorado(new BCryptPasswordEncoder(custoBCrypt), tempoDeHash);
     }
 }
 
@@ -1,43 +1,92 @@
 package io.github.lucianodacunha.api.infra.security;
 
-import io.github.lucianodacunha.api.repository.UsuarioRepository;
+import io.github.lucianodacunha.api.infra.metricas.MedicaoDaRequisicao;
+import io.github.lucianodacunha.api.service.CacheDeUsuarios;
 import io.github.lucianodacunha.api.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
+    private static final String PRINCIPAL_PELAS_CLAIMS = "claims";
+
     @Autowired
     private TokenService tokenService;
 
     @Autowired
-    private UsuarioRepository repository;
+    private CacheDeUsuarios cacheDeUsuarios;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * "claims" monta o usuário autenticado a partir do próprio token, sem ir
+     * ao banco; "banco" busca sempre o usuário (via cache), útil quando uma
+     * alteração de perfil precisa valer antes de o token expirar.
+     */
+    @Value("${api.security.token.principal:claims}")
+    private String origemDoPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var tokenJWT = recuperarToken(request);
 
         if (tokenJWT != null) {
-            var subject = tokenService.getSubject(tokenJWT);
-            var usuario = repository.findByLogin(subject);
-
-            var authentication = new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            // mede só a autenticação, não o restante da cadeia de filtros
+            var amostra = Timer.start(meterRegistry);
+            var inicio = System.nanoTime();
+            var resultado = "invalido";
+            try {
+                var token = tokenService.verificar(tokenJWT);
+                var authentication = autenticar(token);
+                if (authentication != null) {
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    resultado = authentication.getPrincipal() instanceof UsuarioAutenticado ? "claims" : "banco";
+                } else {
+                    resultado = "usuario-inexistente";
+                }
+            } finally {
+                MedicaoDaRequisicao.registrar(MedicaoDaRequisicao.Fase.AUTENTICACAO, System.nanoTime() - inicio);
+                amostra.stop(meterRegistry.timer("api.security.filtro", "autenticacao", resultado));
+            }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UsernamePasswordAuthenticationToken autenticar(TokenService.TokenVerificado token) {
+        var possuiClaims = token.idUsuario() != null && token.perfis() != null;
+        if (possuiClaims && PRINCIPAL_PELAS_CLAIMS.equals(origemDoPrincipal)) {
+            List<GrantedAuthority> perfis = token.perfis().stream()
+                    .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                    .toList();
+            var usuario = new UsuarioAutenticado(token.idUsuario(), token.subject(), perfis);
+            return new UsernamePasswordAuthenticationToken(usuario, null, perfis);
+        }
+
+        var usuario = cacheDeUsuarios.buscarPorLogin(token.subject());
+        if (usuario == null) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+    }
+
     private String recuperarToken(HttpServletRequest request) {
         var authorizationHeader = request.getHeader("Authorization");
         if (authorizationHeader != null) {
@@ -47,4 +96,4 @@ public class SecurityFilter extends OncePerRequestFilter {
         return null;
     }
 
-}
\ No newline at end of file
+}
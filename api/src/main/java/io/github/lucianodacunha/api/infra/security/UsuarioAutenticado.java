@@ -0,0 +1,18 @@
+package io.github.lucianodacunha.api.infra.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal montado a partir das claims do token JWT, sem consultar a
+ * tabela usuarios.
+ */
+public record UsuarioAutenticado(Long id, String login, List<GrantedAuthority> perfis) implements Principal {
+
+    @Override
+    public String getName() {
+        return login;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.lucianodacunha.api.infra.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as requisições em andamento ao que o pool de conexões atende. Com
+ * threads virtuais o Tomcat aceita quantas requisições chegarem, e sem o
+ * limite elas fariam fila dentro do Hikari, cada uma segurando a memória da
+ * requisição até o connectionTimeout. Aqui a fila é justa, a espera é curta
+ * (api.threads.virtuais.limite.espera-ms) e o excedente recebe 503 com
+ * Retry-After. O actuator fica de fora para o health e as métricas
+ * continuarem respondendo sob carga.
+ */
+public class LimiteDeConexoesFilter extends OncePerRequestFilter {
+
+    private final Semaphore permissoes;
+    private final long esperaEmMs;
+    private final Timer espera;
+    private final Counter recusadas;
+
+    public LimiteDeConexoesFilter(int permissoes, long esperaEmMs, MeterRegistry meterRegistry) {
+        this.permissoes = new Semaphore(permissoes, true);
+        this.esperaEmMs = esperaEmMs;
+        this.espera = Timer.builder("api.threads.limite.espera").register(meterRegistry);
+        this.recusadas = Counter.builder("api.threads.limite.recusadas").register(meterRegistry);
+        Gauge.builder("api.threads.limite.disponiveis", this.permissoes, Semaphore::availablePermits).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        var inicio = System.nanoTime();
+        boolean obtida;
+        try {
+            obtida = permissoes.tryAcquire(esperaEmMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            obtida = false;
+        }
+        espera.record(Duration.ofNanos(System.nanoTime() - inicio));
+
+        if (!obtida) {
+            recusadas.increment();
+            recusar(response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    /**
+     * Escreve o 503 direto na resposta. Com sendError o Tomcat repassaria a
+     * requisição para /error, que o Spring Security trata como qualquer
+     * outra rota: sem autenticação o cliente receberia 401 ou 403 em vez do
+     * 503 com Retry-After.
+     */
+    private void recusar(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("Serviço sobrecarregado, tente novamente em instantes.");
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.lucianodacunha.api.infra.threads;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Modo opcional (api.threads.virtuais.habilitado) em que as requisições do
+ * Tomcat e as tarefas assíncronas (@Async e o processamento assíncrono do
+ * MVC) rodam cada uma em uma thread virtual em vez do pool de threads de
+ * plataforma.
+ *
+ * Threads virtuais só existem a partir do Java 21 e o projeto compila para
+ * o 17, então o executor é criado por reflexão e a aplicação não sobe com o
+ * modo ligado em uma JVM mais antiga. Como o pool de conexões continua
+ * limitado, o LimiteDeConexoesFilter segura as requisições excedentes antes
+ * de elas ocuparem o Hikari. Com o MySQL o modo exige o Connector/J 9 ou
+ * superior.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.threads.virtuais.habilitado", havingValue = "true")
+public class ThreadsVirtuaisConfigurations {
+
+    public static final String EXECUTOR_VIRTUAL = "executorVirtual";
+
+    private static final int CONEXOES_DOS_GERADORES_DE_IDS = 2;
+
+    /**
+     * Registra no stderr as threads virtuais que bloqueiam presas à carrier
+     * (synchronized ou código nativo). A JVM lê a propriedade ao criar a
+     * primeira thread virtual; em produção prefira -Djdk.tracePinnedThreads.
+     */
+    @Value("${api.threads.virtuais.rastrear-pinning:false}")
+    private boolean rastrearPinning;
+
+    @Bean(name = EXECUTOR_VIRTUAL, destroyMethod = "shutdown")
+    public ExecutorService executorVirtual() {
+        if (rastrearPinning && System.getProperty("jdk.tracePinnedThreads") == null) {
+            System.setProperty("jdk.tracePinnedThreads", "short");
+        }
+        return novoExecutorVirtual("virtual-");
+    }
+
+    /**
+     * Confere o driver antes de o Tomcat subir, para que nenhuma requisição
+     * chegue a rodar em thread virtual com um driver que prende a carrier.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> threadsVirtuaisNoTomcat(ExecutorService executorVirtual, DataSource dataSource) {
+        verificarDriver(dataSource);
+        return protocolHandler -> protocolHandler.setExecutor(executorVirtual);
+    }
+
+    /**
+     * Permissões do limite de requisições; 0 usa o tamanho máximo do pool do
+     * Hikari menos as conexões que os geradores de ids de Consulta e
+     * EventoOutbox abrem à parte para reservar um novo bloco.
+     */
+    @Bean
+    public FilterRegistrationBean<LimiteDeConexoesFilter> limiteDeConexoesFilter(
+            DataSource dataSource, MeterRegistry meterRegistry,
+            @Value("${api.threads.virtuais.limite.permissoes:0}") int permissoes,
+            @Value("${api.threads.virtuais.limite.espera-ms:2000}") long esperaEmMs) {
+        if (permissoes <= 0) {
+            permissoes = dataSource instanceof HikariDataSource hikari
+                    ? Math.max(1, hikari.getMaximumPoolSize() - CONEXOES_DOS_GERADORES_DE_IDS)
+                    : Runtime.getRuntime().availableProcessors();
+        }
+
+        var registro = new FilterRegistrationBean<>(new LimiteDeConexoesFilter(permissoes, esperaEmMs, meterRegistry));
+        // antes do Spring Security, para a autenticação também esperar
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registro;
+    }
+
+    /**
+     * "applicationTaskExecutor" é o executor do processamento assíncrono do
+     * MVC e "taskExecutor" o que o @Async procura quando há mais de um
+     * TaskExecutor no contexto (o agendador também é um).
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor executorDeTarefasVirtual(ExecutorService executorVirtual) {
+        return new TaskExecutorAdapter(executorVirtual);
+    }
+
+    /**
+     * Versões do Connector/J anteriores à 9 fazem o I/O do socket dentro de
+     * blocos synchronized, o que prende a carrier enquanto o banco responde:
+     * com poucas carriers (uma por núcleo) algumas consultas lentas param
+     * todas as requisições. Nesse caso a aplicação não sobe; desligue
+     * api.threads.virtuais.habilitado ou atualize o driver.
+     */
+    static void verificarDriver(DataSource dataSource) {
+        new JdbcTemplate(dataSource).execute((ConnectionCallback<Void>) conexao -> {
+            var driver = conexao.getMetaData();
+            if (driver.getDriverName().contains("MySQL") && driver.getDriverMajorVersion() < 9) {
+                throw new IllegalStateException("api.threads.virtuais.habilitado exige o MySQL Connector/J 9 ou superior (driver atual: "
+                        + driver.getDriverName() + " " + driver.getDriverVersion() + "): as versões anteriores prendem a carrier durante as consultas");
+            }
+            return null;
+        });
+    }
+
+    static ExecutorService novoExecutorVirtual(String prefixo) {
+        try {
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder").getMethod("name", String.class, long.class)
+                    .invoke(builder, prefixo, 0L);
+            var threadFactory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("api.threads.virtuais.habilitado exige Java 21 ou superior (JVM atual: "
+                    + Runtime.version() + ")", ex);
+        }
+    }
+}
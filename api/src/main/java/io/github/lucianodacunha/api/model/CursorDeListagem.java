@@ -0,0 +1,39 @@
+package io.github.lucianodacunha.api.model;
+
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição do último registro entregue em uma listagem ordenada por
+ * (nome, id). Para o cliente é só um texto opaco, que ele devolve no
+ * parâmetro cursor para receber a página seguinte.
+ */
+public record CursorDeListagem(String nome, Long id) {
+
+    private static final char SEPARADOR = '\n';
+
+    public String codificar() {
+        var texto = id + String.valueOf(SEPARADOR) + nome;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor vazio indica a primeira página e devolve null.
+     */
+    public static CursorDeListagem decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            var texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separador = texto.indexOf(SEPARADOR);
+            return new CursorDeListagem(texto.substring(separador + 1), Long.valueOf(texto.substring(0, separador)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new ValidacaoException(MotivoRecusa.CURSOR_INVALIDO, "Cursor de paginação inválido!");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosAgendaMedico(Long idMedico, LocalDate dia, List<DadosHorarioAgenda> consultas) {
+}
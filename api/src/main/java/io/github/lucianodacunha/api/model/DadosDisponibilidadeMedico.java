@@ -0,0 +1,7 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DadosDisponibilidadeMedico(Long id, String nome, String crm, List<LocalDateTime> horariosLivres) {
+}
@@ -0,0 +1,8 @@
+package io.github.lucianodacunha.api.model;
+
+/**
+ * Registro recusado em uma importação: linha é a linha do arquivo em que o
+ * registro começa, contando o cabeçalho no CSV.
+ */
+public record DadosErroImportacao(long linha, String erro) {
+}
@@ -0,0 +1,17 @@
+package io.github.lucianodacunha.api.model;
+
+import io.github.lucianodacunha.api.entity.Consulta;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conteúdo (JSON) dos eventos de agendamento e cancelamento de consultas.
+ */
+public record DadosEventoConsulta(Long idConsulta, Long idMedico, Long idPaciente, LocalDateTime data,
+                                  MotivoCancelamento motivoCancelamento) {
+
+    public DadosEventoConsulta(Consulta consulta) {
+        this(consulta.getId(), consulta.getMedico().getId(), consulta.getPaciente().getId(), consulta.getData(),
+                consulta.getMotivoCancelamento());
+    }
+}
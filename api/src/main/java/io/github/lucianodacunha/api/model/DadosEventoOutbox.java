@@ -0,0 +1,17 @@
+package io.github.lucianodacunha.api.model;
+
+import io.github.lucianodacunha.api.entity.EventoOutbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento entregue aos destinos. O id é único, e a sequencia é crescente
+ * dentro do agregado: um evento pode ser entregue mais de uma vez (ao menos
+ * uma vez), então o destino deve descartar ids já recebidos.
+ */
+public record DadosEventoOutbox(Long id, TipoEvento tipo, Long idAgregado, int sequencia, String conteudo, LocalDateTime criadoEm) {
+
+    public DadosEventoOutbox(EventoOutbox evento) {
+        this(evento.getId(), evento.getTipo(), evento.getAgregadoId(), evento.getSequencia(), evento.getConteudo(), evento.getCriadoEm());
+    }
+}
@@ -0,0 +1,6 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalTime;
+
+public record DadosHorarioAgenda(LocalTime horario, Long idConsulta, Long idPaciente) {
+}
@@ -0,0 +1,6 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalDateTime;
+
+public record DadosIndiceConsulta(Long idMedico, LocalDateTime data) {
+}
@@ -0,0 +1,4 @@
+package io.github.lucianodacunha.api.model;
+
+public record DadosIndiceMedico(Long id, Especialidade especialidade) {
+}
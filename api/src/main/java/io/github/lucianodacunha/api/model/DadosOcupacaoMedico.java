@@ -0,0 +1,10 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma linha por consulta do médico no dia, ou uma única linha com data nula
+ * quando o médico não tem nenhuma.
+ */
+public record DadosOcupacaoMedico(Long id, String nome, String crm, LocalDateTime data) {
+}
@@ -0,0 +1,23 @@
+package io.github.lucianodacunha.api.model;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem por cursor. Não traz total de registros nem de
+ * páginas: proximoCursor é null quando não há mais registros.
+ */
+public record DadosPaginaCursor<T>(List<T> conteudo, String proximoCursor) {
+
+    public static <T> DadosPaginaCursor<T> de(Slice<T> pagina, Function<T, CursorDeListagem> posicao) {
+        var conteudo = pagina.getContent();
+        if (!pagina.hasNext() || conteudo.isEmpty()) {
+            return new DadosPaginaCursor<>(conteudo, null);
+        }
+
+        var ultimo = conteudo.get(conteudo.size() - 1);
+        return new DadosPaginaCursor<>(conteudo, posicao.apply(ultimo).codificar());
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.lucianodacunha.api.model;
+
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Um passo da linha do tempo da inicialização. duracaoMs inclui os passos
+ * filhos (idPai aponta para o passo que o contém).
+ */
+public record DadosPassoInicializacao(long id, Long idPai, String nome, Map<String, String> tags, double duracaoMs) {
+
+    public DadosPassoInicializacao(StartupTimeline.TimelineEvent evento) {
+        this(evento.getStartupStep().getId(),
+                evento.getStartupStep().getParentId(),
+                evento.getStartupStep().getName(),
+                tags(evento),
+                evento.getDuration().toNanos() / 1e6);
+    }
+
+    private static Map<String, String> tags(StartupTimeline.TimelineEvent evento) {
+        var tags = new LinkedHashMap<String, String>();
+        evento.getStartupStep().getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+        return tags;
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Eventos ainda não publicados e a criação do mais antigo deles (null
+ * quando não há pendentes).
+ */
+public record DadosPendenciaOutbox(long pendentes, LocalDateTime maisAntigo) {
+}
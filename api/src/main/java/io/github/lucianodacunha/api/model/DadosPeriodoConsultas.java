@@ -0,0 +1,10 @@
+package io.github.lucianodacunha.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data da primeira e da última consulta ativa (ambas null quando não há
+ * nenhuma).
+ */
+public record DadosPeriodoConsultas(LocalDateTime primeira, LocalDateTime ultima) {
+}
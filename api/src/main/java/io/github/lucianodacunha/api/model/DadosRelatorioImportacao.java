@@ -0,0 +1,10 @@
+package io.github.lucianodacunha.api.model;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote. Os erros trazem no máximo
+ * api.importacao.maximo-erros registros; recusados conta todos.
+ */
+public record DadosRelatorioImportacao(long lidos, long importados, long recusados, List<DadosErroImportacao> erros) {
+}
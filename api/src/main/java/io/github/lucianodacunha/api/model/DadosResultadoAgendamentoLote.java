@@ -0,0 +1,17 @@
+package io.github.lucianodacunha.api.model;
+
+/**
+ * Resultado de um item do agendamento em lote: indice é a posição do item
+ * na lista recebida; consulta vem preenchida quando o agendamento foi feito
+ * e erro quando foi recusado.
+ */
+public record DadosResultadoAgendamentoLote(int indice, DadosDetalhamentoConsulta consulta, String erro) {
+
+    public static DadosResultadoAgendamentoLote agendado(int indice, DadosDetalhamentoConsulta consulta) {
+        return new DadosResultadoAgendamentoLote(indice, consulta, null);
+    }
+
+    public static DadosResultadoAgendamentoLote recusado(int indice, String erro) {
+        return new DadosResultadoAgendamentoLote(indice, null, erro);
+    }
+}
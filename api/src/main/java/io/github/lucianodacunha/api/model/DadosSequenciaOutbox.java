@@ -0,0 +1,7 @@
+package io.github.lucianodacunha.api.model;
+
+/**
+ * Maior sequencia já gravada no outbox para o agregado.
+ */
+public record DadosSequenciaOutbox(Long agregadoId, Integer sequencia) {
+}
@@ -0,0 +1,4 @@
+package io.github.lucianodacunha.api.model;
+
+public record DadosSituacaoCadastro(Long id, Boolean ativo) {
+}
@@ -0,0 +1,35 @@
+package io.github.lucianodacunha.api.model;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Formatos das exportações e importações em streaming: um registro por
+ * linha (NDJSON) ou CSV com cabeçalho.
+ */
+public enum FormatoArquivo {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    FormatoArquivo(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static Optional<FormatoArquivo> doContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        var tipo = MediaType.parseMediaType(contentType);
+        return Arrays.stream(values())
+                .filter(f -> MediaType.parseMediaType(f.contentType).isCompatibleWith(tipo))
+                .findFirst();
+    }
+}
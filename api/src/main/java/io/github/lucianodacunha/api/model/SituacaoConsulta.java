@@ -0,0 +1,7 @@
+package io.github.lucianodacunha.api.model;
+
+public enum SituacaoConsulta {
+    ATIVAS,
+    CANCELADAS,
+    TODAS;
+}
@@ -0,0 +1,20 @@
+package io.github.lucianodacunha.api.model;
+
+/**
+ * Com iniciaAgregado o evento só é gravado junto com a criação da consulta,
+ * então é sempre o primeiro do agregado.
+ */
+public enum TipoEvento {
+    CONSULTA_AGENDADA(true),
+    CONSULTA_CANCELADA(false);
+
+    private final boolean iniciaAgregado;
+
+    TipoEvento(boolean iniciaAgregado) {
+        this.iniciaAgregado = iniciaAgregado;
+    }
+
+    public boolean iniciaAgregado() {
+        return iniciaAgregado;
+    }
+}
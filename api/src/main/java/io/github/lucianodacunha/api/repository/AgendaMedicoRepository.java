@@ -0,0 +1,42 @@
+package io.github.lucianodacunha.api.repository;
+
+import io.github.lucianodacunha.api.entity.AgendaMedico;
+import io.github.lucianodacunha.api.entity.AgendaMedicoId;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface AgendaMedicoRepository extends JpaRepository<AgendaMedico, AgendaMedicoId> {
+
+    /**
+     * Cria a agenda vazia se ainda não existir, sem falhar quando outra
+     * transação a cria ao mesmo tempo. O hint restringe a invalidação do
+     * cache de segundo nível à própria tabela; sem ele o Hibernate limparia
+     * todas as regiões a cada agendamento.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "agendas_medicos"))
+    @Query(nativeQuery = true, value = """
+        INSERT INTO agendas_medicos (medico_id, dia, consultas)
+        VALUES (:idMedico, :dia, '[]')
+        ON DUPLICATE KEY UPDATE medico_id = medico_id
+    """)
+    void criarSeNaoExistir(Long idMedico, LocalDate dia);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AgendaMedico a WHERE a.id = :id")
+    Optional<AgendaMedico> findParaAtualizacao(AgendaMedicoId id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AgendaMedico a WHERE a.id.dia = :dia")
+    List<AgendaMedico> findDoDiaParaAtualizacao(LocalDate dia);
+}
@@ -1,9 +1,16 @@
 package io.github.lucianodacunha.api.repository;
 
 import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.model.DadosConsultaAgenda;
+import io.github.lucianodacunha.api.model.DadosConsultaPaciente;
+import io.github.lucianodacunha.api.model.DadosIndiceConsulta;
+import io.github.lucianodacunha.api.model.DadosPeriodoConsultas;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
 
@@ -12,4 +19,53 @@ public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
     boolean existsByMedicoIdAndData(Long idMedico, LocalDateTime data);
 
     boolean existsByMedicoIdAndDataAndMotivoCancelamentoIsNull(Long idMedico, LocalDateTime data);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosIndiceConsulta(c.medico.id, c.data)
+        FROM Consulta c
+        WHERE c.data BETWEEN :inicio AND :fim
+        AND c.motivoCancelamento IS NULL
+    """)
+    List<DadosIndiceConsulta> findOcupacaoEntre(LocalDateTime inicio, LocalDateTime fim);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosConsultaAgenda(c.id, c.medico.id, c.paciente.id, c.data)
+        FROM Consulta c
+        WHERE c.data BETWEEN :inicio AND :fim
+        AND c.motivoCancelamento IS NULL
+    """)
+    List<DadosConsultaAgenda> findAgendasEntre(LocalDateTime inicio, LocalDateTime fim);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosConsultaAgenda(c.id, c.medico.id, c.paciente.id, c.data)
+        FROM Consulta c
+        WHERE c.medico.id = :idMedico
+        AND c.data BETWEEN :inicio AND :fim
+        AND c.motivoCancelamento IS NULL
+    """)
+    List<DadosConsultaAgenda> findAgendaDoMedicoEntre(Long idMedico, LocalDateTime inicio, LocalDateTime fim);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosPeriodoConsultas(min(c.data), max(c.data))
+        FROM Consulta c
+        WHERE c.motivoCancelamento IS NULL
+    """)
+    DadosPeriodoConsultas findPeriodoDasConsultas();
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosIndiceConsulta(c.medico.id, c.data)
+        FROM Consulta c
+        WHERE c.medico.id IN :idsMedicos
+        AND c.data IN :datas
+        AND c.motivoCancelamento IS NULL
+    """)
+    List<DadosIndiceConsulta> findOcupacaoDosMedicosNasDatas(Collection<Long> idsMedicos, Collection<LocalDateTime> datas);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosConsultaPaciente(c.paciente.id, c.data)
+        FROM Consulta c
+        WHERE c.paciente.id IN :idsPacientes
+        AND c.data BETWEEN :inicio AND :fim
+    """)
+    List<DadosConsultaPaciente> findConsultasDosPacientesEntre(Collection<Long> idsPacientes, LocalDateTime inicio, LocalDateTime fim);
 }
\ No newline at end of file
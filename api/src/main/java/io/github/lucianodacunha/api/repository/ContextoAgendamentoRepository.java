@@ -0,0 +1,63 @@
+package io.github.lucianodacunha.api.repository;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.validation.agendamento.ContextoAgendamento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Carrega em uma única ida ao banco a situação do paciente, do médico e os
+ * dois conflitos de horário verificados no agendamento de uma consulta.
+ */
+@Repository
+public class ContextoAgendamentoRepository {
+
+    private static final String SQL = """
+            SELECT
+                (SELECT p.ativo FROM pacientes p WHERE p.id = ?1),
+                (SELECT m.ativo FROM medicos m WHERE m.id = ?2),
+                CASE WHEN EXISTS (
+                    SELECT 1 FROM consultas c
+                    WHERE c.medico_id = ?2 AND c.data = ?3 AND c.motivo_cancelamento IS NULL
+                ) THEN 1 ELSE 0 END,
+                CASE WHEN EXISTS (
+                    SELECT 1 FROM consultas c
+                    WHERE c.paciente_id = ?1 AND c.data BETWEEN ?4 AND ?5
+                ) THEN 1 ELSE 0 END
+            """;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public ContextoAgendamento carregar(DadosAgendamentoConsulta dados, Long idMedico) {
+        var primeiroHorario = dados.data().withHour(7);
+        var ultimoHorario = dados.data().withHour(18);
+
+        var linha = (Object[]) em.createNativeQuery(SQL)
+                .setParameter(1, dados.idPaciente())
+                .setParameter(2, idMedico)
+                .setParameter(3, dados.data())
+                .setParameter(4, primeiroHorario)
+                .setParameter(5, ultimoHorario)
+                .getSingleResult();
+
+        return new ContextoAgendamento(
+                dados,
+                idMedico,
+                paraBoolean(linha[0]),
+                paraBoolean(linha[1]),
+                paraBoolean(linha[2]),
+                paraBoolean(linha[3]));
+    }
+
+    private Boolean paraBoolean(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        if (valor instanceof Boolean booleano) {
+            return booleano;
+        }
+        return ((Number) valor).intValue() != 0;
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.lucianodacunha.api.repository;
+
+import io.github.lucianodacunha.api.entity.EventoOutbox;
+import io.github.lucianodacunha.api.model.DadosPendenciaOutbox;
+import io.github.lucianodacunha.api.model.DadosSequenciaOutbox;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Os pendentes prontos para publicar, travados até o fim da transação
+     * que os reserva: outra instância da API espera a reserva em vez de
+     * pegar os mesmos eventos. Só entra o primeiro pendente de cada agregado
+     * (nenhum anterior na sequencia ainda sem publicar, descartados
+     * inclusive) e só se não estiver esperando nova tentativa ou reservado.
+     * Assim um agregado bloqueado não ocupa o lote nem impede que os outros
+     * andem. Os criados depois de inicioDoCiclo ficam para o próximo ciclo.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT e FROM EventoOutbox e
+        WHERE e.publicadoEm IS NULL
+        AND e.descartadoEm IS NULL
+        AND e.criadoEm <= :inicioDoCiclo
+        AND (e.proximaTentativa IS NULL OR e.proximaTentativa < :inicioDoCiclo)
+        AND NOT EXISTS (
+            SELECT 1 FROM EventoOutbox anterior
+            WHERE anterior.agregadoId = e.agregadoId
+            AND anterior.publicadoEm IS NULL
+            AND (anterior.sequencia < e.sequencia OR (anterior.sequencia = e.sequencia AND anterior.id < e.id))
+        )
+        ORDER BY e.criadoEm, e.id
+    """)
+    List<EventoOutbox> findProntosParaAtualizacao(LocalDateTime inicioDoCiclo, Pageable lote);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosSequenciaOutbox(e.agregadoId, max(e.sequencia))
+        FROM EventoOutbox e
+        WHERE e.agregadoId IN :agregados
+        GROUP BY e.agregadoId
+    """)
+    List<DadosSequenciaOutbox> findUltimasSequencias(Collection<Long> agregados);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosPendenciaOutbox(count(e), min(e.criadoEm))
+        FROM EventoOutbox e
+        WHERE e.publicadoEm IS NULL
+        AND e.descartadoEm IS NULL
+    """)
+    DadosPendenciaOutbox findPendencia();
+
+    long countByPublicadoEmIsNullAndDescartadoEmIsNotNull();
+
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.publicadoEm < :limite")
+    int deleteByPublicadoEmBefore(LocalDateTime limite);
+}
@@ -2,16 +2,58 @@ package io.github.lucianodacunha.api.repository;
 
 
 import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.model.DadosListagemMedico;
+import io.github.lucianodacunha.api.model.DadosOcupacaoMedico;
+import io.github.lucianodacunha.api.model.DadosSituacaoCadastro;
+import io.github.lucianodacunha.api.model.DadosIndiceMedico;
 import io.github.lucianodacunha.api.model.Especialidade;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface MedicoRepository extends JpaRepository<Medico, Long> {
-    Page<Medico> findAllByAtivoTrue(Pageable paginacao);
+    /**
+     * Seleciona direto no record da listagem: só as colunas exibidas, sem
+     * carregar o endereço nem guardar snapshot de entidade no contexto de
+     * persistência.
+     */
+    @Query(value = """
+        SELECT new io.github.lucianodacunha.api.model.DadosListagemMedico(m.id, m.nome, m.email, m.crm, m.especialidade)
+        FROM Medico m
+        WHERE m.ativo = true
+    """, countQuery = """
+        SELECT count(m) FROM Medico m WHERE m.ativo = true
+    """)
+    Page<DadosListagemMedico> findListagemDosAtivos(Pageable paginacao);
+
+    /**
+     * Listagem por cursor (keyset): em vez de OFFSET, continua a partir do
+     * último (nome, id) entregue, usando o índice idx_medicos_ativo_nome_id.
+     * O Slice busca um registro a mais para saber se existe próxima página,
+     * sem executar count.
+     */
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosListagemMedico(m.id, m.nome, m.email, m.crm, m.especialidade)
+        FROM Medico m
+        WHERE m.ativo = true
+        ORDER BY m.nome, m.id
+    """)
+    Slice<DadosListagemMedico> findPrimeiraPaginaDosAtivos(Pageable pagina);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosListagemMedico(m.id, m.nome, m.email, m.crm, m.especialidade)
+        FROM Medico m
+        WHERE m.ativo = true
+        AND (m.nome > :nome OR (m.nome = :nome AND m.id > :id))
+        ORDER BY m.nome, m.id
+    """)
+    Slice<DadosListagemMedico> findPaginaDosAtivosApos(String nome, Long id, Pageable pagina);
 
     @Query("""
             select m from Medico m
@@ -32,9 +74,87 @@ public interface MedicoRepository extends JpaRepository<Medico, Long> {
             """)
     Medico escolherMedicoAleatorioLivreNaData(Especialidade especialidade, LocalDateTime data);
 
+    /**
+     * Como escolherMedicoAleatorioLivreNaData, sem os médicos descartados
+     * (no agendamento em lote, os já escolhidos para o mesmo horário). A
+     * lista não pode ser vazia.
+     */
+    @Query("""
+            select m from Medico m
+            where
+            m.ativo = true
+            and
+            m.especialidade = :especialidade
+            and
+            m.id not in :descartados
+            and
+            m.id not in(
+                select c.medico.id from Consulta c
+                where
+                c.data = :data
+        and
+                c.motivoCancelamento is null
+            )
+            order by rand()
+            limit 1
+            """)
+    Medico escolherMedicoAleatorioLivreNaDataExceto(Especialidade especialidade, LocalDateTime data, Collection<Long> descartados);
+
+    /**
+     * Médicos ativos da especialidade com as consultas de cada um entre
+     * inicio e fim, em uma única query: o LEFT JOIN mantém, com data nula,
+     * os médicos sem nenhuma consulta no período.
+     */
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosOcupacaoMedico(m.id, m.nome, m.crm, c.data)
+        FROM Medico m
+        LEFT JOIN Consulta c ON c.medico = m
+            AND c.data BETWEEN :inicio AND :fim
+            AND c.motivoCancelamento IS NULL
+        WHERE m.ativo = true
+        AND m.especialidade = :especialidade
+        ORDER BY m.nome, m.id
+    """)
+    List<DadosOcupacaoMedico> findOcupacaoDosAtivosEntre(Especialidade especialidade, LocalDateTime inicio, LocalDateTime fim);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosIndiceMedico(m.id, m.especialidade)
+        FROM Medico m
+        WHERE m.ativo = true
+    """)
+    List<DadosIndiceMedico> findIndiceDosAtivos();
+
     @Query("""
-        SELECT m.ativo FROM Medico m
+        SELECT CASE WHEN count(m) > 0 THEN true ELSE false END
+        FROM Medico m
         WHERE m.id = :id
+        AND m.ativo = true
+        AND NOT EXISTS (
+            SELECT c.id FROM Consulta c
+            WHERE c.medico.id = m.id
+            AND c.data = :data
+            AND c.motivoCancelamento IS NULL
+        )
+    """)
+    boolean isLivreNaData(Long id, LocalDateTime data);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosSituacaoCadastro(m.id, m.ativo)
+        FROM Medico m
+        WHERE m.id IN :ids
     """)
-    boolean findAtivoById(Long id);
+    List<DadosSituacaoCadastro> findSituacaoByIdIn(Collection<Long> ids);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosIndiceMedico(m.id, m.especialidade)
+        FROM Medico m
+        WHERE m.crm IN :crms
+    """)
+    List<DadosIndiceMedico> findIndiceByCrmIn(Collection<String> crms);
+
+    @Query("SELECT m.crm FROM Medico m WHERE m.crm IN :crms")
+    List<String> findCrmByCrmIn(Collection<String> crms);
+
+    @Query("SELECT m.email FROM Medico m WHERE m.email IN :emails")
+    List<String> findEmailByEmailIn(Collection<String> emails);
 }
\ No newline at end of file
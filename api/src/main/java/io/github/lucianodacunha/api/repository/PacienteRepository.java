@@ -1,22 +1,72 @@
 package io.github.lucianodacunha.api.repository;
 
 import io.github.lucianodacunha.api.entity.Paciente;
+import io.github.lucianodacunha.api.model.DadosListagemPaciente;
+import io.github.lucianodacunha.api.model.DadosSituacaoCadastro;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Objeto destinado a manipular os objetos da JPA, mapeando a entidade para
  * o bd.
  */
 public interface PacienteRepository extends JpaRepository<Paciente, Long> {
-    Page<Paciente> findAllByAtivoTrue(Pageable pagina);
+    /**
+     * Seleciona direto no record da listagem: só as colunas exibidas, sem
+     * carregar o endereço nem guardar snapshot de entidade no contexto de
+     * persistência.
+     */
+    @Query(value = """
+        SELECT new io.github.lucianodacunha.api.model.DadosListagemPaciente(p.id, p.nome, p.email, p.cpf)
+        FROM Paciente p
+        WHERE p.ativo = true
+    """, countQuery = """
+        SELECT count(p) FROM Paciente p WHERE p.ativo = true
+    """)
+    Page<DadosListagemPaciente> findListagemDosAtivos(Pageable pagina);
+
+    /**
+     * Listagem por cursor (keyset): em vez de OFFSET, continua a partir do
+     * último (nome, id) entregue, usando o índice idx_pacientes_ativo_nome_id.
+     * O Slice busca um registro a mais para saber se existe próxima página,
+     * sem executar count.
+     */
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosListagemPaciente(p.id, p.nome, p.email, p.cpf)
+        FROM Paciente p
+        WHERE p.ativo = true
+        ORDER BY p.nome, p.id
+    """)
+    Slice<DadosListagemPaciente> findPrimeiraPaginaDosAtivos(Pageable pagina);
 
     @Query("""
-        SELECT p.ativo
+        SELECT new io.github.lucianodacunha.api.model.DadosListagemPaciente(p.id, p.nome, p.email, p.cpf)
         FROM Paciente p
-        WHERE p.id = :id
-        """)
-    boolean findAtivoById(Long id);
-}
+        WHERE p.ativo = true
+        AND (p.nome > :nome OR (p.nome = :nome AND p.id > :id))
+        ORDER BY p.nome, p.id
+    """)
+    Slice<DadosListagemPaciente> findPaginaDosAtivosApos(String nome, Long id, Pageable pagina);
+
+    @Query("""
+        SELECT new io.github.lucianodacunha.api.model.DadosSituacaoCadastro(p.id, p.ativo)
+        FROM Paciente p
+        WHERE p.id IN :ids
+    """)
+    List<DadosSituacaoCadastro> findSituacaoByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.cpf FROM Paciente p WHERE p.cpf IN :cpfs")
+    List<String> findCpfByCpfIn(Collection<String> cpfs);
+
+    @Query("SELECT p.email FROM Paciente p WHERE p.email IN :emails")
+    List<String> findEmailByEmailIn(Collection<String> emails);
+
+    @Query("SELECT p.telefone FROM Paciente p WHERE p.telefone IN :telefones")
+    List<String> findTelefoneByTelefoneIn(Collection<String> telefones);
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package io.github.lucianodacunha.api.repository;
+
+import io.github.lucianodacunha.api.entity.TarefaAgendada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface TarefaAgendadaRepository extends JpaRepository<TarefaAgendada, String> {
+
+    /**
+     * Trava a tarefa até travadaAte se ela não estiver concluída nem travada
+     * por outra instância. O UPDATE é atômico no banco: quando várias
+     * instâncias tentam ao mesmo tempo, só uma recebe 1.
+     */
+    @Modifying
+    @Query("""
+        UPDATE TarefaAgendada t SET t.travadaAte = :travadaAte
+        WHERE t.nome = :nome
+        AND t.concluidaEm IS NULL
+        AND (t.travadaAte IS NULL OR t.travadaAte < :agora)
+    """)
+    int travar(String nome, LocalDateTime agora, LocalDateTime travadaAte);
+
+    @Modifying
+    @Query("UPDATE TarefaAgendada t SET t.concluidaEm = :agora, t.travadaAte = NULL WHERE t.nome = :nome")
+    int concluir(String nome, LocalDateTime agora);
+
+    boolean existsByNomeAndConcluidaEmIsNotNull(String nome);
+}
@@ -2,9 +2,17 @@ package io.github.lucianodacunha.api.repository;
 
 
 import io.github.lucianodacunha.api.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.security.core.userdetails.UserDetails;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    /**
+     * A query guarda só o id do usuário; a entidade vem da região usuarios
+     * do cache de segundo nível.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     UserDetails findByLogin(String login);
 }
\ No newline at end of file
@@ -2,23 +2,36 @@ package io.github.lucianodacunha.api.service;
 
 import io.github.lucianodacunha.api.entity.Consulta;
 import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
 import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
 import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
 import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
 import io.github.lucianodacunha.api.model.DadosDetalhamentoConsulta;
+import io.github.lucianodacunha.api.model.TipoEvento;
 import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.ContextoAgendamentoRepository;
 import io.github.lucianodacunha.api.repository.MedicoRepository;
 import io.github.lucianodacunha.api.repository.PacienteRepository;
-import io.github.lucianodacunha.api.validation.agendamento.AgendamentoDeConsultaValidator;
-import io.github.lucianodacunha.api.validation.cancelamento.CancelamentoDeConsultaValidator;
+import io.github.lucianodacunha.api.validation.CadeiaDeValidacoes;
+import io.github.lucianodacunha.api.validation.cancelamento.ContextoCancelamento;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 public class AgendaDeConsultasService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AgendaDeConsultasService.class);
+
     @Autowired
     private ConsultaRepository consultaRepository;
 
@@ -29,53 +42,180 @@ public class AgendaDeConsultasService {
     private PacienteRepository pacienteRepository;
 
     @Autowired
-    private List<AgendamentoDeConsultaValidator> agendamentoValidators;
+    private ContextoAgendamentoRepository contextoAgendamentoRepository;
+
+    @Autowired
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Autowired
+    private ReservaDeHorarios reservaDeHorarios;
+
+    @Value("${api.agendamento.indice-ocupacao.tentativas:3}")
+    private int tentativasPeloIndice;
+
+    @Value("${api.agendamento.reserva.tentativas:5}")
+    private int tentativasDeReserva;
+
+    @Autowired
+    private CadeiaDeValidacoes validacoes;
+
+    @Autowired
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Autowired
+    private OutboxDeEventos outbox;
+
     @Autowired
-    private List<CancelamentoDeConsultaValidator> cancelamentoValidators;
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AmostragemDeLog amostragem;
 
     public DadosDetalhamentoConsulta agendar(DadosAgendamentoConsulta dados) {
-        if (!pacienteRepository.existsById(dados.idPaciente())) {
-            throw new ValidacaoException("Id do paciente informado não existe!");
+        return medir("agendar", () -> agendarConsulta(dados));
+    }
+
+    public void cancelar(DadosCancelamentoConsulta dados) {
+        medir("cancelar", () -> {
+            cancelarConsulta(dados);
+            return null;
+        });
+    }
+
+    /**
+     * As verificações seguem a ordem de sempre: paciente, médico informado,
+     * validadores e só então a escolha do médico, para que a mesma
+     * requisição receba o mesmo erro. Com o médico informado, o horário é
+     * reservado antes da leitura do contexto, e o conflito lido já vale até o
+     * commit; com o médico escolhido pela API, cada candidato é reservado e
+     * confirmado livre no banco com a listra já presa.
+     */
+    private DadosDetalhamentoConsulta agendarConsulta(DadosAgendamentoConsulta dados) {
+        if (dados.idMedico() != null) {
+            reservaDeHorarios.reservar(dados.idMedico(), dados.data());
         }
 
-        if (dados.idMedico() != null && !medicoRepository.existsById(dados.idMedico())) {
-            throw new ValidacaoException("Id do médico informado não existe!");
+        var contexto = contextoAgendamentoRepository.carregar(dados, dados.idMedico());
+        if (contexto.pacienteAtivo() == null) {
+            throw new ValidacaoException(MotivoRecusa.PACIENTE_INEXISTENTE, "Id do paciente informado não existe!");
         }
 
-        agendamentoValidators.forEach(v -> v.validar(dados));
+        if (dados.idMedico() != null && contexto.medicoAtivo() == null) {
+            throw new ValidacaoException(MotivoRecusa.MEDICO_INEXISTENTE, "Id do médico informado não existe!");
+        }
 
-        var paciente = pacienteRepository.findById(dados.idPaciente()).get();
-        var medico = escolherMedico(dados);
+        validacoes.validarAgendamento(contexto);
+
+        var medico = dados.idMedico() != null
+                ? medicoRepository.getReferenceById(dados.idMedico())
+                : reservarMedicoLivre(dados);
         if (medico == null){
-            throw new ValidacaoException("Não existe médico disponível nessa data.");
+            throw new ValidacaoException(MotivoRecusa.SEM_MEDICO_DISPONIVEL, "Não existe médico disponível nessa data.");
         }
-        var consulta = new Consulta(null, medico, paciente, dados.data(), null);
-        consultaRepository.save(consulta);
 
+        var paciente = pacienteRepository.getReferenceById(dados.idPaciente());
+        var consulta = new Consulta(null, medico, paciente, dados.data(), null);
+        reservaDeHorarios.gravar(() -> consultaRepository.saveAndFlush(consulta));
+        agendaDosMedicos.registrar(consulta);
+        outbox.registrar(TipoEvento.CONSULTA_AGENDADA, consulta);
+        indiceDeOcupacao.ocupar(medico.getId(), consulta.getData());
+
+        amostragem.info(LOG, "consultas.agendar")
+                .addKeyValue("consulta", consulta.getId())
+                .addKeyValue("medico", medico.getId())
+                .addKeyValue("paciente", dados.idPaciente())
+                .addKeyValue("data", dados.data())
+                .log("consulta agendada");
         return new DadosDetalhamentoConsulta(consulta);
     }
 
-    private Medico escolherMedico(DadosAgendamentoConsulta dados) {
-        if (dados.idMedico() != null) {
-            return medicoRepository.getReferenceById(dados.idMedico());
+    /**
+     * Escolhe um candidato, trava a listra do horário dele e só então
+     * confirma no banco que o horário continua livre: duas requisições
+     * concorrentes podem ter escolhido o mesmo médico, e a segunda só o
+     * enxerga ocupado depois que a primeira libera a listra no commit.
+     * Candidatos ocupados são descartados e outro é escolhido, até
+     * api.agendamento.reserva.tentativas vezes.
+     */
+    private Medico reservarMedicoLivre(DadosAgendamentoConsulta dados) {
+        if (dados.especialidade() == null) {
+            throw new ValidacaoException(MotivoRecusa.ESPECIALIDADE_OBRIGATORIA, "Especialidade é obrigatória quando médico não for escolhido!");
         }
 
-        if (dados.especialidade() == null) {
-            throw new ValidacaoException("Especialidade é obrigatória quando médico não for escolhido!");
+        var descartados = new HashSet<Long>();
+        for (int tentativa = 0; tentativa < tentativasDeReserva; tentativa++) {
+            var idMedico = escolherCandidato(dados, descartados);
+            if (idMedico == null) {
+                return null;
+            }
+
+            if (reservaDeHorarios.reservarSeLivre(idMedico, dados.data(), () -> medicoRepository.isLivreNaData(idMedico, dados.data()))) {
+                return medicoRepository.getReferenceById(idMedico);
+            }
+            descartados.add(idMedico);
         }
 
-        return medicoRepository.escolherMedicoAleatorioLivreNaData(dados.especialidade(), dados.data());
+        return null;
     }
 
-    public void cancelar(DadosCancelamentoConsulta dados) {
-        if (!consultaRepository.existsById(dados.idConsulta())) {
-            throw new ValidacaoException("Id da consulta informado não existe!");
+    /**
+     * O índice pode estar defasado em relação ao banco (outras instâncias da
+     * API, médicos cadastrados em outro nó); o candidato dele é confirmado
+     * na reserva. Depois de api.agendamento.indice-ocupacao.tentativas
+     * candidatos recusados, ou sem candidato no índice, vale a query SQL.
+     */
+    private Long escolherCandidato(DadosAgendamentoConsulta dados, Set<Long> descartados) {
+        if (descartados.size() < tentativasPeloIndice) {
+            var candidato = indiceDeOcupacao.escolherMedicoLivre(dados.especialidade(), dados.data(), descartados);
+            if (candidato.isPresent()) {
+                return candidato.get();
+            }
         }
 
-        cancelamentoValidators.forEach(v -> v.validar(dados));
+        var medico = descartados.isEmpty()
+                ? medicoRepository.escolherMedicoAleatorioLivreNaData(dados.especialidade(), dados.data())
+                : medicoRepository.escolherMedicoAleatorioLivreNaDataExceto(dados.especialidade(), dados.data(), descartados);
+        return medico == null ? null : medico.getId();
+    }
+
+    private void cancelarConsulta(DadosCancelamentoConsulta dados) {
+        var consulta = consultaRepository.findById(dados.idConsulta())
+                .orElseThrow(() -> new ValidacaoException(MotivoRecusa.CONSULTA_INEXISTENTE, "Id da consulta informado não existe!"));
+
+        validacoes.validarCancelamento(new ContextoCancelamento(dados, consulta.getData()));
 
-        var consulta = consultaRepository.getReferenceById(dados.idConsulta());
         consulta.cancelar(dados.motivo());
+        agendaDosMedicos.remover(consulta);
+        outbox.registrar(TipoEvento.CONSULTA_CANCELADA, consulta);
+        indiceDeOcupacao.liberar(consulta.getMedico().getId(), consulta.getData());
+
+        amostragem.info(LOG, "consultas.cancelar")
+                .addKeyValue("consulta", dados.idConsulta())
+                .addKeyValue("motivo", dados.motivo())
+                .log("consulta cancelada");
     }
 
+    /**
+     * Timer api.consultas{operacao, resultado}. Não inclui o commit, que
+     * acontece depois, na transação aberta pelo controller. As recusas por
+     * regra de negócio também vão para o log, com o motivo.
+     */
+    private <T> T medir(String operacao, Supplier<T> acao) {
+        var amostra = Timer.start(meterRegistry);
+        var resultado = "sucesso";
+        try {
+            return acao.get();
+        } catch (ValidacaoException ex) {
+            resultado = "recusado";
+            amostragem.info(LOG, "consultas." + operacao)
+                    .addKeyValue("motivo", ex.getMessage())
+                    .log("operação recusada");
+            throw ex;
+        } catch (RuntimeException ex) {
+            resultado = "erro";
+            throw ex;
+        } finally {
+            amostra.stop(meterRegistry.timer("api.consultas", "operacao", operacao, "resultado", resultado));
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.AgendaMedico;
+import io.github.lucianodacunha.api.entity.AgendaMedicoId;
+import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.model.DadosAgendaMedico;
+import io.github.lucianodacunha.api.model.DadosConsultaAgenda;
+import io.github.lucianodacunha.api.model.DadosHorarioAgenda;
+import io.github.lucianodacunha.api.repository.AgendaMedicoRepository;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.TarefaAgendadaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém a projeção agendas_medicos: uma linha por (médico, dia) com as
+ * consultas ativas do dia. É atualizada dentro da transação do agendamento
+ * ou cancelamento, com a linha travada (SELECT ... FOR UPDATE) para que dois
+ * agendamentos do mesmo médico no mesmo dia não se sobrescrevam.
+ */
+@Service
+public class AgendaDosMedicosService {
+
+    public static final String PREENCHIMENTO = "agendas-medicos.preenchimento";
+
+    private static final Comparator<AgendaMedicoId> ORDEM_DE_TRAVA = Comparator
+            .comparing(AgendaMedicoId::getIdMedico)
+            .thenComparing(AgendaMedicoId::getDia);
+
+    @Autowired
+    private AgendaMedicoRepository agendaRepository;
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    @Autowired
+    private TarefaAgendadaRepository tarefaRepository;
+
+    private volatile boolean preenchida;
+
+    /**
+     * Depois do preenchimento inicial toda consulta ativa está na projeção,
+     * qualquer que seja o dia, e a ausência da agenda significa um dia sem
+     * consultas. Antes dele a ausência pode ser só uma agenda ainda não
+     * materializada, então a leitura vai a consultas.
+     */
+    public DadosAgendaMedico consultar(Long idMedico, LocalDate dia) {
+        if (!isPreenchida()) {
+            var consultas = consultaRepository
+                    .findAgendaDoMedicoEntre(idMedico, dia.atStartOfDay(), dia.atTime(LocalTime.MAX)).stream()
+                    .map(c -> horario(c.id(), c.idPaciente(), c.data()))
+                    .toList();
+            return new DadosAgendaMedico(idMedico, dia, AgendaMedico.ordenar(consultas));
+        }
+
+        var consultas = agendaRepository.findById(new AgendaMedicoId(idMedico, dia))
+                .map(AgendaMedico::getConsultas)
+                .orElse(List.of());
+        return new DadosAgendaMedico(idMedico, dia, consultas);
+    }
+
+    /**
+     * Uma vez concluído, o preenchimento não volta atrás: só a resposta
+     * positiva é guardada.
+     */
+    private boolean isPreenchida() {
+        if (!preenchida) {
+            preenchida = tarefaRepository.existsByNomeAndConcluidaEmIsNotNull(PREENCHIMENTO);
+        }
+        return preenchida;
+    }
+
+    public void registrar(Consulta consulta) {
+        registrar(List.of(consulta));
+    }
+
+    /**
+     * As agendas são travadas sempre na mesma ordem (médico, dia), para que
+     * dois lotes com médicos em comum não entrem em deadlock.
+     */
+    public void registrar(Collection<Consulta> consultas) {
+        var porAgenda = new TreeMap<AgendaMedicoId, List<Consulta>>(ORDEM_DE_TRAVA);
+        consultas.forEach(c -> porAgenda.computeIfAbsent(chave(c.getMedico().getId(), c.getData()), id -> new ArrayList<>()).add(c));
+
+        porAgenda.forEach((id, doDia) -> {
+            var agenda = travar(id);
+            doDia.forEach(c -> agenda.adicionar(horario(c.getId(), c.getPaciente().getId(), c.getData())));
+        });
+    }
+
+    public void remover(Consulta consulta) {
+        var id = chave(consulta.getMedico().getId(), consulta.getData());
+        agendaRepository.findParaAtualizacao(id).ifPresent(agenda -> agenda.remover(consulta.getId()));
+    }
+
+    /**
+     * Regrava, a partir de consultas, as agendas do dia que divergirem. As
+     * agendas do dia são travadas antes da leitura das consultas, então um
+     * agendamento concorrente ou já está na leitura, ou espera a trava e é
+     * aplicado sobre a agenda reconstruída. No MySQL (REPEATABLE READ) a
+     * trava pela faixa do índice idx_agendas_medicos_dia também impede que
+     * uma agenda nova do dia seja criada durante a reconstrução. Devolve
+     * quantas agendas foram corrigidas.
+     */
+    public int reconstruir(LocalDate dia) {
+        var gravadas = new HashMap<Long, AgendaMedico>();
+        agendaRepository.findDoDiaParaAtualizacao(dia)
+                .forEach(agenda -> gravadas.put(agenda.getId().getIdMedico(), agenda));
+
+        Map<Long, List<DadosHorarioAgenda>> esperadas = consultaRepository
+                .findAgendasEntre(dia.atStartOfDay(), dia.atTime(LocalTime.MAX)).stream()
+                .collect(Collectors.groupingBy(DadosConsultaAgenda::idMedico,
+                        Collectors.mapping(c -> horario(c.id(), c.idPaciente(), c.data()), Collectors.toList())));
+
+        var corrigidas = 0;
+        for (var gravada : gravadas.values()) {
+            var esperada = AgendaMedico.ordenar(esperadas.getOrDefault(gravada.getId().getIdMedico(), List.of()));
+            if (!esperada.equals(gravada.getConsultas())) {
+                gravada.substituir(esperada);
+                corrigidas++;
+            }
+        }
+
+        for (var idMedico : new TreeMap<>(esperadas).keySet()) {
+            if (!gravadas.containsKey(idMedico)) {
+                travar(new AgendaMedicoId(idMedico, dia)).substituir(esperadas.get(idMedico));
+                corrigidas++;
+            }
+        }
+
+        return corrigidas;
+    }
+
+    private AgendaMedico travar(AgendaMedicoId id) {
+        agendaRepository.criarSeNaoExistir(id.getIdMedico(), id.getDia());
+        return agendaRepository.findParaAtualizacao(id).orElseThrow();
+    }
+
+    private AgendaMedicoId chave(Long idMedico, LocalDateTime data) {
+        return new AgendaMedicoId(idMedico, data.toLocalDate());
+    }
+
+    private DadosHorarioAgenda horario(Long idConsulta, Long idPaciente, LocalDateTime data) {
+        return new DadosHorarioAgenda(data.toLocalTime(), idConsulta, idPaciente);
+    }
+}
@@ -0,0 +1,382 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.metricas.ContadorDeRecusas;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosConsultaPaciente;
+import io.github.lucianodacunha.api.model.DadosDetalhamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosResultadoAgendamentoLote;
+import io.github.lucianodacunha.api.model.DadosSituacaoCadastro;
+import io.github.lucianodacunha.api.model.TipoEvento;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.repository.PacienteRepository;
+import io.github.lucianodacunha.api.validation.CadeiaDeValidacoes;
+import io.github.lucianodacunha.api.validation.agendamento.ContextoAgendamento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Agenda várias consultas de uma vez. Em vez de repetir as idas ao banco de
+ * cada agendamento, o lote todo é validado com poucas queries por conjunto
+ * (situação de pacientes e médicos, horários ocupados), os conflitos entre os
+ * próprios itens do lote são verificados em memória e as consultas aceitas
+ * são gravadas com JDBC batch. Cada item recebe o seu próprio resultado,
+ * inclusive quando o horário é ocupado por outra instância só no insert.
+ */
+@Service
+public class AgendamentoEmLoteService {
+
+    private static final String INSERT = "insert into consultas (id, medico_id, paciente_id, data) values (?, ?, ?, ?)";
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Autowired
+    private ReservaDeHorarios reservaDeHorarios;
+
+    @Autowired
+    private CadeiaDeValidacoes validacoes;
+
+    @Autowired
+    private ContadorDeRecusas contadorDeRecusas;
+
+    @Autowired
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Autowired
+    private OutboxDeEventos outbox;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${api.agendamento.lote.tamanho-maximo:500}")
+    private int tamanhoMaximo;
+
+    @Value("${api.agendamento.lote.tamanho-batch-jdbc:50}")
+    private int tamanhoBatchJdbc;
+
+    @Value("${api.agendamento.indice-ocupacao.tentativas:3}")
+    private int tentativasPeloIndice;
+
+    public List<DadosResultadoAgendamentoLote> agendar(List<DadosAgendamentoConsulta> lote) {
+        if (lote == null || lote.isEmpty()) {
+            throw new ValidacaoException(MotivoRecusa.LOTE_VAZIO, "O lote deve conter ao menos um agendamento!");
+        }
+
+        if (lote.size() > tamanhoMaximo) {
+            throw new ValidacaoException(MotivoRecusa.LOTE_ACIMA_DO_MAXIMO, "O lote deve conter no máximo %d agendamentos!".formatted(tamanhoMaximo));
+        }
+
+        var resultados = new DadosResultadoAgendamentoLote[lote.size()];
+        var itens = resolverMedicos(lote, resultados);
+        var situacao = carregarSituacao(itens);
+
+        var aceitos = new ArrayList<ItemDoLote>();
+        var horariosAceitos = new HashSet<ChaveHorario>();
+        var consultasAceitasPorPaciente = new HashMap<Long, List<LocalDateTime>>();
+
+        for (var item : itens) {
+            var dados = item.dados();
+            var chave = new ChaveHorario(item.idMedico(), dados.data());
+            var inicioDoDia = dados.data().withHour(7);
+            var fimDoDia = dados.data().withHour(18);
+
+            var contexto = new ContextoAgendamento(
+                    dados,
+                    item.idMedico(),
+                    situacao.pacientes().get(dados.idPaciente()),
+                    situacao.medicos().get(item.idMedico()),
+                    situacao.horariosOcupados().contains(chave) || horariosAceitos.contains(chave),
+                    possuiConsultaEntre(situacao.consultasPorPaciente().get(dados.idPaciente()), inicioDoDia, fimDoDia)
+                            || possuiConsultaEntre(consultasAceitasPorPaciente.get(dados.idPaciente()), inicioDoDia, fimDoDia));
+
+            try {
+                validar(contexto);
+            } catch (ValidacaoException ex) {
+                contadorDeRecusas.registrar(ex, "lote");
+                resultados[item.indice()] = DadosResultadoAgendamentoLote.recusado(item.indice(), ex.getMessage());
+                continue;
+            }
+
+            aceitos.add(item);
+            horariosAceitos.add(chave);
+            consultasAceitasPorPaciente.computeIfAbsent(dados.idPaciente(), id -> new ArrayList<>()).add(dados.data());
+        }
+
+        gravar(aceitos, resultados);
+
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Valida os campos de cada item e define o médico de cada um. Primeiro
+     * entram os itens com médico informado, para que a escolha automática dos
+     * demais já desconsidere esses horários.
+     */
+    private List<ItemDoLote> resolverMedicos(List<DadosAgendamentoConsulta> lote, DadosResultadoAgendamentoLote[] resultados) {
+        var itens = new ArrayList<ItemDoLote>();
+        var medicosEscolhidosPorHorario = new HashMap<LocalDateTime, Set<Long>>();
+        var semMedico = new ArrayList<Integer>();
+
+        for (int indice = 0; indice < lote.size(); indice++) {
+            var dados = lote.get(indice);
+            var erro = validarCampos(dados);
+            if (erro != null) {
+                resultados[indice] = DadosResultadoAgendamentoLote.recusado(indice, erro);
+            } else if (dados.idMedico() != null) {
+                itens.add(new ItemDoLote(indice, dados, dados.idMedico()));
+                medicosEscolhidosPorHorario.computeIfAbsent(dados.data(), d -> new HashSet<>()).add(dados.idMedico());
+            } else {
+                semMedico.add(indice);
+            }
+        }
+
+        for (var indice : semMedico) {
+            var dados = lote.get(indice);
+            if (dados.especialidade() == null) {
+                resultados[indice] = DadosResultadoAgendamentoLote.recusado(indice, "Especialidade é obrigatória quando médico não for escolhido!");
+                continue;
+            }
+
+            var escolhidos = medicosEscolhidosPorHorario.computeIfAbsent(dados.data(), d -> new HashSet<>());
+            var idMedico = escolherMedico(dados, escolhidos);
+            if (idMedico == null) {
+                resultados[indice] = DadosResultadoAgendamentoLote.recusado(indice, "Não existe médico disponível nessa data.");
+                continue;
+            }
+
+            itens.add(new ItemDoLote(indice, dados, idMedico));
+            escolhidos.add(idMedico);
+        }
+
+        itens.sort((a, b) -> Integer.compare(a.indice(), b.indice()));
+        return itens;
+    }
+
+    /**
+     * Como no agendamento individual, o candidato do índice é confirmado no
+     * banco; ocupado, é descartado e outro é tentado, até
+     * api.agendamento.indice-ocupacao.tentativas vezes. Na query SQL ficam de
+     * fora os descartados e os médicos já escolhidos no lote para o mesmo
+     * horário, para que outro médico livre da especialidade seja sorteado.
+     */
+    private Long escolherMedico(DadosAgendamentoConsulta dados, Set<Long> escolhidosNoLote) {
+        var descartados = new HashSet<>(escolhidosNoLote);
+        for (int tentativa = 0; tentativa < tentativasPeloIndice; tentativa++) {
+            var candidato = indiceDeOcupacao.escolherMedicoLivre(dados.especialidade(), dados.data(), descartados);
+            if (candidato.isEmpty()) {
+                break;
+            }
+
+            var idMedico = candidato.get();
+            if (medicoRepository.isLivreNaData(idMedico, dados.data())) {
+                return idMedico;
+            }
+            descartados.add(idMedico);
+        }
+
+        var medico = descartados.isEmpty()
+                ? medicoRepository.escolherMedicoAleatorioLivreNaData(dados.especialidade(), dados.data())
+                : medicoRepository.escolherMedicoAleatorioLivreNaDataExceto(dados.especialidade(), dados.data(), descartados);
+        return medico == null ? null : medico.getId();
+    }
+
+    private SituacaoDoLote carregarSituacao(List<ItemDoLote> itens) {
+        if (itens.isEmpty()) {
+            return new SituacaoDoLote(Map.of(), Map.of(), Set.of(), Map.of());
+        }
+
+        var idsPacientes = itens.stream().map(i -> i.dados().idPaciente()).collect(Collectors.toSet());
+        var idsMedicos = itens.stream().map(ItemDoLote::idMedico).collect(Collectors.toSet());
+        var datas = itens.stream().map(i -> i.dados().data()).collect(Collectors.toSet());
+        var inicio = datas.stream().min(LocalDateTime::compareTo).get().withHour(7).withMinute(0);
+        var fim = datas.stream().max(LocalDateTime::compareTo).get().withHour(18).withMinute(59);
+
+        var horariosOcupados = consultaRepository.findOcupacaoDosMedicosNasDatas(idsMedicos, datas).stream()
+                .map(c -> new ChaveHorario(c.idMedico(), c.data()))
+                .collect(Collectors.toSet());
+        var consultasPorPaciente = consultaRepository.findConsultasDosPacientesEntre(idsPacientes, inicio, fim).stream()
+                .collect(Collectors.groupingBy(DadosConsultaPaciente::idPaciente,
+                        Collectors.mapping(DadosConsultaPaciente::data, Collectors.toList())));
+
+        return new SituacaoDoLote(
+                paraMapa(pacienteRepository.findSituacaoByIdIn(idsPacientes)),
+                paraMapa(medicoRepository.findSituacaoByIdIn(idsMedicos)),
+                horariosOcupados,
+                consultasPorPaciente);
+    }
+
+    private void validar(ContextoAgendamento contexto) {
+        if (contexto.pacienteAtivo() == null) {
+            throw new ValidacaoException(MotivoRecusa.PACIENTE_INEXISTENTE, "Id do paciente informado não existe!");
+        }
+
+        if (contexto.medicoAtivo() == null) {
+            throw new ValidacaoException(MotivoRecusa.MEDICO_INEXISTENTE, "Id do médico informado não existe!");
+        }
+
+        validacoes.validarAgendamento(contexto);
+    }
+
+    /**
+     * Grava em partes de api.agendamento.lote.tamanho-batch-jdbc, cada uma
+     * com as listras dos seus horários presas só durante o próprio insert.
+     * Os ids vêm do mesmo gerador usado pelo Hibernate (consultas_seq).
+     */
+    private void gravar(List<ItemDoLote> aceitos, DadosResultadoAgendamentoLote[] resultados) {
+        if (aceitos.isEmpty()) {
+            return;
+        }
+
+        var sessao = em.unwrap(SharedSessionContractImplementor.class);
+        var geradorDeIds = sessao.getFactory().getMappingMetamodel().getEntityDescriptor(Consulta.class).getIdentifierGenerator();
+        var gravadas = new ArrayList<Consulta>();
+        for (int inicio = 0; inicio < aceitos.size(); inicio += tamanhoBatchJdbc) {
+            var parte = aceitos.subList(inicio, Math.min(inicio + tamanhoBatchJdbc, aceitos.size()));
+            var consultas = parte.stream()
+                    .map(item -> new Consulta((Long) geradorDeIds.generate(sessao, null),
+                            medicoRepository.getReferenceById(item.idMedico()),
+                            pacienteRepository.getReferenceById(item.dados().idPaciente()),
+                            item.dados().data(),
+                            null))
+                    .toList();
+            var horarios = consultas.stream()
+                    .map(c -> new ReservaDeHorarios.Horario(c.getMedico().getId(), c.getData()))
+                    .toList();
+
+            var conflitantes = new HashSet<Long>();
+            reservaDeHorarios.reservarDurante(horarios, () -> conflitantes.addAll(inserir(consultas)));
+
+            for (int i = 0; i < parte.size(); i++) {
+                var indice = parte.get(i).indice();
+                var consulta = consultas.get(i);
+                if (conflitantes.contains(consulta.getId())) {
+                    var recusa = new ValidacaoException(MotivoRecusa.HORARIO_OCUPADO, ReservaDeHorarios.HORARIO_OCUPADO);
+                    contadorDeRecusas.registrar(recusa, "lote");
+                    resultados[indice] = DadosResultadoAgendamentoLote.recusado(indice, recusa.getMessage());
+                } else {
+                    gravadas.add(consulta);
+                    resultados[indice] = DadosResultadoAgendamentoLote.agendado(indice, new DadosDetalhamentoConsulta(consulta));
+                }
+            }
+        }
+
+        // os eventos do outbox vão pelo Hibernate, também com JDBC batch
+        em.unwrap(Session.class).setJdbcBatchSize(tamanhoBatchJdbc);
+        agendaDosMedicos.registrar(gravadas);
+        outbox.registrar(TipoEvento.CONSULTA_AGENDADA, gravadas);
+        gravadas.forEach(c -> indiceDeOcupacao.ocupar(c.getMedico().getId(), c.getData()));
+    }
+
+    /**
+     * Insere as consultas com JDBC batch e devolve os ids das que não
+     * puderam ser gravadas. O insert não passa pelo Hibernate porque uma
+     * falha no flush marcaria a transação do lote inteiro para rollback.
+     * Se outra instância ocupou um dos horários depois da verificação, o
+     * batch é desfeito até o savepoint e as consultas são inseridas uma a
+     * uma, recusando só as conflitantes; no MySQL o insert que falha é
+     * desfeito sozinho, sem derrubar a transação.
+     */
+    private Set<Long> inserir(List<Consulta> consultas) {
+        return jdbc.execute((ConnectionCallback<Set<Long>>) conexao -> {
+            var savepoint = conexao.setSavepoint();
+            try {
+                jdbc.batchUpdate(INSERT, consultas.stream().map(this::linha).toList());
+                return Set.of();
+            } catch (DataIntegrityViolationException ex) {
+                conexao.rollback(savepoint);
+                var conflitantes = new HashSet<Long>();
+                for (var consulta : consultas) {
+                    try {
+                        jdbc.update(INSERT, linha(consulta));
+                    } catch (DataIntegrityViolationException conflito) {
+                        if (!ReservaDeHorarios.isHorarioOcupado(conflito)) {
+                            throw conflito;
+                        }
+                        conflitantes.add(consulta.getId());
+                    }
+                }
+                return conflitantes;
+            } finally {
+                conexao.releaseSavepoint(savepoint);
+            }
+        });
+    }
+
+    private Object[] linha(Consulta consulta) {
+        return new Object[]{consulta.getId(), consulta.getMedico().getId(), consulta.getPaciente().getId(), consulta.getData()};
+    }
+
+    private String validarCampos(DadosAgendamentoConsulta dados) {
+        if (dados == null) {
+            return "Agendamento não informado!";
+        }
+
+        var violacoes = validator.validate(dados);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private boolean possuiConsultaEntre(Collection<LocalDateTime> datas, LocalDateTime inicio, LocalDateTime fim) {
+        return datas != null && datas.stream().anyMatch(d -> !d.isBefore(inicio) && !d.isAfter(fim));
+    }
+
+    private Map<Long, Boolean> paraMapa(List<DadosSituacaoCadastro> situacoes) {
+        var mapa = new HashMap<Long, Boolean>();
+        situacoes.forEach(s -> mapa.put(s.id(), s.ativo()));
+        return mapa;
+    }
+
+    private record ItemDoLote(int indice, DadosAgendamentoConsulta dados, Long idMedico) {}
+
+    private record ChaveHorario(Long idMedico, LocalDateTime data) {}
+
+    private record SituacaoDoLote(Map<Long, Boolean> pacientes,
+                                  Map<Long, Boolean> medicos,
+                                  Set<ChaveHorario> horariosOcupados,
+                                  Map<Long, List<LocalDateTime>> consultasPorPaciente) {}
+}
@@ -0,0 +1,109 @@
+package io.github.lucianodacunha.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lucianodacunha.api.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache local dos usuários por login, para os fluxos que ainda precisam da
+ * entidade completa (tokens antigos, sem claims). As entradas são removidas
+ * pelo UsuarioListener sempre que um usuário é alterado ou excluído.
+ */
+@Component
+public class CacheDeUsuarios {
+
+    @Autowired
+    private UsuarioRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.security.usuarios.cache.tamanho-maximo:1000}")
+    private long tamanhoMaximo;
+
+    @Value("${api.security.usuarios.cache.expiracao-minutos:10}")
+    private long expiracaoEmMinutos;
+
+    @Value("${api.threads.virtuais.habilitado:false}")
+    private boolean threadsVirtuais;
+
+    private Cache<String, UserDetails> usuarios;
+
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    @PostConstruct
+    void inicializar() {
+        usuarios = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(expiracaoEmMinutos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "usuarios");
+    }
+
+    /**
+     * Com threads virtuais a busca no banco não pode rodar dentro do get do
+     * Caffeine: o cálculo acontece sob o lock (synchronized) do
+     * ConcurrentHashMap, que prende a thread virtual à carrier durante todo
+     * o JDBC. Nesse modo dois pedidos simultâneos do mesmo login podem ir
+     * os dois ao banco.
+     *
+     * Fora do lock, uma invalidação pode chegar entre a leitura no banco e a
+     * gravação no cache. Por isso o usuário lido só entra no cache se nenhuma
+     * invalidação aconteceu desde antes da leitura. Se uma chegar logo depois
+     * da gravação, a entrada é retirada de novo.
+     */
+    public UserDetails buscarPorLogin(String login) {
+        if (!threadsVirtuais) {
+            return usuarios.get(login, repository::findByLogin);
+        }
+
+        var usuario = usuarios.getIfPresent(login);
+        if (usuario != null) {
+            return usuario;
+        }
+
+        var invalidacoesAntesDaLeitura = invalidacoes.get();
+        usuario = repository.findByLogin(login);
+        if (usuario != null && invalidacoes.get() == invalidacoesAntesDaLeitura) {
+            var cacheado = usuarios.asMap().putIfAbsent(login, usuario);
+            if (cacheado == null && invalidacoes.get() != invalidacoesAntesDaLeitura) {
+                usuarios.asMap().remove(login, usuario);
+            }
+        }
+        return usuario;
+    }
+
+    /**
+     * Remove na hora e de novo após o commit, para que uma leitura feita
+     * durante a transação não deixe no cache a versão antiga do usuário.
+     */
+    public void invalidar(String login) {
+        remover(login);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remover(login);
+                }
+            });
+        }
+    }
+
+    private void remover(String login) {
+        invalidacoes.incrementAndGet();
+        usuarios.invalidate(login);
+    }
+}
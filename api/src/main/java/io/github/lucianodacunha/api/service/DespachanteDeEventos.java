@@ -0,0 +1,269 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.EventoOutbox;
+import io.github.lucianodacunha.api.infra.outbox.PublicacaoExecutorConfigurations;
+import io.github.lucianodacunha.api.model.DadosEventoOutbox;
+import io.github.lucianodacunha.api.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publica os eventos do outbox nos destinos, em lotes de
+ * api.outbox.tamanho-lote. Cada lote é reservado numa transação curta (os
+ * eventos travados só enquanto são lidos e marcados com a reserva),
+ * publicado fora dela, e o resultado gravado numa segunda transação: um
+ * destino lento não segura travas no banco. Cada chamada a um destino tem
+ * até api.outbox.timeout-ms, e o lote para de publicar antes que a reserva
+ * (api.outbox.reserva-ms) vença; o que sobrar volta a ficar pronto quando
+ * ela vencer.
+ *
+ * Dentro de um agregado (a consulta) a ordem da sequencia é respeitada:
+ * cada lote traz só o primeiro pendente de cada agregado, e quando ele
+ * falha os seguintes ficam para depois. Os agregados à espera de nova
+ * tentativa ficam fora dos lotes, então não seguram os demais. As novas
+ * tentativas seguem espera exponencial; esgotadas, o evento vai para a fila
+ * de descartados (descartado_em preenchido, nunca removido pela limpeza,
+ * contado em api.outbox.descartados) e continua segurando os seguintes do
+ * agregado até ser reprocessado ou apagado manualmente.
+ *
+ * A entrega é ao menos uma vez: uma queda entre a publicação e o registro
+ * do resultado faz o evento ser publicado de novo depois da reserva.
+ */
+@Component
+public class DespachanteDeEventos {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DespachanteDeEventos.class);
+
+    @Autowired
+    private EventoOutboxRepository repository;
+
+    @Autowired(required = false)
+    private List<DestinoDeEventos> destinos = List.of();
+
+    @Autowired
+    @Qualifier(PublicacaoExecutorConfigurations.EXECUTOR_DE_PUBLICACAO)
+    private ExecutorService executor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.outbox.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${api.outbox.tamanho-lote:100}")
+    private int tamanhoDoLote;
+
+    @Value("${api.outbox.maximo-tentativas:10}")
+    private int maximoDeTentativas;
+
+    @Value("${api.outbox.espera-inicial-ms:1000}")
+    private long esperaInicialEmMs;
+
+    @Value("${api.outbox.espera-maxima-ms:300000}")
+    private long esperaMaximaEmMs;
+
+    @Value("${api.outbox.timeout-ms:5000}")
+    private long timeoutEmMs;
+
+    @Value("${api.outbox.reserva-ms:60000}")
+    private long reservaEmMs;
+
+    @Value("${api.outbox.retencao-dias:7}")
+    private int retencaoEmDias;
+
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicReference<LocalDateTime> maisAntigoPendente = new AtomicReference<>();
+
+    private Timer atraso;
+
+    /**
+     * api.outbox.atraso mede da gravação à publicação de cada evento;
+     * api.outbox.pendentes, api.outbox.descartados e api.outbox.idade-pendente
+     * (segundos do pendente mais antigo) são atualizados a cada ciclo, e a
+     * idade continua crescendo se o despachante parar.
+     */
+    @PostConstruct
+    void registrarMetricas() {
+        atraso = Timer.builder("api.outbox.atraso").register(meterRegistry);
+        Gauge.builder("api.outbox.pendentes", pendentes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("api.outbox.descartados", descartados, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("api.outbox.idade-pendente", maisAntigoPendente, maisAntigo -> {
+            var criadoEm = maisAntigo.get();
+            return criadoEm == null ? 0 : Duration.between(criadoEm, LocalDateTime.now()).toMillis() / 1000.0;
+        }).baseUnit("seconds").register(meterRegistry);
+    }
+
+    /**
+     * A reserva precisa caber ao menos uma publicação em todos os destinos,
+     * senão nenhum evento chegaria a ser publicado.
+     */
+    @PostConstruct
+    void verificarReserva() {
+        if (reservaEmMs <= timeoutEmMs * destinos.size()) {
+            throw new IllegalStateException("api.outbox.reserva-ms (" + reservaEmMs + ") deve ser maior que api.outbox.timeout-ms ("
+                    + timeoutEmMs + ") vezes o número de destinos (" + destinos.size() + ")");
+        }
+    }
+
+    /**
+     * Sem destinos configurados nada é publicado: os eventos esperam no
+     * outbox.
+     */
+    @Scheduled(fixedDelayString = "${api.outbox.intervalo-ms:500}")
+    public void despachar() {
+        if (!habilitado || destinos.isEmpty()) {
+            return;
+        }
+
+        // cada lote tira do conjunto elegível o que reservou e pode liberar o
+        // evento seguinte de um agregado; o ciclo termina quando não sobra
+        // nenhum elegível
+        var transacao = new TransactionTemplate(transactionManager);
+        var inicioDoCiclo = LocalDateTime.now();
+        List<EventoOutbox> reservados;
+        do {
+            reservados = transacao.execute(status -> reservar(inicioDoCiclo));
+            var resultados = publicar(reservados);
+            if (!resultados.isEmpty()) {
+                transacao.executeWithoutResult(status -> registrar(resultados));
+            }
+        } while (!reservados.isEmpty());
+
+        var pendencia = repository.findPendencia();
+        pendentes.set(pendencia.pendentes());
+        maisAntigoPendente.set(pendencia.maisAntigo());
+        descartados.set(repository.countByPublicadoEmIsNullAndDescartadoEmIsNotNull());
+    }
+
+    /**
+     * Remove só os publicados; os descartados ficam até serem tratados.
+     */
+    @Scheduled(cron = "${api.outbox.limpeza.cron:0 30 3 * * *}")
+    public void limpar() {
+        var transacao = new TransactionTemplate(transactionManager);
+        var removidos = transacao.execute(status ->
+                repository.deleteByPublicadoEmBefore(LocalDateTime.now().minusDays(retencaoEmDias)));
+        meterRegistry.counter("api.outbox.removidos").increment(removidos);
+    }
+
+    /**
+     * Os eventos lidos são de agregados diferentes. A reserva vai além do
+     * início do ciclo, então eles não voltam a ser lidos no mesmo ciclo.
+     */
+    private List<EventoOutbox> reservar(LocalDateTime inicioDoCiclo) {
+        var eventos = repository.findProntosParaAtualizacao(inicioDoCiclo, PageRequest.of(0, tamanhoDoLote));
+        var reservadoAte = LocalDateTime.now().plus(Duration.ofMillis(reservaEmMs));
+        eventos.forEach(evento -> evento.reservar(reservadoAte));
+        return eventos;
+    }
+
+    /**
+     * Devolve, por id, null para os publicados e a exceção para os que
+     * falharam. Os que não couberam na reserva ficam fora do mapa.
+     */
+    private Map<Long, Exception> publicar(List<EventoOutbox> eventos) {
+        var resultados = new HashMap<Long, Exception>();
+        var prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(reservaEmMs - timeoutEmMs * destinos.size());
+        for (var evento : eventos) {
+            if (System.nanoTime() > prazo) {
+                break;
+            }
+            try {
+                publicar(new DadosEventoOutbox(evento));
+                resultados.put(evento.getId(), null);
+            } catch (Exception ex) {
+                resultados.put(evento.getId(), ex);
+            }
+        }
+        return resultados;
+    }
+
+    private void publicar(DadosEventoOutbox evento) throws Exception {
+        for (var destino : destinos) {
+            var inicio = System.nanoTime();
+            var resultado = "sucesso";
+            try {
+                publicar(destino, evento);
+            } catch (Exception ex) {
+                resultado = ex instanceof TimeoutException ? "timeout" : "falha";
+                throw ex;
+            } finally {
+                meterRegistry.timer("api.outbox.publicacao", "destino", destino.nome(), "resultado", resultado)
+                        .record(Duration.ofNanos(System.nanoTime() - inicio));
+            }
+        }
+    }
+
+    private void publicar(DestinoDeEventos destino, DadosEventoOutbox evento) throws Exception {
+        var publicacao = executor.submit(() -> {
+            destino.publicar(evento);
+            return null;
+        });
+        try {
+            publicacao.get(timeoutEmMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            publicacao.cancel(true);
+            throw new TimeoutException("Destino " + destino.nome() + " não respondeu em " + timeoutEmMs + " ms");
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception causa ? causa : ex;
+        }
+    }
+
+    private void registrar(Map<Long, Exception> resultados) {
+        var agora = LocalDateTime.now();
+        for (var evento : repository.findAllById(resultados.keySet())) {
+            var falha = resultados.get(evento.getId());
+            if (falha != null) {
+                falhou(evento, falha, agora);
+                continue;
+            }
+
+            evento.publicado(agora);
+            atraso.record(Duration.between(evento.getCriadoEm(), agora));
+            meterRegistry.counter("api.outbox.eventos", "resultado", "publicado").increment();
+        }
+    }
+
+    private void falhou(EventoOutbox evento, Exception ex, LocalDateTime agora) {
+        var tentativa = evento.getTentativas() + 1;
+        var descartar = tentativa >= maximoDeTentativas;
+        var espera = Math.min(esperaMaximaEmMs, esperaInicialEmMs << Math.min(tentativa - 1, 30));
+        evento.falhou(ex.toString(), agora.plus(Duration.ofMillis(espera)), descartar, agora);
+
+        if (descartar) {
+            LOG.error("Evento {} ({}) descartado após {} tentativas, segurando os seguintes do agregado {}: {}",
+                    evento.getId(), evento.getTipo(), tentativa, evento.getAgregadoId(), ex.toString());
+            meterRegistry.counter("api.outbox.eventos", "resultado", "descartado").increment();
+        } else {
+            meterRegistry.counter("api.outbox.eventos", "resultado", "falha").increment();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.model.DadosEventoOutbox;
+
+/**
+ * Sistema externo que recebe os eventos do outbox (lembretes por SMS,
+ * faturamento). Cada bean que implementa esta interface recebe todos os
+ * eventos, em ordem de sequencia dentro de cada agregado. Uma exceção, ou
+ * passar de api.outbox.timeout-ms, faz o evento ser tentado de novo mais
+ * tarde, em todos os destinos.
+ */
+public interface DestinoDeEventos {
+
+    /**
+     * Nome usado na tag destino das métricas.
+     */
+    String nome();
+
+    void publicar(DadosEventoOutbox evento) throws Exception;
+}
@@ -0,0 +1,59 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.model.DadosEventoOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Destino local, dentro do próprio processo, para testes: guarda os eventos
+ * recebidos e pode simular falhas ou demora nas próximas publicações.
+ */
+@Component
+@ConditionalOnProperty(name = "api.outbox.destino-em-memoria.habilitado", havingValue = "true")
+public class DestinoDeEventosEmMemoria implements DestinoDeEventos {
+
+    private final List<DadosEventoOutbox> recebidos = new CopyOnWriteArrayList<>();
+    private final AtomicInteger falhasPendentes = new AtomicInteger();
+    private final AtomicInteger demorasPendentes = new AtomicInteger();
+    private volatile long demoraEmMs;
+
+    @Override
+    public String nome() {
+        return "memoria";
+    }
+
+    @Override
+    public void publicar(DadosEventoOutbox evento) throws InterruptedException {
+        if (demorasPendentes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            Thread.sleep(demoraEmMs);
+        }
+        if (falhasPendentes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new IllegalStateException("Falha simulada ao publicar o evento " + evento.id());
+        }
+        recebidos.add(evento);
+    }
+
+    public List<DadosEventoOutbox> getRecebidos() {
+        return new ArrayList<>(recebidos);
+    }
+
+    public void falharNasProximas(int publicacoes) {
+        falhasPendentes.set(publicacoes);
+    }
+
+    public void demorarNasProximas(int publicacoes, long demoraEmMs) {
+        this.demoraEmMs = demoraEmMs;
+        demorasPendentes.set(publicacoes);
+    }
+
+    public void limpar() {
+        recebidos.clear();
+        falhasPendentes.set(0);
+        demorasPendentes.set(0);
+    }
+}
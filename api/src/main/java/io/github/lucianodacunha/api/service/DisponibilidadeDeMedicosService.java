@@ -0,0 +1,87 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.model.DadosDisponibilidadeMedico;
+import io.github.lucianodacunha.api.model.DadosOcupacaoMedico;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Grade de horários livres dos médicos de uma especialidade em um dia.
+ * Segue as mesmas regras dos validadores de agendamento: consultas de hora
+ * em hora, das 07h às 18h, de segunda a sábado, com antecedência mínima de
+ * 30 minutos. A ocupação de todos os médicos vem de uma única query.
+ */
+@Service
+public class DisponibilidadeDeMedicosService {
+
+    private static final int PRIMEIRO_HORARIO = 7;
+    private static final int ULTIMO_HORARIO = 18;
+    private static final int ANTECEDENCIA_MINIMA_EM_MINUTOS = 30;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    public List<DadosDisponibilidadeMedico> consultar(Especialidade especialidade, LocalDate dia) {
+        var horarios = horariosAgendaveis(dia, LocalDateTime.now());
+        if (horarios.isEmpty()) {
+            return List.of();
+        }
+
+        var ocupacao = medicoRepository.findOcupacaoDosAtivosEntre(especialidade,
+                dia.atTime(PRIMEIRO_HORARIO, 0), dia.atTime(ULTIMO_HORARIO, 0));
+
+        // as linhas chegam ordenadas por nome e id, uma ou mais por médico
+        var ocupadosPorMedico = new LinkedHashMap<Long, OcupacaoDoMedico>();
+        for (var linha : ocupacao) {
+            var medico = ocupadosPorMedico.computeIfAbsent(linha.id(), id -> new OcupacaoDoMedico(linha));
+            if (linha.data() != null) {
+                medico.ocupados().add(linha.data());
+            }
+        }
+
+        return ocupadosPorMedico.values().stream()
+                .map(medico -> new DadosDisponibilidadeMedico(
+                        medico.dados().id(),
+                        medico.dados().nome(),
+                        medico.dados().crm(),
+                        horarios.stream().filter(h -> !medico.ocupados().contains(h)).toList()))
+                .toList();
+    }
+
+    /**
+     * Horários do dia em que uma consulta ainda pode ser agendada agora:
+     * nenhum aos domingos e em dias passados.
+     */
+    static List<LocalDateTime> horariosAgendaveis(LocalDate dia, LocalDateTime agora) {
+        if (dia.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return List.of();
+        }
+
+        var limite = agora.plusMinutes(ANTECEDENCIA_MINIMA_EM_MINUTOS);
+        var horarios = new ArrayList<LocalDateTime>();
+        for (int hora = PRIMEIRO_HORARIO; hora <= ULTIMO_HORARIO; hora++) {
+            var horario = dia.atTime(LocalTime.of(hora, 0));
+            if (!horario.isBefore(limite)) {
+                horarios.add(horario);
+            }
+        }
+        return horarios;
+    }
+
+    private record OcupacaoDoMedico(DadosOcupacaoMedico dados, HashSet<LocalDateTime> ocupados) {
+        private OcupacaoDoMedico(DadosOcupacaoMedico dados) {
+            this(dados, new HashSet<>());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package io.github.lucianodacunha.api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import io.github.lucianodacunha.api.model.FormatoArquivo;
+import io.github.lucianodacunha.api.model.SituacaoConsulta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exporta consultas com nome de médico e paciente direto do cursor JDBC para
+ * a saída, uma linha por vez: nada passa pelo contexto de persistência e a
+ * memória usada não depende da quantidade de linhas. A escrita é bloqueante,
+ * então um cliente lento segura a leitura do banco em vez de acumular linhas
+ * no heap.
+ */
+@Service
+public class ExportacaoDeConsultasService {
+
+    private static final String SQL = """
+            SELECT c.id, c.data, c.motivo_cancelamento,
+                   m.id, m.nome, m.crm, m.especialidade,
+                   p.id, p.nome, p.cpf
+            FROM consultas c
+            JOIN medicos m ON m.id = c.medico_id
+            JOIN pacientes p ON p.id = c.paciente_id
+            """;
+
+    private static final String[] COLUNAS = {"id", "data", "motivoCancelamento",
+            "idMedico", "nomeMedico", "crmMedico", "especialidade",
+            "idPaciente", "nomePaciente", "cpfPaciente"};
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Value("${api.exportacao.fetch-size:1000}")
+    private int fetchSize;
+
+    private final Semaphore exportacoesEmAndamento;
+
+    public ExportacaoDeConsultasService(@Value("${api.exportacao.maximo-simultaneas:2}") int maximoSimultaneas) {
+        this.exportacoesEmAndamento = new Semaphore(maximoSimultaneas);
+    }
+
+    /**
+     * A saída só é aberta depois de garantida a vaga, para que a recusa
+     * (429) ainda possa ser respondida normalmente.
+     */
+    public void exportar(FormatoArquivo formato, LocalDate inicio, LocalDate fim,
+                         SituacaoConsulta situacao, Saida saida) throws IOException {
+        if (!exportacoesEmAndamento.tryAcquire()) {
+            throw new RejectedExecutionException("Limite de exportações simultâneas atingido");
+        }
+
+        try (var escritor = new BufferedWriter(new OutputStreamWriter(saida.abrir(), StandardCharsets.UTF_8))) {
+            var escritorDeLinhas = formato == FormatoArquivo.CSV ? new LinhasCsv(escritor) : new LinhasNdjson(escritor);
+            escritorDeLinhas.iniciar();
+            percorrer(inicio, fim, situacao, escritorDeLinhas);
+            escritorDeLinhas.finalizar();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            exportacoesEmAndamento.release();
+        }
+    }
+
+    private void percorrer(LocalDate inicio, LocalDate fim, SituacaoConsulta situacao, EscritorDeLinhas linhas) {
+        var filtros = new ArrayList<String>();
+        var parametros = new ArrayList<Object>();
+        if (inicio != null) {
+            filtros.add("c.data >= ?");
+            parametros.add(Timestamp.valueOf(inicio.atStartOfDay()));
+        }
+        if (fim != null) {
+            filtros.add("c.data <= ?");
+            parametros.add(Timestamp.valueOf(fim.atTime(LocalTime.MAX)));
+        }
+        if (situacao == SituacaoConsulta.ATIVAS) {
+            filtros.add("c.motivo_cancelamento IS NULL");
+        } else if (situacao == SituacaoConsulta.CANCELADAS) {
+            filtros.add("c.motivo_cancelamento IS NOT NULL");
+        }
+        var sql = SQL + (filtros.isEmpty() ? "" : "WHERE " + String.join(" AND ", filtros) + "\n") + "ORDER BY c.id";
+
+        jdbc.execute((ConnectionCallback<Void>) conexao -> {
+            try (var statement = conexao.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize(conexao));
+                for (int i = 0; i < parametros.size(); i++) {
+                    statement.setObject(i + 1, parametros.get(i));
+                }
+                ler(statement, linhas);
+            }
+            return null;
+        });
+    }
+
+    private void ler(PreparedStatement statement, EscritorDeLinhas linhas) throws SQLException {
+        try (var resultado = statement.executeQuery()) {
+            try {
+                var valores = new Object[COLUNAS.length];
+                while (resultado.next()) {
+                    for (int i = 0; i < valores.length; i++) {
+                        valores[i] = resultado.getObject(i + 1);
+                    }
+                    linhas.escrever(valores);
+                }
+            } catch (UncheckedIOException ex) {
+                // cliente desconectou: sem o cancel, fechar um resultado em
+                // streaming no MySQL leria até o fim as linhas restantes
+                statement.cancel();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Sem useCursorFetch=true na URL, o Connector/J ignora fetch sizes
+     * positivos e carrega o resultado inteiro na memória; Integer.MIN_VALUE
+     * liga o streaming linha a linha.
+     */
+    private int fetchSize(Connection conexao) throws SQLException {
+        var metadados = conexao.getMetaData();
+        var mysql = metadados.getDatabaseProductName().toLowerCase().contains("mysql");
+        if (mysql && !metadados.getURL().toLowerCase().contains("usecursorfetch=true")) {
+            return Integer.MIN_VALUE;
+        }
+        return fetchSize;
+    }
+
+    @FunctionalInterface
+    public interface Saida {
+        OutputStream abrir() throws IOException;
+    }
+
+    private interface EscritorDeLinhas {
+        void iniciar();
+
+        void escrever(Object[] valores);
+
+        void finalizar();
+    }
+
+    private static class LinhasNdjson implements EscritorDeLinhas {
+        private final JsonGenerator json;
+        private boolean vazio = true;
+
+        private LinhasNdjson(Writer escritor) {
+            try {
+                json = JSON.createGenerator(escritor).setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void iniciar() {
+        }
+
+        @Override
+        public void escrever(Object[] valores) {
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < COLUNAS.length; i++) {
+                    var valor = valores[i];
+                    if (valor instanceof Number numero) {
+                        json.writeNumberField(COLUNAS[i], numero.longValue());
+                    } else if (valor == null) {
+                        json.writeNullField(COLUNAS[i]);
+                    } else {
+                        json.writeStringField(COLUNAS[i], texto(valor));
+                    }
+                }
+                json.writeEndObject();
+                vazio = false;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void finalizar() {
+            try {
+                if (!vazio) {
+                    json.writeRaw('\n');
+                }
+                json.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private static class LinhasCsv implements EscritorDeLinhas {
+        private final Writer escritor;
+
+        private LinhasCsv(Writer escritor) {
+            this.escritor = escritor;
+        }
+
+        @Override
+        public void iniciar() {
+            escreverLinha(COLUNAS);
+        }
+
+        @Override
+        public void escrever(Object[] valores) {
+            escreverLinha(valores);
+        }
+
+        @Override
+        public void finalizar() {
+        }
+
+        private void escreverLinha(Object[] valores) {
+            try {
+                for (int i = 0; i < valores.length; i++) {
+                    if (i > 0) {
+                        escritor.write(',');
+                    }
+                    if (valores[i] != null) {
+                        escritor.write(campoCsv(texto(valores[i])));
+                    }
+                }
+                escritor.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    static String campoCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private static String texto(Object valor) {
+        if (valor instanceof Timestamp data) {
+            return data.toLocalDateTime().toString();
+        }
+        return valor.toString();
+    }
+}
@@ -0,0 +1,437 @@
+package io.github.lucianodacunha.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.importacao.ImportacaoExecutorConfigurations;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
+import io.github.lucianodacunha.api.model.DadosCadastroMedico;
+import io.github.lucianodacunha.api.model.DadosCadastroPaciente;
+import io.github.lucianodacunha.api.model.DadosEndereco;
+import io.github.lucianodacunha.api.model.DadosErroImportacao;
+import io.github.lucianodacunha.api.model.DadosRelatorioImportacao;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.FormatoArquivo;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.repository.PacienteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Importa médicos e pacientes em lote a partir de um arquivo CSV ou NDJSON
+ * lido em streaming. Os registros são processados em lotes de
+ * api.importacao.tamanho-batch: a Bean Validation roda em paralelo no
+ * executor de importação, crm/cpf/email/telefone são verificados com uma
+ * query por chave para o lote inteiro e os aceitos são gravados com JDBC
+ * batch, cada lote na sua própria transação. Um registro recusado não
+ * impede a gravação dos demais.
+ *
+ * As chaves já aceitas ficam em memória até o fim da importação, para
+ * recusar repetições dentro do próprio arquivo.
+ */
+@Service
+public class ImportacaoDeCadastrosService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportacaoDeCadastrosService.class);
+
+    private static final int REGISTROS_POR_TAREFA = 64;
+
+    private static final List<String> COLUNAS_ENDERECO = List.of("logradouro", "bairro", "cep", "cidade", "uf", "complemento", "numero");
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier(ImportacaoExecutorConfigurations.EXECUTOR_DE_IMPORTACAO)
+    private ExecutorService executor;
+
+    @Autowired
+    private AmostragemDeLog amostragem;
+
+    @Value("${api.importacao.tamanho-batch:500}")
+    private int tamanhoDoBatch;
+
+    @Value("${api.importacao.maximo-erros:1000}")
+    private int maximoDeErros;
+
+    public DadosRelatorioImportacao importarMedicos(FormatoArquivo formato, InputStream entrada) throws IOException {
+        var medicos = new Cadastro<>(
+                DadosCadastroMedico.class,
+                Stream.concat(Stream.of("nome", "email", "telefone", "crm", "especialidade"), COLUNAS_ENDERECO.stream()).toList(),
+                c -> new DadosCadastroMedico(c.get("nome"), c.get("email"), c.get("telefone"), c.get("crm"),
+                        especialidade(c.get("especialidade")), endereco(c)),
+                List.of(new ChaveUnica<>("crm", DadosCadastroMedico::crm, medicoRepository::findCrmByCrmIn),
+                        new ChaveUnica<>("email", DadosCadastroMedico::email, medicoRepository::findEmailByEmailIn)),
+                """
+                insert into medicos (nome, email, telefone, crm, especialidade,
+                    logradouro, bairro, cep, cidade, uf, complemento, numero, ativo)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1)
+                """,
+                m -> linha(m.endereco(), m.nome(), m.email(), m.telefone(), m.crm(), m.especialidade().name()),
+                gravados -> medicoRepository.findIndiceByCrmIn(gravados.stream().map(DadosCadastroMedico::crm).toList())
+                        .forEach(m -> indiceDeOcupacao.registrarMedico(m.id(), m.especialidade())));
+        return importar("medicos.importar", medicos, formato, entrada);
+    }
+
+    public DadosRelatorioImportacao importarPacientes(FormatoArquivo formato, InputStream entrada) throws IOException {
+        var pacientes = new Cadastro<>(
+                DadosCadastroPaciente.class,
+                Stream.concat(Stream.of("nome", "email", "telefone", "cpf"), COLUNAS_ENDERECO.stream()).toList(),
+                c -> new DadosCadastroPaciente(c.get("nome"), c.get("email"), c.get("telefone"), c.get("cpf"), endereco(c)),
+                // telefone também é único em pacientes (V4)
+                List.of(new ChaveUnica<>("cpf", DadosCadastroPaciente::cpf, pacienteRepository::findCpfByCpfIn),
+                        new ChaveUnica<>("email", DadosCadastroPaciente::email, pacienteRepository::findEmailByEmailIn),
+                        new ChaveUnica<>("telefone", DadosCadastroPaciente::telefone, pacienteRepository::findTelefoneByTelefoneIn)),
+                """
+                insert into pacientes (nome, email, telefone, cpf,
+                    logradouro, bairro, cep, cidade, uf, complemento, numero, ativo)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1)
+                """,
+                p -> linha(p.endereco(), p.nome(), p.email(), p.telefone(), p.cpf()),
+                gravados -> {});
+        return importar("pacientes.importar", pacientes, formato, entrada);
+    }
+
+    private <T> DadosRelatorioImportacao importar(String evento, Cadastro<T> cadastro, FormatoArquivo formato, InputStream entrada) throws IOException {
+        var leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        var registros = formato == FormatoArquivo.CSV ? registrosCsv(cadastro, leitor) : registrosNdjson(cadastro, leitor);
+        var relatorio = new Relatorio();
+        var aceitas = new HashMap<String, Map<String, Long>>();
+
+        var lote = new ArrayList<Registro<T>>(tamanhoDoBatch);
+        Registro<T> registro;
+        while ((registro = registros.proximo()) != null) {
+            lote.add(registro);
+            if (lote.size() == tamanhoDoBatch) {
+                processar(cadastro, lote, aceitas, relatorio);
+                lote.clear();
+            }
+        }
+        processar(cadastro, lote, aceitas, relatorio);
+
+        if (relatorio.importados > 0) {
+            // as linhas foram gravadas sem o Hibernate, que por isso não
+            // invalidou as queries cacheadas sobre medicos e pacientes
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+
+        amostragem.info(LOG, evento)
+                .addKeyValue("formato", formato)
+                .addKeyValue("lidos", relatorio.lidos)
+                .addKeyValue("importados", relatorio.importados)
+                .addKeyValue("recusados", relatorio.recusados)
+                .log("importação concluída");
+        return relatorio.dados();
+    }
+
+    private <T> void processar(Cadastro<T> cadastro, List<Registro<T>> lote,
+                               Map<String, Map<String, Long>> aceitas, Relatorio relatorio) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        var erros = validar(lote);
+        var cadastradas = new HashMap<String, Set<String>>();
+        for (var chave : cadastro.chaves()) {
+            var valores = new HashSet<String>();
+            for (int i = 0; i < lote.size(); i++) {
+                if (erros[i] == null) {
+                    valores.add(chave.valor().apply(lote.get(i).dados()));
+                }
+            }
+            cadastradas.put(chave.nome(), valores.isEmpty() ? Set.of() : normalizar(chave.cadastradas().apply(valores)));
+        }
+
+        var aceitos = new ArrayList<Registro<T>>();
+        for (int i = 0; i < lote.size(); i++) {
+            var registro = lote.get(i);
+            var erro = erros[i] != null ? erros[i] : verificarUnicidade(cadastro, registro, cadastradas, aceitas);
+            if (erro != null) {
+                relatorio.recusar(registro.linha(), erro);
+                continue;
+            }
+
+            aceitos.add(registro);
+            for (var chave : cadastro.chaves()) {
+                aceitas.computeIfAbsent(chave.nome(), n -> new HashMap<>())
+                        .put(normalizar(chave.valor().apply(registro.dados())), registro.linha());
+            }
+        }
+
+        relatorio.lidos += lote.size();
+        gravar(cadastro, aceitos, relatorio);
+    }
+
+    /**
+     * Bean Validation dos registros do lote, em fatias no executor de
+     * importação. Cada posição do resultado traz o erro do registro
+     * correspondente, ou null.
+     */
+    private <T> String[] validar(List<Registro<T>> lote) {
+        var erros = new String[lote.size()];
+        var tarefas = new ArrayList<CompletableFuture<Void>>();
+        for (int inicio = 0; inicio < lote.size(); inicio += REGISTROS_POR_TAREFA) {
+            var de = inicio;
+            var ate = Math.min(inicio + REGISTROS_POR_TAREFA, lote.size());
+            tarefas.add(CompletableFuture.runAsync(() -> {
+                for (int i = de; i < ate; i++) {
+                    erros[i] = validar(lote.get(i));
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).join();
+        return erros;
+    }
+
+    private String validar(Registro<?> registro) {
+        if (registro.erro() != null) {
+            return registro.erro();
+        }
+
+        var violacoes = validator.validate(registro.dados());
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private <T> String verificarUnicidade(Cadastro<T> cadastro, Registro<T> registro,
+                                         Map<String, Set<String>> cadastradas, Map<String, Map<String, Long>> aceitas) {
+        for (var chave : cadastro.chaves()) {
+            var valor = normalizar(chave.valor().apply(registro.dados()));
+            if (cadastradas.get(chave.nome()).contains(valor)) {
+                return chave.nome() + ": já cadastrado";
+            }
+
+            var linha = aceitas.getOrDefault(chave.nome(), Map.of()).get(valor);
+            if (linha != null) {
+                return chave.nome() + ": repetido no arquivo (linha %d)".formatted(linha);
+            }
+        }
+        return null;
+    }
+
+    private <T> void gravar(Cadastro<T> cadastro, List<Registro<T>> aceitos, Relatorio relatorio) {
+        if (aceitos.isEmpty()) {
+            return;
+        }
+
+        var transacao = new TransactionTemplate(transactionManager);
+        try {
+            transacao.executeWithoutResult(status -> {
+                jdbc.batchUpdate(cadastro.insert(), aceitos.stream().map(r -> cadastro.valores().apply(r.dados())).toList());
+                cadastro.aposGravar().accept(aceitos.stream().map(Registro::dados).toList());
+            });
+            relatorio.importados += aceitos.size();
+        } catch (DataIntegrityViolationException ex) {
+            // uma chave foi cadastrada por fora entre a verificação e o
+            // insert: o lote é gravado um a um para recusar só o conflitante
+            var gravados = new ArrayList<T>();
+            transacao.executeWithoutResult(status -> {
+                for (var registro : aceitos) {
+                    try {
+                        jdbc.update(cadastro.insert(), cadastro.valores().apply(registro.dados()));
+                        gravados.add(registro.dados());
+                    } catch (DataIntegrityViolationException conflito) {
+                        relatorio.recusar(registro.linha(), "Cadastro viola uma restrição de unicidade");
+                    }
+                }
+                cadastro.aposGravar().accept(gravados);
+            });
+            relatorio.importados += gravados.size();
+        }
+    }
+
+    private <T> LeitorDeRegistros<T> registrosNdjson(Cadastro<T> cadastro, BufferedReader leitor) {
+        var leitorJson = objectMapper.readerFor(cadastro.tipo());
+        var linha = new long[]{0};
+        return () -> {
+            String texto;
+            do {
+                texto = leitor.readLine();
+                linha[0]++;
+                if (texto == null) {
+                    return null;
+                }
+            } while (texto.isBlank());
+
+            try {
+                return new Registro<>(linha[0], leitorJson.readValue(texto), null);
+            } catch (JsonProcessingException ex) {
+                return new Registro<>(linha[0], null, "JSON inválido: " + ex.getOriginalMessage());
+            }
+        };
+    }
+
+    private <T> LeitorDeRegistros<T> registrosCsv(Cadastro<T> cadastro, BufferedReader leitor) throws IOException {
+        var csv = new LeitorCsv(leitor);
+        var cabecalho = csv.ler();
+        if (cabecalho == null) {
+            throw new ValidacaoException(MotivoRecusa.ARQUIVO_SEM_CABECALHO, "O arquivo deve conter ao menos o cabeçalho!");
+        }
+
+        var colunas = cabecalho.stream().map(String::strip).toList();
+        var ausentes = cadastro.colunasCsv().stream().filter(c -> !colunas.contains(c)).toList();
+        if (!ausentes.isEmpty()) {
+            throw new ValidacaoException(MotivoRecusa.COLUNAS_AUSENTES, "Colunas ausentes no cabeçalho: " + String.join(", ", ausentes));
+        }
+
+        return () -> {
+            List<String> campos;
+            try {
+                campos = csv.ler();
+            } catch (IllegalStateException ex) {
+                return new Registro<>(csv.linhaDoRegistro(), null, ex.getMessage());
+            }
+            if (campos == null) {
+                return null;
+            }
+            if (campos.size() != colunas.size()) {
+                return new Registro<>(csv.linhaDoRegistro(), null,
+                        "Registro com %d colunas, o cabeçalho tem %d".formatted(campos.size(), colunas.size()));
+            }
+
+            var valores = new HashMap<String, String>();
+            for (int i = 0; i < colunas.size(); i++) {
+                var valor = campos.get(i).strip();
+                valores.put(colunas.get(i), valor.isEmpty() ? null : valor);
+            }
+            try {
+                return new Registro<>(csv.linhaDoRegistro(), cadastro.doCsv().apply(valores), null);
+            } catch (IllegalArgumentException ex) {
+                return new Registro<>(csv.linhaDoRegistro(), null, ex.getMessage());
+            }
+        };
+    }
+
+    private static Especialidade especialidade(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Especialidade.valueOf(valor);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("especialidade: valor inválido");
+        }
+    }
+
+    private static DadosEndereco endereco(Map<String, String> colunas) {
+        return new DadosEndereco(colunas.get("logradouro"), colunas.get("bairro"), colunas.get("cep"),
+                colunas.get("cidade"), colunas.get("uf"), colunas.get("complemento"), colunas.get("numero"));
+    }
+
+    /**
+     * Parâmetros do insert: os campos do cadastro seguidos dos do endereço,
+     * na ordem de COLUNAS_ENDERECO.
+     */
+    private static Object[] linha(DadosEndereco endereco, Object... campos) {
+        return Stream.concat(Stream.of(campos), Stream.of(endereco.logradouro(), endereco.bairro(), endereco.cep(),
+                endereco.cidade(), endereco.uf(), endereco.complemento(), endereco.numero())).toArray();
+    }
+
+    /**
+     * Compara sem diferenciar maiúsculas, como a collation padrão do MySQL
+     * faz nos índices únicos.
+     */
+    private static String normalizar(String valor) {
+        return valor.toLowerCase();
+    }
+
+    private static Set<String> normalizar(Collection<String> valores) {
+        return valores.stream().map(ImportacaoDeCadastrosService::normalizar).collect(Collectors.toSet());
+    }
+
+    private record Cadastro<T>(Class<T> tipo,
+                               List<String> colunasCsv,
+                               Function<Map<String, String>, T> doCsv,
+                               List<ChaveUnica<T>> chaves,
+                               String insert,
+                               Function<T, Object[]> valores,
+                               Consumer<List<T>> aposGravar) {}
+
+    private record ChaveUnica<T>(String nome, Function<T, String> valor,
+                                 Function<Collection<String>, List<String>> cadastradas) {}
+
+    private record Registro<T>(long linha, T dados, String erro) {}
+
+    @FunctionalInterface
+    private interface LeitorDeRegistros<T> {
+        Registro<T> proximo() throws IOException;
+    }
+
+    private class Relatorio {
+        private long lidos;
+        private long importados;
+        private long recusados;
+        private final List<DadosErroImportacao> erros = new ArrayList<>();
+
+        private void recusar(long linha, String erro) {
+            recusados++;
+            if (erros.size() < maximoDeErros) {
+                erros.add(new DadosErroImportacao(linha, erro));
+            }
+        }
+
+        private DadosRelatorioImportacao dados() {
+            erros.sort(Comparator.comparingLong(DadosErroImportacao::linha));
+            return new DadosRelatorioImportacao(lidos, importados, recusados, erros);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Índice em memória da ocupação dos horários dos médicos, por especialidade e
+ * por dia. Cada médico ativo recebe uma posição fixa dentro da sua
+ * especialidade e, para cada horário do dia, um BitSet marca as posições
+ * ocupadas. Assim, escolher um médico livre é uma operação sobre bits, sem
+ * ida ao banco.
+ *
+ * O índice é aquecido a partir da tabela consultas quando a aplicação sobe e
+ * é atualizado após o commit de cada agendamento/cancelamento. Todo dia o
+ * horizonte avança: o dia que entra é carregado do banco e os que passaram
+ * são descartados. Ele é só uma
+ * otimização: quem o utiliza deve confirmar o candidato no banco e usar a
+ * query SQL quando o índice não tiver resposta.
+ */
+@Component
+public class IndiceDeOcupacaoDeHorarios {
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    @Value("${api.agendamento.indice-ocupacao.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${api.agendamento.indice-ocupacao.horizonte-dias:90}")
+    private int horizonteEmDias;
+
+    private final Map<Especialidade, MedicosDaEspecialidade> medicosPorEspecialidade = new EnumMap<>(Especialidade.class);
+    private final Map<Long, MedicosDaEspecialidade> especialidadeDoMedico = new ConcurrentHashMap<>();
+    private final Map<ChaveDia, OcupacaoDoDia> ocupacaoPorDia = new ConcurrentHashMap<>();
+
+    private volatile LocalDate ultimoDiaIndexado;
+    private volatile boolean pronto;
+
+    public IndiceDeOcupacaoDeHorarios() {
+        for (var especialidade : Especialidade.values()) {
+            medicosPorEspecialidade.put(especialidade, new MedicosDaEspecialidade(especialidade));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        if (!habilitado) {
+            return;
+        }
+
+        var hoje = LocalDate.now();
+        ultimoDiaIndexado = hoje.plusDays(horizonteEmDias);
+
+        medicoRepository.findIndiceDosAtivos()
+                .forEach(medico -> registrarMedico(medico.id(), medico.especialidade()));
+        consultaRepository.findOcupacaoEntre(hoje.atStartOfDay(), ultimoDiaIndexado.atTime(LocalTime.MAX))
+                .forEach(consulta -> marcar(consulta.idMedico(), consulta.data(), true));
+
+        pronto = true;
+    }
+
+    @Scheduled(cron = "${api.agendamento.indice-ocupacao.avanco.cron:0 0 0 * * *}")
+    public void avancarHorizonte() {
+        avancarHorizonte(LocalDate.now());
+    }
+
+    /**
+     * Indexa os dias entre o último indexado e hoje + horizonte. O horizonte
+     * é publicado antes da leitura do banco para que os agendamentos
+     * confirmados durante a leitura também sejam marcados; um cancelamento
+     * nesse intervalo pode deixar o horário marcado como ocupado até o
+     * próximo aquecimento, o que só faz o índice deixar de oferecer aquele
+     * médico naquele horário.
+     */
+    void avancarHorizonte(LocalDate hoje) {
+        if (!pronto) {
+            return;
+        }
+
+        var ultimoDia = ultimoDiaIndexado;
+        var novoUltimoDia = hoje.plusDays(horizonteEmDias);
+        if (novoUltimoDia.isAfter(ultimoDia)) {
+            var primeiroDia = ultimoDia.isBefore(hoje) ? hoje : ultimoDia.plusDays(1);
+            ultimoDiaIndexado = novoUltimoDia;
+            consultaRepository.findOcupacaoEntre(primeiroDia.atStartOfDay(), novoUltimoDia.atTime(LocalTime.MAX))
+                    .forEach(consulta -> marcar(consulta.idMedico(), consulta.data(), true));
+        }
+        descartarDiasPassados(hoje);
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Devolve um médico ativo da especialidade sem consulta no horário,
+     * partindo de uma posição aleatória para distribuir a carga entre os
+     * médicos, como fazia o "order by rand()". Vazio quando o índice não está
+     * pronto, a data está fora do horizonte indexado ou não há candidato.
+     */
+    public Optional<Long> escolherMedicoLivre(Especialidade especialidade, LocalDateTime data, Set<Long> descartados) {
+        if (!pronto || !dentroDoHorizonte(data.toLocalDate())) {
+            return Optional.empty();
+        }
+
+        var medicos = medicosPorEspecialidade.get(especialidade);
+        var ocupacao = ocupacaoPorDia.get(new ChaveDia(especialidade, data.toLocalDate()));
+
+        synchronized (medicos) {
+            if (medicos.ids.isEmpty()) {
+                return Optional.empty();
+            }
+
+            var candidatos = (BitSet) medicos.ativos.clone();
+            if (ocupacao != null) {
+                ocupacao.removerOcupados(data.toLocalTime(), candidatos);
+            }
+            for (var id : descartados) {
+                var posicao = medicos.posicoes.get(id);
+                if (posicao != null) {
+                    candidatos.clear(posicao);
+                }
+            }
+
+            var inicio = ThreadLocalRandom.current().nextInt(medicos.ids.size());
+            var posicao = candidatos.nextSetBit(inicio);
+            if (posicao < 0) {
+                posicao = candidatos.nextSetBit(0);
+            }
+
+            return posicao < 0 ? Optional.empty() : Optional.of(medicos.ids.get(posicao));
+        }
+    }
+
+    public void registrarMedico(Long id, Especialidade especialidade) {
+        executarAposCommit(() -> {
+            var medicos = medicosPorEspecialidade.get(especialidade);
+            synchronized (medicos) {
+                var posicao = medicos.posicoes.get(id);
+                if (posicao == null) {
+                    posicao = medicos.ids.size();
+                    medicos.ids.add(id);
+                    medicos.posicoes.put(id, posicao);
+                }
+                medicos.ativos.set(posicao);
+            }
+            especialidadeDoMedico.put(id, medicos);
+        });
+    }
+
+    public void removerMedico(Long id) {
+        executarAposCommit(() -> {
+            var medicos = especialidadeDoMedico.get(id);
+            if (medicos == null) {
+                return;
+            }
+            synchronized (medicos) {
+                medicos.ativos.clear(medicos.posicoes.get(id));
+            }
+        });
+    }
+
+    public void ocupar(Long idMedico, LocalDateTime data) {
+        executarAposCommit(() -> marcar(idMedico, data, true));
+    }
+
+    public void liberar(Long idMedico, LocalDateTime data) {
+        executarAposCommit(() -> marcar(idMedico, data, false));
+    }
+
+    private void marcar(Long idMedico, LocalDateTime data, boolean ocupado) {
+        var medicos = especialidadeDoMedico.get(idMedico);
+        if (medicos == null || !dentroDoHorizonte(data.toLocalDate())) {
+            return;
+        }
+
+        Integer posicao;
+        synchronized (medicos) {
+            posicao = medicos.posicoes.get(idMedico);
+        }
+
+        var chave = new ChaveDia(medicos.especialidade, data.toLocalDate());
+        var ocupacao = ocupacaoPorDia.get(chave);
+        if (ocupacao == null) {
+            if (!ocupado) {
+                return;
+            }
+            descartarDiasPassados(LocalDate.now());
+            ocupacao = ocupacaoPorDia.computeIfAbsent(chave, c -> new OcupacaoDoDia());
+        }
+        ocupacao.marcar(data.toLocalTime(), posicao, ocupado);
+    }
+
+    private boolean dentroDoHorizonte(LocalDate dia) {
+        var ultimoDia = ultimoDiaIndexado;
+        return ultimoDia != null && !dia.isBefore(LocalDate.now()) && !dia.isAfter(ultimoDia);
+    }
+
+    private void descartarDiasPassados(LocalDate hoje) {
+        ocupacaoPorDia.keySet().removeIf(chave -> chave.dia().isBefore(hoje));
+    }
+
+    /**
+     * O índice só pode refletir o que foi de fato gravado, então as
+     * alterações feitas dentro de uma transação são aplicadas após o commit.
+     */
+    private void executarAposCommit(Runnable alteracao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            alteracao.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alteracao.run();
+            }
+        });
+    }
+
+    private record ChaveDia(Especialidade especialidade, LocalDate dia) {}
+
+    private static class MedicosDaEspecialidade {
+        private final Especialidade especialidade;
+        private final List<Long> ids = new ArrayList<>();
+        private final Map<Long, Integer> posicoes = new HashMap<>();
+        private final BitSet ativos = new BitSet();
+
+        private MedicosDaEspecialidade(Especialidade especialidade) {
+            this.especialidade = especialidade;
+        }
+    }
+
+    private static class OcupacaoDoDia {
+        private final Map<LocalTime, BitSet> ocupadosPorHorario = new HashMap<>();
+
+        private synchronized void marcar(LocalTime horario, int posicao, boolean ocupado) {
+            var ocupados = ocupadosPorHorario.computeIfAbsent(horario, h -> new BitSet());
+            ocupados.set(posicao, ocupado);
+        }
+
+        private synchronized void removerOcupados(LocalTime horario, BitSet candidatos) {
+            var ocupados = ocupadosPorHorario.get(horario);
+            if (ocupados != null) {
+                candidatos.andNot(ocupados);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.lucianodacunha.api.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê um CSV (RFC 4180) registro a registro: campos separados por vírgula,
+ * aspas duplas para campos com vírgula, aspas ou quebra de linha, e aspas
+ * escapadas duplicando-as. Guarda só o registro atual.
+ */
+class LeitorCsv {
+
+    private final Reader entrada;
+    private long linhaAtual = 1;
+    private long linhaDoRegistro;
+    private int proximo = -2;
+
+    LeitorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Próximo registro, ou null no fim do arquivo. Linhas em branco são
+     * ignoradas; aspas não fechadas até o fim do arquivo geram
+     * IllegalStateException.
+     */
+    List<String> ler() throws IOException {
+        int c;
+        do {
+            c = lerCaractere();
+            if (c == '\n') {
+                linhaAtual++;
+            }
+        } while (c == '\n' || c == '\r');
+        if (c == -1) {
+            return null;
+        }
+
+        linhaDoRegistro = linhaAtual;
+        var campos = new ArrayList<String>();
+        var campo = new StringBuilder();
+        var entreAspas = false;
+        while (true) {
+            if (entreAspas) {
+                if (c == -1) {
+                    throw new IllegalStateException("Aspas não fechadas no registro da linha " + linhaDoRegistro);
+                }
+                if (c == '"') {
+                    var seguinte = lerCaractere();
+                    if (seguinte == '"') {
+                        campo.append('"');
+                    } else {
+                        entreAspas = false;
+                        c = seguinte;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linhaAtual++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    var seguinte = lerCaractere();
+                    if (seguinte != '\n') {
+                        proximo = seguinte;
+                    }
+                }
+                if (c != -1) {
+                    linhaAtual++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = lerCaractere();
+        }
+    }
+
+    /**
+     * Linha do arquivo em que começa o último registro lido.
+     */
+    long linhaDoRegistro() {
+        return linhaDoRegistro;
+    }
+
+    private int lerCaractere() throws IOException {
+        if (proximo != -2) {
+            var c = proximo;
+            proximo = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+}
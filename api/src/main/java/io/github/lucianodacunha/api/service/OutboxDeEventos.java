@@ -0,0 +1,69 @@
+package io.github.lucianodacunha.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.entity.EventoOutbox;
+import io.github.lucianodacunha.api.model.DadosEventoConsulta;
+import io.github.lucianodacunha.api.model.DadosSequenciaOutbox;
+import io.github.lucianodacunha.api.model.TipoEvento;
+import io.github.lucianodacunha.api.repository.EventoOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Grava os eventos de consultas no outbox, na transação de quem agenda ou
+ * cancela: se a transação for desfeita o evento some junto, e nenhuma
+ * chamada remota entra no tempo do agendamento. A publicação fica a cargo
+ * do DespachanteDeEventos.
+ */
+@Service
+public class OutboxDeEventos {
+
+    @Autowired
+    private EventoOutboxRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void registrar(TipoEvento tipo, Consulta consulta) {
+        registrar(tipo, List.of(consulta));
+    }
+
+    /**
+     * A sequencia de cada evento é a última do agregado + 1, lida do banco
+     * numa única query para todas as consultas. Por isso a ordem não depende
+     * do relógio nem dos ids da instância que gravou. Eventos que iniciam o
+     * agregado (a consulta acabou de ser criada) são sempre a sequencia 1 e
+     * não consultam o outbox.
+     */
+    public void registrar(TipoEvento tipo, Collection<Consulta> consultas) {
+        if (consultas.isEmpty()) {
+            return;
+        }
+
+        var agora = LocalDateTime.now();
+        Map<Long, Integer> ultimas = tipo.iniciaAgregado()
+                ? Map.of()
+                : repository.findUltimasSequencias(consultas.stream().map(Consulta::getId).toList()).stream()
+                        .collect(Collectors.toMap(DadosSequenciaOutbox::agregadoId, DadosSequenciaOutbox::sequencia));
+        repository.saveAll(consultas.stream()
+                .map(consulta -> new EventoOutbox(tipo, consulta.getId(), ultimas.getOrDefault(consulta.getId(), 0) + 1,
+                        conteudo(consulta), agora))
+                .toList());
+    }
+
+    private String conteudo(Consulta consulta) {
+        try {
+            return objectMapper.writeValueAsString(new DadosEventoConsulta(consulta));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.TarefaAgendadaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Preenche a projeção agendas_medicos uma única vez e depois a regera
+ * diariamente a partir de consultas, corrigindo divergências (escritas fora
+ * da aplicação, falhas antigas). Cada dia é reconstruído em uma transação
+ * própria, para que as travas fiquem presas por pouco tempo.
+ *
+ * As duas tarefas rodam em uma só instância da API por vez, a que travar a
+ * sua linha em tarefas_agendadas. O preenchimento cobre todas as consultas
+ * ativas e fica concluído; se a instância cair no meio, a trava vence e
+ * outra instância o retoma ao subir ou na reconstrução diária. A trava da
+ * reconstrução diária não é liberada ao terminar, para que as outras
+ * instâncias, disparadas no mesmo horário, não a repitam.
+ */
+@Component
+public class ReconstrucaoDeAgendas {
+
+    public static final String RECONSTRUCAO = "agendas-medicos.reconstrucao";
+
+    @Autowired
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    @Autowired
+    private TarefaAgendadaRepository tarefaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.agendas.reconstrucao.ao-iniciar:true}")
+    private boolean preencherAoIniciar;
+
+    @Value("${api.agendas.reconstrucao.dias-anteriores:30}")
+    private int diasAnteriores;
+
+    @Value("${api.agendas.reconstrucao.dias-seguintes:90}")
+    private int diasSeguintes;
+
+    @Value("${api.agendas.reconstrucao.trava-minutos:60}")
+    private long travaEmMinutos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (preencherAoIniciar) {
+            preencher();
+        }
+    }
+
+    @Scheduled(cron = "${api.agendas.reconstrucao.cron:0 0 3 * * *}")
+    public void reconstruir() {
+        preencher();
+        if (!travar(RECONSTRUCAO)) {
+            return;
+        }
+
+        var hoje = LocalDate.now();
+        reconstruirEntre(hoje.minusDays(diasAnteriores), hoje.plusDays(diasSeguintes));
+    }
+
+    /**
+     * Devolve false quando o preenchimento já foi concluído ou está com
+     * outra instância.
+     */
+    public boolean preencher() {
+        if (!travar(AgendaDosMedicosService.PREENCHIMENTO)) {
+            return false;
+        }
+
+        var transacao = new TransactionTemplate(transactionManager);
+        var periodo = transacao.execute(status -> consultaRepository.findPeriodoDasConsultas());
+        if (periodo.primeira() != null) {
+            reconstruirEntre(periodo.primeira().toLocalDate(), periodo.ultima().toLocalDate());
+        }
+        transacao.executeWithoutResult(status ->
+                tarefaRepository.concluir(AgendaDosMedicosService.PREENCHIMENTO, LocalDateTime.now()));
+        return true;
+    }
+
+    private boolean travar(String tarefa) {
+        var transacao = new TransactionTemplate(transactionManager);
+        var agora = LocalDateTime.now();
+        Integer travadas = transacao.execute(status ->
+                tarefaRepository.travar(tarefa, agora, agora.plusMinutes(travaEmMinutos)));
+        return travadas != null && travadas == 1;
+    }
+
+    private void reconstruirEntre(LocalDate inicio, LocalDate fim) {
+        var transacao = new TransactionTemplate(transactionManager);
+        var corrigidas = 0;
+        for (var dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+            var diaReconstruido = dia;
+            corrigidas += transacao.execute(status -> agendaDosMedicos.reconstruir(diaReconstruido));
+        }
+        meterRegistry.counter("api.agendas.reconstrucao.corrigidas").increment(corrigidas);
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Serializa, dentro da instância, os agendamentos que disputam o mesmo
+ * médico e horário. Os locks são distribuídos em listras pelo hash de
+ * (médico, horário), então agendamentos de horários diferentes seguem em
+ * paralelo, e ficam presos até o fim da transação para que o próximo da
+ * fila já enxergue a consulta gravada.
+ *
+ * Entre instâncias diferentes da API quem garante a unicidade é o índice
+ * único uk_consultas_medico_ativo_data; os locks apenas evitam que
+ * requisições concorrentes da mesma instância cheguem a violá-lo.
+ */
+@Component
+public class ReservaDeHorarios {
+
+    public static final String HORARIO_OCUPADO = "Médico já possui outra consulta agendada nesse mesmo horário";
+
+    private static final String INDICE_UNICO = "uk_consultas_medico_ativo_data";
+
+    private final ReentrantLock[] listras;
+    private final long esperaMaximaEmMilissegundos;
+
+    public ReservaDeHorarios(@Value("${api.agendamento.reserva.listras:256}") int quantidadeDeListras,
+                             @Value("${api.agendamento.reserva.espera-maxima-ms:5000}") long esperaMaximaEmMilissegundos) {
+        this.listras = new ReentrantLock[quantidadeDeListras];
+        for (int i = 0; i < quantidadeDeListras; i++) {
+            listras[i] = new ReentrantLock();
+        }
+        this.esperaMaximaEmMilissegundos = esperaMaximaEmMilissegundos;
+    }
+
+    /**
+     * Trava a listra do horário até o fim da transação atual.
+     */
+    public void reservar(Long idMedico, LocalDateTime data) {
+        exigirTransacao();
+        var lock = travar(List.of(new Horario(idMedico, data))).get(0);
+        liberarNoFimDaTransacao(lock);
+    }
+
+    /**
+     * Trava a listra do horário e, já com ela presa, confirma que o horário
+     * está livre. Confirmado, a listra fica presa até o fim da transação;
+     * caso contrário é liberada na hora e o retorno é false, para que quem
+     * chamou tente outro médico.
+     */
+    public boolean reservarSeLivre(Long idMedico, LocalDateTime data, BooleanSupplier livre) {
+        exigirTransacao();
+        var lock = travar(List.of(new Horario(idMedico, data))).get(0);
+        var reservado = false;
+        try {
+            reservado = livre.getAsBoolean();
+        } finally {
+            if (!reservado) {
+                lock.unlock();
+            }
+        }
+        if (reservado) {
+            liberarNoFimDaTransacao(lock);
+        }
+        return reservado;
+    }
+
+    /**
+     * Trava as listras dos horários só enquanto a gravação executa, sempre em
+     * ordem crescente para que dois lotes com horários em comum não entrem em
+     * deadlock. Usado no agendamento em lote, que grava em partes: segurar as
+     * listras de centenas de horários até o commit bloquearia quase todos os
+     * agendamentos da instância. Depois de liberada a listra, quem garante o
+     * horário até o commit é o índice único.
+     */
+    public void reservarDurante(Collection<Horario> horarios, Runnable gravacao) {
+        var travadas = travar(horarios);
+        try {
+            gravacao.run();
+        } finally {
+            travadas.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Executa a gravação convertendo a violação do índice único de horários
+     * (agendamento concorrente em outra instância) em ValidacaoException.
+     */
+    public void gravar(Runnable gravacao) {
+        try {
+            gravacao.run();
+        } catch (DataIntegrityViolationException ex) {
+            if (isHorarioOcupado(ex)) {
+                throw new ValidacaoException(MotivoRecusa.HORARIO_OCUPADO, HORARIO_OCUPADO);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Se a violação foi do índice único de horários, e não de outra restrição.
+     */
+    public static boolean isHorarioOcupado(DataIntegrityViolationException ex) {
+        var causa = ex.getMostSpecificCause().getMessage();
+        return causa != null && causa.toLowerCase().contains(INDICE_UNICO);
+    }
+
+    private List<ReentrantLock> travar(Collection<Horario> horarios) {
+        var indices = new TreeSet<Integer>();
+        horarios.forEach(h -> indices.add(listra(h)));
+
+        var travadas = new ArrayList<ReentrantLock>();
+        for (var indice : indices) {
+            var lock = listras[indice];
+            if (!travar(lock)) {
+                travadas.forEach(ReentrantLock::unlock);
+                throw new ValidacaoException(MotivoRecusa.HORARIO_EM_RESERVA, "Horário em processo de agendamento por outra requisição, tente novamente.");
+            }
+            travadas.add(lock);
+        }
+        return travadas;
+    }
+
+    private boolean travar(ReentrantLock lock) {
+        try {
+            return lock.tryLock(esperaMaximaEmMilissegundos, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void exigirTransacao() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("A reserva de horários exige uma transação ativa");
+        }
+    }
+
+    private void liberarNoFimDaTransacao(ReentrantLock lock) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int listra(Horario horario) {
+        return Math.floorMod(Objects.hash(horario.idMedico(), horario.data()), listras.length);
+    }
+
+    public record Horario(Long idMedico, LocalDateTime data) {}
+}
@@ -1,29 +1,95 @@
 package io.github.lucianodacunha.api.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.github.lucianodacunha.api.entity.Usuario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TokenService {
 
+    private static final String ISSUER = "API Voll.med";
+    private static final String CLAIM_ID = "id";
+    private static final String CLAIM_PERFIS = "perfis";
+
     @Value("${api.security.token.secret}")
     private String secret;
 
+    /**
+     * Zero desliga o cache: todo token é verificado novamente.
+     */
+    @Value("${api.security.token.cache.tamanho-maximo:10000}")
+    private long tamanhoMaximoDoCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Algorithm algoritmo;
+    private JWTVerifier verificador;
+
+    /**
+     * Tokens já verificados, com o subject e a expiração de cada um. Só
+     * entram tokens válidos, e cada entrada sai do cache quando o próprio
+     * token expira.
+     */
+    private Cache<String, TokenVerificado> tokensVerificados;
+
+    private Timer tempoDeEmissao;
+    private Timer tempoDeVerificacaoPeloCache;
+    private Timer tempoDeVerificacaoCompleta;
+
+    @PostConstruct
+    void inicializar() {
+        algoritmo = Algorithm.HMAC256(secret);
+        verificador = JWT.require(algoritmo)
+                .withIssuer(ISSUER)
+                .build();
+        tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoDoCache)
+                .expireAfter(new ExpiracaoDoToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokensVerificados, "tokens-jwt");
+
+        tempoDeEmissao = meterRegistry.timer("api.token", "operacao", "emitir", "origem", "assinatura");
+        tempoDeVerificacaoPeloCache = meterRegistry.timer("api.token", "operacao", "verificar", "origem", "cache");
+        tempoDeVerificacaoCompleta = meterRegistry.timer("api.token", "operacao", "verificar", "origem", "assinatura");
+    }
+
     public String gerarToken(Usuario usuario) {
+        return tempoDeEmissao.record(() -> assinarToken(usuario));
+    }
+
+    private String assinarToken(Usuario usuario) {
         try {
-            var algoritmo = Algorithm.HMAC256(secret);
+            var perfis = usuario.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
             return JWT.create()
-                    .withIssuer("API Voll.med")
+                    .withIssuer(ISSUER)
                     .withSubject(usuario.getLogin())
+                    .withClaim(CLAIM_ID, usuario.getId())
+                    .withClaim(CLAIM_PERFIS, perfis)
                     .withExpiresAt(dataExpiracao())
                     .sign(algoritmo);
         } catch (JWTCreationException exception){
@@ -32,13 +98,40 @@ public class TokenService {
     }
 
     public String getSubject(String tokenJWT) {
+        return verificar(tokenJWT).subject();
+    }
+
+    /**
+     * Tokens emitidos antes da inclusão das claims id e perfis continuam
+     * válidos; para eles idUsuario e perfis vêm nulos.
+     */
+    public TokenVerificado verificar(String tokenJWT) {
+        var inicio = System.nanoTime();
+        var verificado = tokensVerificados.getIfPresent(tokenJWT);
+        if (verificado != null && verificado.expiraEm().isAfter(Instant.now())) {
+            tempoDeVerificacaoPeloCache.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return verificado;
+        }
+
         try {
-            var algoritmo = Algorithm.HMAC256(secret);
-            return JWT.require(algoritmo)
-                    .withIssuer("API Voll.med")
-                    .build()
-                    .verify(tokenJWT)
-                    .getSubject();
+            return verificarAssinatura(tokenJWT);
+        } finally {
+            tempoDeVerificacaoCompleta.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TokenVerificado verificarAssinatura(String tokenJWT) {
+        try {
+            var decodificado = verificador.verify(tokenJWT);
+            var verificado = new TokenVerificado(
+                    decodificado.getSubject(),
+                    decodificado.getClaim(CLAIM_ID).asLong(),
+                    decodificado.getClaim(CLAIM_PERFIS).asList(String.class),
+                    decodificado.getExpiresAtAsInstant());
+            if (verificado.expiraEm() != null && tamanhoMaximoDoCache > 0) {
+                tokensVerificados.put(tokenJWT, verificado);
+            }
+            return verificado;
         } catch (JWTVerificationException exception) {
             throw new RuntimeException("Token JWT inválido ou expirado!");
         }
@@ -48,4 +141,23 @@ public class TokenService {
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
 
-}
\ No newline at end of file
+    public record TokenVerificado(String subject, Long idUsuario, List<String> perfis, Instant expiraEm) {}
+
+    private static class ExpiracaoDoToken implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String token, TokenVerificado verificado, long tempoAtual) {
+            return Math.max(0, Duration.between(Instant.now(), verificado.expiraEm()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, TokenVerificado verificado, long tempoAtual, long duracaoAtual) {
+            return expireAfterCreate(token, verificado, tempoAtual);
+        }
+
+        @Override
+        public long expireAfterRead(String token, TokenVerificado verificado, long tempoAtual, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.lucianodacunha.api.validation;
+
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.metricas.MedicaoDaRequisicao;
+import io.github.lucianodacunha.api.validation.agendamento.AgendamentoDeConsultaValidator;
+import io.github.lucianodacunha.api.validation.agendamento.ContextoAgendamento;
+import io.github.lucianodacunha.api.validation.cancelamento.CancelamentoDeConsultaValidator;
+import io.github.lucianodacunha.api.validation.cancelamento.ContextoCancelamento;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Executa os validadores de agendamento e de cancelamento medindo cada um
+ * no timer api.validacao{tipo, validador, resultado}, para que se veja qual
+ * validador pesa na latência do agendamento.
+ */
+@Component
+public class CadeiaDeValidacoes {
+
+    @Autowired
+    private List<AgendamentoDeConsultaValidator> agendamentoValidators;
+
+    @Autowired
+    private List<CancelamentoDeConsultaValidator> cancelamentoValidators;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Object, TimersDoValidador> timersPorValidador = new IdentityHashMap<>();
+
+    @PostConstruct
+    void registrarTimers() {
+        agendamentoValidators.forEach(v -> timersPorValidador.put(v, timers(v, "agendamento")));
+        cancelamentoValidators.forEach(v -> timersPorValidador.put(v, timers(v, "cancelamento")));
+    }
+
+    public void validarAgendamento(ContextoAgendamento contexto) {
+        executar(agendamentoValidators, v -> v.validar(contexto));
+    }
+
+    public void validarCancelamento(ContextoCancelamento contexto) {
+        executar(cancelamentoValidators, v -> v.validar(contexto));
+    }
+
+    private <V> void executar(List<V> validadores, Consumer<V> validacao) {
+        var inicioDaCadeia = System.nanoTime();
+        try {
+            executarCadaUm(validadores, validacao);
+        } finally {
+            MedicaoDaRequisicao.registrar(MedicaoDaRequisicao.Fase.VALIDACAO, System.nanoTime() - inicioDaCadeia);
+        }
+    }
+
+    private <V> void executarCadaUm(List<V> validadores, Consumer<V> validacao) {
+        for (var validador : validadores) {
+            var timersDoValidador = timersPorValidador.get(validador);
+            var inicio = System.nanoTime();
+            try {
+                validacao.accept(validador);
+                timersDoValidador.aprovado().record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            } catch (ValidacaoException ex) {
+                timersDoValidador.recusado().record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                throw ex;
+            }
+        }
+    }
+
+    private TimersDoValidador timers(Object validador, String tipo) {
+        var nome = ClassUtils.getUserClass(validador).getSimpleName();
+        return new TimersDoValidador(timer(tipo, nome, "aprovado"), timer(tipo, nome, "recusado"));
+    }
+
+    private Timer timer(String tipo, String validador, String resultado) {
+        return Timer.builder("api.validacao")
+                .description("Tempo de execução de cada validador")
+                .tag("tipo", tipo)
+                .tag("validador", validador)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private record TimersDoValidador(Timer aprovado, Timer recusado) {}
+}
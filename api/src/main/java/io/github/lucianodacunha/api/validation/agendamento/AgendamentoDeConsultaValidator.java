@@ -1,10 +1,8 @@
 package io.github.lucianodacunha.api.validation.agendamento;
 
 
-import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
-
 public interface AgendamentoDeConsultaValidator {
 
-    void validar(DadosAgendamentoConsulta dados);
+    void validar(ContextoAgendamento contexto);
 
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package io.github.lucianodacunha.api.validation.agendamento;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+
+/**
+ * Tudo o que os validadores de agendamento precisam saber do banco,
+ * carregado de uma só vez pelo ContextoAgendamentoRepository.
+ * pacienteAtivo e medicoAtivo ficam nulos quando o id não existe. Sem
+ * médico informado (a API escolhe depois da validação), idMedico e
+ * medicoAtivo são nulos e não há conflito de horário do médico.
+ */
+public record ContextoAgendamento(
+        DadosAgendamentoConsulta dados,
+        Long idMedico,
+        Boolean pacienteAtivo,
+        Boolean medicoAtivo,
+        boolean medicoPossuiOutraConsultaNoHorario,
+        boolean pacientePossuiOutraConsultaNoDia) {
+}
@@ -1,7 +1,7 @@
 package io.github.lucianodacunha.api.validation.agendamento;
 
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
 import io.github.lucianodacunha.api.exception.ValidacaoException;
-import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
 import org.springframework.stereotype.Component;
 
 import java.time.DayOfWeek;
@@ -11,14 +11,14 @@ import java.time.LocalDateTime;
 // Necessário nomear o componente pois existem dois com o mesmo nome.
 @Component("HorarioAntecedenciaValidatorAgendamento")
 public class HorarioAntecedenciaValidator  implements AgendamentoDeConsultaValidator{
-    public void validar(DadosAgendamentoConsulta dados){
-        var dataConsulta = dados.data();
+    public void validar(ContextoAgendamento contexto){
+        var dataConsulta = contexto.dados().data();
 
         var agora = LocalDateTime.now();
         var diferencaEmMinutos = Duration.between(agora, dataConsulta).toMinutes();
 
         if (diferencaEmMinutos < 30){
-            throw new ValidacaoException("Consulta deve ser agendada com antecedencia mínima de 30 minutos");
+            throw new ValidacaoException(MotivoRecusa.AGENDAMENTO_SEM_ANTECEDENCIA, "Consulta deve ser agendada com antecedencia mínima de 30 minutos");
         }
 
         var domingo = dataConsulta.getDayOfWeek().equals(DayOfWeek.SUNDAY);
@@ -26,7 +26,7 @@ public class HorarioAntecedenciaValidator  implements AgendamentoDeConsultaValid
         var depoisDoEncerramentoDaClinia = dataConsulta.getHour() > 18;
 
         if (domingo || antesDaAberturaDaClinia || depoisDoEncerramentoDaClinia){
-            throw new ValidacaoException("Consulta fora do horário de funcionamento da clínica");
+            throw new ValidacaoException(MotivoRecusa.FORA_DO_HORARIO_DE_FUNCIONAMENTO, "Consulta fora do horário de funcionamento da clínica");
         }
 
     }
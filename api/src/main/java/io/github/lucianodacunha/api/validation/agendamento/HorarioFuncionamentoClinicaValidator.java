@@ -1,7 +1,7 @@
 package io.github.lucianodacunha.api.validation.agendamento;
 
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
 import io.github.lucianodacunha.api.exception.ValidacaoException;
-import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
 import org.springframework.stereotype.Component;
 
 import java.time.DayOfWeek;
@@ -9,15 +9,15 @@ import java.time.DayOfWeek;
 @Component
 public class HorarioFuncionamentoClinicaValidator implements AgendamentoDeConsultaValidator{
 
-    public void validar(DadosAgendamentoConsulta dados){
-        var dataConsulta = dados.data();
+    public void validar(ContextoAgendamento contexto){
+        var dataConsulta = contexto.dados().data();
 
         var domingo = dataConsulta.getDayOfWeek().equals(DayOfWeek.SUNDAY);
         var antesDaAberturaDaClinia = dataConsulta.getHour() < 7;
         var depoisDoEncerramentoDaClinia = dataConsulta.getHour() > 18;
 
         if (domingo || antesDaAberturaDaClinia || depoisDoEncerramentoDaClinia){
-            throw new ValidacaoException("Consulta fora do horário de funcionamento da clínica");
+            throw new ValidacaoException(MotivoRecusa.FORA_DO_HORARIO_DE_FUNCIONAMENTO, "Consulta fora do horário de funcionamento da clínica");
         }
 
     }
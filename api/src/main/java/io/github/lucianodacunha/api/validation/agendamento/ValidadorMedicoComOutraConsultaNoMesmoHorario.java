@@ -1,21 +1,15 @@
 package io.github.lucianodacunha.api.validation.agendamento;
 
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
 import io.github.lucianodacunha.api.exception.ValidacaoException;
-import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
-import io.github.lucianodacunha.api.repository.ConsultaRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorMedicoComOutraConsultaNoMesmoHorario implements AgendamentoDeConsultaValidator {
 
-    @Autowired
-    private ConsultaRepository repository;
-
-    public void validar(DadosAgendamentoConsulta dados) {
-        var medicoPossuiOutraConsultaNoMesmoHorario = repository.existsByMedicoIdAndDataAndMotivoCancelamentoIsNull(dados.idMedico(), dados.data());
-        if (medicoPossuiOutraConsultaNoMesmoHorario) {
-            throw new ValidacaoException("Médico já possui outra consulta agendada nesse mesmo horário");
+    public void validar(ContextoAgendamento contexto) {
+        if (contexto.medicoPossuiOutraConsultaNoHorario()) {
+            throw new ValidacaoException(MotivoRecusa.HORARIO_OCUPADO, "Médico já possui outra consulta agendada nesse mesmo horário");
         }
     }
 
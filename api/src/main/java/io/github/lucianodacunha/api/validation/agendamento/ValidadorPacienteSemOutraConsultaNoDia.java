@@ -1,23 +1,15 @@
 package io.github.lucianodacunha.api.validation.agendamento;
 
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
 import io.github.lucianodacunha.api.exception.ValidacaoException;
-import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
-import io.github.lucianodacunha.api.repository.ConsultaRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorPacienteSemOutraConsultaNoDia implements AgendamentoDeConsultaValidator {
 
-    @Autowired
-    private ConsultaRepository repository;
-
-    public void validar(DadosAgendamentoConsulta dados) {
-        var primeiroHorario = dados.data().withHour(7);
-        var ultimoHorario = dados.data().withHour(18);
-        var pacientePossuiOutraConsultaNoDia = repository.existsByPacienteIdAndDataBetween(dados.idPaciente(), primeiroHorario, ultimoHorario);
-        if (pacientePossuiOutraConsultaNoDia) {
-            throw new ValidacaoException("Paciente já possui uma consulta agendada nesse dia");
+    public void validar(ContextoAgendamento contexto) {
+        if (contexto.pacientePossuiOutraConsultaNoDia()) {
+            throw new ValidacaoException(MotivoRecusa.PACIENTE_COM_CONSULTA_NO_DIA, "Paciente já possui uma consulta agendada nesse dia");
         }
     }
 
@@ -1,9 +1,7 @@
 package io.github.lucianodacunha.api.validation.cancelamento;
 
-import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
-
 public interface CancelamentoDeConsultaValidator {
 
-    void validar(DadosCancelamentoConsulta dados);
+    void validar(ContextoCancelamento contexto);
 
 }
\ No newline at end of file
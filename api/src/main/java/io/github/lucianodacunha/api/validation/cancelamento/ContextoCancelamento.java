@@ -0,0 +1,14 @@
+package io.github.lucianodacunha.api.validation.cancelamento;
+
+import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
+
+import java.time.LocalDateTime;
+
+/**
+ * O que os validadores de cancelamento precisam saber da consulta, lido
+ * na mesma busca que confirma que ela existe.
+ */
+public record ContextoCancelamento(
+        DadosCancelamentoConsulta dados,
+        LocalDateTime dataConsulta) {
+}
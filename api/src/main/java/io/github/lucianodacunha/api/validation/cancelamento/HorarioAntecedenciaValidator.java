@@ -1,9 +1,7 @@
 package io.github.lucianodacunha.api.validation.cancelamento;
 
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
 import io.github.lucianodacunha.api.exception.ValidacaoException;
-import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
-import io.github.lucianodacunha.api.repository.ConsultaRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -13,17 +11,13 @@ import java.time.LocalDateTime;
 @Component("HorarioAntecedenciaValidatorCancelamento")
 public class HorarioAntecedenciaValidator implements CancelamentoDeConsultaValidator {
 
-    @Autowired
-    private ConsultaRepository repository;
-
     @Override
-    public void validar(DadosCancelamentoConsulta dados) {
-        var consulta = repository.getReferenceById(dados.idConsulta());
+    public void validar(ContextoCancelamento contexto) {
         var agora = LocalDateTime.now();
-        var diferencaEmHoras = Duration.between(agora, consulta.getData()).toHours();
+        var diferencaEmHoras = Duration.between(agora, contexto.dataConsulta()).toHours();
 
         if (diferencaEmHoras < 24) {
-            throw new ValidacaoException("Consulta somente pode ser cancelada com antecedência mínima de 24h!");
+            throw new ValidacaoException(MotivoRecusa.CANCELAMENTO_SEM_ANTECEDENCIA, "Consulta somente pode ser cancelada com antecedência mínima de 24h!");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1 @@
+create index idx_medicos_especialidade_ativo on medicos (especialidade, ativo);
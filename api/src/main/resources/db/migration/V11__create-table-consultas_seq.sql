@@ -0,0 +1,11 @@
+create table consultas_seq
+(
+    next_val bigint not null
+);
+
+insert into consultas_seq (next_val) select coalesce(max(id), 0) + 1 from consultas;
+
+-- os ids passam a vir só de consultas_seq: com AUTO_INCREMENT, um insert
+-- feito por fora do Hibernate (script, importação JDBC) receberia um id de
+-- um bloco já reservado por alguma instância da API
+alter table consultas modify id bigint not null;
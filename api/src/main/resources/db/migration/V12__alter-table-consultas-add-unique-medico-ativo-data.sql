@@ -0,0 +1,19 @@
+-- consultas duplicadas (mesmo médico e horário, ambas ativas) impediriam a
+-- criação do índice único; mantém a mais antiga e cancela as demais
+update consultas
+set motivo_cancelamento = 'OUTROS'
+where id in (
+    select id from (
+        select c.id
+        from consultas c
+        join consultas o on o.medico_id = c.medico_id and o.data = c.data and o.id < c.id
+        where c.motivo_cancelamento is null
+        and o.motivo_cancelamento is null
+    ) duplicadas
+);
+
+-- medico_id apenas enquanto a consulta não for cancelada; como o índice
+-- único ignora nulos, consultas canceladas não bloqueiam o horário
+alter table consultas add column medico_id_ativo bigint generated always as (case when motivo_cancelamento is null then medico_id end);
+
+create unique index uk_consultas_medico_ativo_data on consultas (medico_id_ativo, data);
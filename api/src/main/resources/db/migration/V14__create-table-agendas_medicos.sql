@@ -0,0 +1,13 @@
+-- projeção da agenda diária de cada médico: as consultas ativas do dia em
+-- um único texto JSON, lido por chave primária em GET /medicos/{id}/agenda
+create table agendas_medicos
+(
+    medico_id bigint not null,
+    dia       date   not null,
+    consultas text   not null,
+    constraint pk_agendas_medicos primary key (medico_id, dia),
+    constraint fk_agendas_medicos_on_medico foreign key (medico_id) references medicos (id) on delete cascade
+);
+
+-- reconstrução: trava as agendas de um dia inteiro sem varrer a tabela
+create index idx_agendas_medicos_dia on agendas_medicos (dia, medico_id);
@@ -0,0 +1,28 @@
+-- outbox transacional: eventos gravados na mesma transação da consulta e
+-- publicados depois pelo DespachanteDeEventos
+create table eventos_outbox
+(
+    id                bigint       not null,
+    tipo              varchar(50)  not null,
+    agregado_id       bigint       not null,
+    conteudo          text         not null,
+    criado_em         datetime(6)  not null,
+    tentativas        int          not null,
+    proxima_tentativa datetime(6),
+    ultimo_erro       varchar(500),
+    publicado_em      datetime(6),
+    descartado_em     datetime(6),
+
+    primary key (id)
+);
+
+-- pendentes (publicado_em e descartado_em nulos) em ordem de id, e a
+-- limpeza dos publicados antigos pela faixa de publicado_em
+create index idx_eventos_outbox_pendentes on eventos_outbox (publicado_em, descartado_em, id);
+
+create table eventos_outbox_seq
+(
+    next_val bigint not null
+);
+
+insert into eventos_outbox_seq (next_val) values (1);
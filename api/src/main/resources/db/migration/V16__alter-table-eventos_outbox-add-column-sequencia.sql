@@ -0,0 +1,11 @@
+-- ordem dos eventos dentro de um agregado: a sequencia é a última do
+-- agregado + 1, atribuída na gravação. Os ids vêm em blocos por instância da
+-- API e não servem para ordenar. Eventos já gravados ficam com 1 e
+-- desempatam pelo id.
+alter table eventos_outbox add sequencia int not null default 1;
+
+create index idx_eventos_outbox_agregado_sequencia on eventos_outbox (agregado_id, sequencia, id);
+
+-- pendentes em ordem de criação
+drop index idx_eventos_outbox_pendentes on eventos_outbox;
+create index idx_eventos_outbox_pendentes on eventos_outbox (publicado_em, descartado_em, criado_em, id);
@@ -0,0 +1,16 @@
+-- tarefas que só uma instância da API deve executar: a que consegue
+-- preencher travada_ate (vazia ou vencida) executa. concluida_em marca as
+-- de execução única, que não voltam a rodar.
+create table tarefas_agendadas
+(
+    nome         varchar(100) not null,
+    travada_ate  datetime(6),
+    concluida_em datetime(6),
+
+    primary key (nome)
+);
+
+-- preenchimento inicial de agendas_medicos com todas as consultas ativas,
+-- e a reconstrução diária da janela em torno de hoje
+insert into tarefas_agendadas (nome) values ('agendas-medicos.preenchimento');
+insert into tarefas_agendadas (nome) values ('agendas-medicos.reconstrucao');
@@ -0,0 +1,9 @@
+-- existsByMedicoIdAndDataAndMotivoCancelamentoIsNull
+create index idx_consultas_medico_data_motivo on consultas (medico_id, data, motivo_cancelamento);
+
+-- existsByPacienteIdAndDataBetween
+create index idx_consultas_paciente_data on consultas (paciente_id, data);
+
+-- subquery de escolherMedicoAleatorioLivreNaData: filtra por data e
+-- devolve medico_id sem precisar ler a linha
+create index idx_consultas_data_motivo_medico on consultas (data, motivo_cancelamento, medico_id);
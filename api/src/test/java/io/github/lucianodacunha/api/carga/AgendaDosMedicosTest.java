@@ -0,0 +1,134 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosHorarioAgenda;
+import io.github.lucianodacunha.api.model.MotivoCancelamento;
+import io.github.lucianodacunha.api.service.AgendaDeConsultasService;
+import io.github.lucianodacunha.api.service.AgendaDosMedicosService;
+import io.github.lucianodacunha.api.service.ReconstrucaoDeAgendas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Projeção agendas_medicos sobre a massa de carga: mantida no agendamento e
+ * no cancelamento, regenerada pela reconstrução quando diverge de consultas
+ * e preenchida uma única vez.
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("carga")
+class AgendaDosMedicosTest {
+
+    @Autowired
+    private AgendaDeConsultasService agendaDeConsultas;
+
+    @Autowired
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Autowired
+    private ReconstrucaoDeAgendas reconstrucao;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment ambiente;
+
+    private TransactionTemplate transacao;
+    private Long idMedico;
+    private Long idPaciente;
+    private LocalDate dia;
+
+    @BeforeEach
+    void setUp() {
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(MassaDeCarga.parametros(ambiente));
+        }
+
+        transacao = new TransactionTemplate(transactionManager);
+        idMedico = jdbc.queryForObject("select min(id) from medicos where ativo = 1", Long.class);
+        idPaciente = jdbc.queryForObject("select max(id) from pacientes where ativo = 1", Long.class);
+        // depois da massa de carga, sem consultas desse médico e paciente
+        dia = LocalDate.now().plusYears(2).with(TemporalAdjusters.next(DayOfWeek.TUESDAY));
+    }
+
+    @Test
+    @DisplayName("Agendamento e cancelamento deveriam atualizar a agenda do medico no dia")
+    void agendarECancelar() {
+        var consulta = transacao.execute(s -> agendaDeConsultas.agendar(
+                new DadosAgendamentoConsulta(idMedico, idPaciente, dia.atTime(9, 0), null)));
+
+        assertThat(agendaDosMedicos.consultar(idMedico, dia).consultas())
+                .containsExactly(new DadosHorarioAgenda(LocalTime.of(9, 0), consulta.id(), idPaciente));
+
+        transacao.executeWithoutResult(s -> agendaDeConsultas.cancelar(
+                new DadosCancelamentoConsulta(consulta.id(), MotivoCancelamento.PACIENTE_DESISTIU)));
+
+        assertThat(agendaDosMedicos.consultar(idMedico, dia).consultas()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reconstrucao deveria corrigir agendas que divergem de consultas")
+    void reconstruir() {
+        var outroDia = dia.plusDays(1);
+        var consulta = transacao.execute(s -> agendaDeConsultas.agendar(
+                new DadosAgendamentoConsulta(idMedico, idPaciente, outroDia.atTime(15, 0), null)));
+        jdbc.update("update agendas_medicos set consultas = '[]' where medico_id = ? and dia = ?", idMedico, outroDia);
+
+        var corrigidas = transacao.execute(s -> agendaDosMedicos.reconstruir(outroDia));
+
+        assertThat(corrigidas).isEqualTo(1);
+        assertThat(agendaDosMedicos.consultar(idMedico, outroDia).consultas())
+                .containsExactly(new DadosHorarioAgenda(LocalTime.of(15, 0), consulta.id(), idPaciente));
+        Integer corrigidasNaSegunda = transacao.execute(s -> agendaDosMedicos.reconstruir(outroDia));
+        assertThat(corrigidasNaSegunda).isZero();
+    }
+
+    @Test
+    @DisplayName("Antes do preenchimento a agenda deveria vir de consultas, e o preenchimento rodar uma unica vez")
+    void preencher() {
+        var terceiroDia = dia.plusDays(2);
+        var idConsulta = jdbc.queryForObject("select max(id) + 1000000 from consultas", Long.class);
+        jdbc.update("insert into consultas (id, medico_id, paciente_id, data) values (?, ?, ?, ?)",
+                idConsulta, idMedico, idPaciente, terceiroDia.atTime(11, 0));
+        jdbc.update("update tarefas_agendadas set concluida_em = null, travada_ate = null where nome = ?",
+                AgendaDosMedicosService.PREENCHIMENTO);
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(agendaDosMedicos), "preenchida", false);
+        var esperada = new DadosHorarioAgenda(LocalTime.of(11, 0), idConsulta, idPaciente);
+
+        assertThat(agendaDosMedicos.consultar(idMedico, terceiroDia).consultas()).containsExactly(esperada);
+
+        assertThat(reconstrucao.preencher()).isTrue();
+        assertThat(reconstrucao.preencher()).isFalse();
+        assertThat(jdbc.queryForObject("select consultas from agendas_medicos where medico_id = ? and dia = ?",
+                String.class, idMedico, terceiroDia)).contains(idConsulta.toString());
+        assertThat(agendaDosMedicos.consultar(idMedico, terceiroDia).consultas()).containsExactly(esperada);
+    }
+}
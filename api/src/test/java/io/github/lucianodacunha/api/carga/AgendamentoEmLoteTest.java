@@ -0,0 +1,113 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosResultadoAgendamentoLote;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.service.AgendaDeConsultasService;
+import io.github.lucianodacunha.api.service.AgendamentoEmLoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Agendamento em lote gravado no H2. A verificação de horários ocupados do
+ * lote é simulada defasada, como se outra instância tivesse agendado o
+ * horário depois dela, para que o conflito só apareça no insert.
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("carga")
+class AgendamentoEmLoteTest {
+
+    @Autowired
+    private AgendamentoEmLoteService agendamentoEmLote;
+
+    @Autowired
+    private AgendaDeConsultasService agendaDeConsultas;
+
+    @SpyBean
+    private ConsultaRepository consultaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment ambiente;
+
+    private TransactionTemplate transacao;
+    private List<Long> medicos;
+    private List<Long> pacientes;
+    private LocalDateTime horario;
+
+    @BeforeEach
+    void setUp() {
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(MassaDeCarga.parametros(ambiente));
+        }
+
+        transacao = new TransactionTemplate(transactionManager);
+        medicos = jdbc.queryForList("select id from medicos where ativo = 1 order by id limit 2 offset 10", Long.class);
+        pacientes = jdbc.queryForList("select id from pacientes where ativo = 1 order by id desc limit 3 offset 10", Long.class);
+        // depois da massa de carga e dos dias usados pelos outros testes
+        horario = LocalDate.now().plusYears(4).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(10, 0);
+    }
+
+    @Test
+    @DisplayName("Horario ocupado so no insert deveria recusar apenas o item conflitante e gravar os demais")
+    void recusarSoOConflitante() {
+        var ocupada = transacao.execute(s -> agendaDeConsultas.agendar(
+                new DadosAgendamentoConsulta(medicos.get(0), pacientes.get(0), horario, null)));
+        doReturn(List.of()).when(consultaRepository).findOcupacaoDosMedicosNasDatas(anyCollection(), anyCollection());
+
+        var resultados = transacao.execute(s -> agendamentoEmLote.agendar(List.of(
+                new DadosAgendamentoConsulta(medicos.get(0), pacientes.get(1), horario, null),
+                new DadosAgendamentoConsulta(medicos.get(1), pacientes.get(2), horario, null))));
+
+        assertThat(resultados).extracting(DadosResultadoAgendamentoLote::erro).containsExactly(
+                "Médico já possui outra consulta agendada nesse mesmo horário",
+                null);
+        var agendada = resultados.get(1).consulta();
+        assertThat(agendada.id()).isNotEqualTo(ocupada.id());
+        assertThat(jdbc.queryForList("select id from consultas where data = ? order by medico_id", Long.class, horario))
+                .containsExactly(ocupada.id(), agendada.id());
+        assertThat(jdbc.queryForObject("select count(*) from eventos_outbox where agregado_id = ?", Long.class, agendada.id()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Insert sem id deveria falhar, ja que os ids de consultas vem so de consultas_seq")
+    void semAutoIncrement() {
+        assertThatThrownBy(() -> jdbc.update("insert into consultas (medico_id, paciente_id, data) values (?, ?, ?)",
+                medicos.get(1), pacientes.get(0), horario.plusHours(1)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosAtualizacaoMedico;
+import io.github.lucianodacunha.api.model.DadosDetalhamentoMedico;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.repository.PacienteRepository;
+import io.github.lucianodacunha.api.repository.UsuarioRepository;
+import io.github.lucianodacunha.api.service.AgendaDeConsultasService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Idas ao banco (statements JDBC preparados) por operação, com e sem o cache
+ * de segundo nível. As duas medições rodam no mesmo contexto: sem cache a
+ * sessão usa CacheMode.IGNORE. Cada operação roda em uma transação, como
+ * numa requisição, sobre médicos e pacientes escolhidos com a mesma
+ * assimetria da massa de carga.
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("carga")
+class CacheDeSegundoNivelTest {
+
+    private static final int REPETICOES = 500;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private AgendaDeConsultasService agendaDeConsultasService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private Environment ambiente;
+
+    private Statistics estatisticas;
+    private List<Long> medicos;
+    private List<Long> pacientes;
+
+    @BeforeEach
+    void setUp() {
+        var parametros = MassaDeCarga.parametros(ambiente);
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(parametros);
+        }
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        medicos = jdbc.queryForList("select id from medicos where ativo = 1 order by id", Long.class);
+        pacientes = jdbc.queryForList("select id from pacientes where ativo = 1 order by id", Long.class);
+    }
+
+    @Test
+    @DisplayName("Cache de segundo nivel deveria reduzir as idas ao banco por operacao")
+    void compararIdasAoBanco() {
+        var zipf = new DistribuicaoZipf(medicos.size(), 0.8);
+        var random = new SplittableRandom(42);
+        IntConsumer detalharMedico = i -> new DadosDetalhamentoMedico(
+                medicoRepository.getReferenceById(medicos.get(zipf.sortear(random))));
+        IntConsumer situacaoDoPaciente = i -> pacienteRepository.getReferenceById(pacientes.get(i % 50)).getAtivo();
+        IntConsumer login = i -> usuarioRepository.findByLogin(MassaDeCarga.LOGIN);
+
+        var primeiraSegunda = LocalDate.now().plusYears(1).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        var agendamentos = new int[]{0};
+        IntConsumer agendar = i -> agendaDeConsultasService.agendar(proximoAgendamento(primeiraSegunda, agendamentos[0]++));
+
+        System.out.printf("%nIdas ao banco por operacao (%d repeticoes)%n", REPETICOES);
+        System.out.printf("%-22s %10s %10s%n", "operacao", "sem cache", "com cache");
+        var semCache = 0.0;
+        var comCache = 0.0;
+        for (var operacao : List.of(
+                new Operacao("detalhar medico", detalharMedico),
+                new Operacao("situacao do paciente", situacaoDoPaciente),
+                new Operacao("login (findByLogin)", login),
+                new Operacao("agendar consulta", agendar))) {
+            var sem = medir(operacao.acao(), CacheMode.IGNORE);
+            medir(operacao.acao(), CacheMode.NORMAL);
+            var com = medir(operacao.acao(), CacheMode.NORMAL);
+            System.out.printf("%-22s %10.2f %10.2f%n", operacao.nome(), sem, com);
+            semCache += sem;
+            comCache += com;
+        }
+        System.out.printf("hit ratio da regiao medicos: %.2f%n", taxaDeAcerto("medicos"));
+
+        assertThat(comCache).isLessThan(semCache);
+    }
+
+    @Test
+    @DisplayName("Alteracoes feitas pelo Hibernate deveriam ser vistas nas leituras seguintes")
+    void invalidacao() {
+        var transacao = new TransactionTemplate(transactionManager);
+        var idMedico = medicos.get(medicos.size() - 1);
+        var idPaciente = pacientes.get(pacientes.size() - 1);
+
+        // aquece as entradas do cache
+        transacao.executeWithoutResult(s -> {
+            medicoRepository.getReferenceById(idMedico).getNome();
+            assertThat(pacienteRepository.getReferenceById(idPaciente).getAtivo()).isTrue();
+        });
+
+        transacao.executeWithoutResult(s -> medicoRepository.getReferenceById(idMedico)
+                .atualizarInformacoes(new DadosAtualizacaoMedico(idMedico, "Nome Atualizado", null, null)));
+        transacao.executeWithoutResult(s -> pacienteRepository.getReferenceById(idPaciente).excluir());
+
+        transacao.executeWithoutResult(s -> {
+            assertThat(medicoRepository.getReferenceById(idMedico).getNome()).isEqualTo("Nome Atualizado");
+            assertThat(pacienteRepository.getReferenceById(idPaciente).getAtivo()).isFalse();
+        });
+
+        jdbc.update("insert into medicos (nome, email, crm, especialidade, logradouro, bairro, cep, uf, cidade, telefone, ativo) "
+                + "values ('Excluido', 'excluido@voll.med', '999999', 'ORTOPEDIA', 'rua', 'bairro', '00000000', 'DF', 'Brasilia', '61999999999', 1)");
+        var idExcluido = jdbc.queryForObject("select id from medicos where email = 'excluido@voll.med'", Long.class);
+        transacao.executeWithoutResult(s -> medicoRepository.getReferenceById(idExcluido).getNome());
+        transacao.executeWithoutResult(s -> medicoRepository.deleteById(idExcluido));
+        Boolean excluidoEncontrado = transacao.execute(s -> medicoRepository.findById(idExcluido).isPresent());
+        assertThat(excluidoEncontrado).isFalse();
+    }
+
+    /**
+     * Um horário diferente por agendamento, de segunda a sábado a partir de
+     * um ano à frente (fora da massa de carga), e um paciente diferente em
+     * cada horário do dia, para que nenhum agendamento seja recusado.
+     */
+    private DadosAgendamentoConsulta proximoAgendamento(LocalDate primeiraSegunda, int sequencia) {
+        var horariosPorDia = 12;
+        var dia = sequencia / horariosPorDia;
+        var data = LocalDateTime.of(primeiraSegunda.plusDays(dia + dia / 6), LocalTime.of(7 + sequencia % horariosPorDia, 0));
+        return new DadosAgendamentoConsulta(
+                medicos.get(sequencia % medicos.size()),
+                pacientes.get(sequencia % pacientes.size()),
+                data,
+                null);
+    }
+
+    private double medir(IntConsumer operacao, CacheMode modo) {
+        var transacao = new TransactionTemplate(transactionManager);
+        var antes = estatisticas.getPrepareStatementCount();
+        for (int i = 0; i < REPETICOES; i++) {
+            var repeticao = i;
+            transacao.executeWithoutResult(status -> {
+                em.unwrap(Session.class).setCacheMode(modo);
+                operacao.accept(repeticao);
+            });
+        }
+        return (estatisticas.getPrepareStatementCount() - antes) / (double) REPETICOES;
+    }
+
+    private double taxaDeAcerto(String regiao) {
+        var regiaoDoCache = estatisticas.getDomainDataRegionStatistics(regiao);
+        var total = regiaoDoCache.getHitCount() + regiaoDoCache.getMissCount();
+        return total == 0 ? 0 : regiaoDoCache.getHitCount() / (double) total;
+    }
+
+    private record Operacao(String nome, IntConsumer acao) {}
+}
@@ -0,0 +1,300 @@
+package io.github.lucianodacunha.api.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.model.Especialidade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Suíte de carga: sobe a API inteira sobre H2 em modo MySQL (com as
+ * migrations do Flyway), popula o banco e dispara tráfego misto com vários
+ * usuários virtuais simultâneos. Ao final imprime e grava em JSON a vazão e
+ * as latências p50/p99/p99.9 de cada endpoint.
+ *
+ * Não roda no build normal: use mvn test -Pcarga e ajuste volumes e
+ * duração com -Dcarga.* (ver application-carga.properties).
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("carga")
+class CargaMistaTest {
+
+    private static final Map<String, Integer> PESOS = new LinkedHashMap<>();
+
+    static {
+        PESOS.put("POST /login", 5);
+        PESOS.put("GET /medicos", 25);
+        PESOS.put("GET /pacientes?cursor", 20);
+        PESOS.put("POST /consultas", 35);
+        PESOS.put("DELETE /consultas", 15);
+    }
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Environment ambiente;
+
+    @Value("${carga.usuarios-virtuais}")
+    private int usuariosVirtuais;
+
+    @Value("${carga.aquecimento-segundos}")
+    private int aquecimentoEmSegundos;
+
+    @Value("${carga.duracao-segundos}")
+    private int duracaoEmSegundos;
+
+    @Value("${carga.semente}")
+    private long semente;
+
+    @Value("${carga.resultado}")
+    private String arquivoDeResultado;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ConcurrentLinkedQueue<Long> consultasAgendadas = new ConcurrentLinkedQueue<>();
+
+    private GeradorDeDados.Parametros parametros;
+    private List<LocalDateTime> horarios;
+
+    @BeforeEach
+    void setUp() {
+        parametros = MassaDeCarga.parametros(ambiente);
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(parametros);
+        }
+        horarios = GeradorDeDados.horariosDeAtendimento(parametros.primeiroDia(), parametros.dias());
+    }
+
+    @Test
+    @DisplayName("Carga mista: login, listagens, agendamento e cancelamento simultaneos")
+    void cargaMista() throws Exception {
+        executar(new RegistroDeLatencias(), aquecimentoEmSegundos);
+
+        var registro = new RegistroDeLatencias();
+        var inicio = System.nanoTime();
+        executar(registro, duracaoEmSegundos);
+        var duracaoReal = (System.nanoTime() - inicio) / 1e9;
+
+        var resultados = registro.resultados(duracaoReal);
+        imprimir(resultados, duracaoReal);
+        gravar(resultados, duracaoReal);
+
+        assertThat(resultados).extracting(RegistroDeLatencias.ResultadoDoEndpoint::endpoint)
+                .containsExactlyInAnyOrderElementsOf(PESOS.keySet());
+        assertThat(resultados).allSatisfy(r -> {
+            assertThat(r.erros()).as("erros em %s", r.endpoint()).isZero();
+            assertThat(r.sucessos()).as("sucessos em %s", r.endpoint()).isPositive();
+        });
+    }
+
+    private void executar(RegistroDeLatencias registro, int segundos) throws Exception {
+        var fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        var executor = Executors.newFixedThreadPool(usuariosVirtuais);
+        try {
+            var usuarios = new ArrayList<Future<?>>();
+            for (int i = 0; i < usuariosVirtuais; i++) {
+                var usuario = new UsuarioVirtual(registro, new Random(semente + i));
+                usuarios.add(executor.submit(() -> usuario.executarAte(fim)));
+            }
+            for (var usuario : usuarios) {
+                usuario.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class UsuarioVirtual {
+
+        private final RegistroDeLatencias registro;
+        private final Random random;
+        private String token;
+
+        UsuarioVirtual(RegistroDeLatencias registro, Random random) {
+            this.registro = registro;
+            this.random = random;
+        }
+
+        void executarAte(long fim) {
+            token = login();
+            while (System.nanoTime() < fim) {
+                switch (sortearOperacao()) {
+                    case "POST /login" -> login();
+                    case "GET /medicos" -> enviar("GET /medicos", get("/medicos?page=" + random.nextInt(50) + "&size=20"));
+                    case "GET /pacientes?cursor" -> listarPacientesPorCursor();
+                    case "POST /consultas" -> agendar();
+                    default -> cancelar();
+                }
+            }
+        }
+
+        private String login() {
+            var corpo = json(Map.of("login", MassaDeCarga.LOGIN, "senha", MassaDeCarga.SENHA));
+            var resposta = enviar("POST /login", requisicao("/login").POST(HttpRequest.BodyPublishers.ofString(corpo)));
+            return resposta == null || resposta.statusCode() != 200 ? token : ler(resposta).get("token").asText();
+        }
+
+        private void listarPacientesPorCursor() {
+            var cursor = "";
+            for (int pagina = 0; pagina < 1 + random.nextInt(5) && cursor != null; pagina++) {
+                var resposta = enviar("GET /pacientes?cursor", get("/pacientes?tamanho=20&cursor=" + cursor));
+                if (resposta == null || resposta.statusCode() != 200) {
+                    return;
+                }
+                var proximo = ler(resposta).get("proximoCursor");
+                cursor = proximo == null || proximo.isNull() ? null : proximo.asText();
+            }
+        }
+
+        private void agendar() {
+            var dados = new LinkedHashMap<String, Object>();
+            dados.put("idPaciente", 1 + random.nextInt(parametros.pacientes()));
+            dados.put("data", horarios.get(random.nextInt(horarios.size())));
+            if (random.nextBoolean()) {
+                dados.put("idMedico", 1 + random.nextInt(parametros.medicos()));
+            } else {
+                var especialidades = Especialidade.values();
+                dados.put("especialidade", especialidades[random.nextInt(especialidades.length)]);
+            }
+
+            var resposta = enviar("POST /consultas", requisicao("/consultas").POST(HttpRequest.BodyPublishers.ofString(json(dados))));
+            if (resposta != null && resposta.statusCode() == 200) {
+                consultasAgendadas.add(ler(resposta).get("id").asLong());
+            }
+        }
+
+        private void cancelar() {
+            var idConsulta = consultasAgendadas.poll();
+            if (idConsulta == null) {
+                idConsulta = 1l + random.nextInt((int) Math.max(1, parametros.consultas()));
+            }
+
+            var corpo = json(Map.of("idConsulta", idConsulta, "motivo", "PACIENTE_DESISTIU"));
+            enviar("DELETE /consultas", requisicao("/consultas").method("DELETE", HttpRequest.BodyPublishers.ofString(corpo)));
+        }
+
+        private String sortearOperacao() {
+            var total = PESOS.values().stream().mapToInt(Integer::intValue).sum();
+            var sorteio = random.nextInt(total);
+            for (var peso : PESOS.entrySet()) {
+                sorteio -= peso.getValue();
+                if (sorteio < 0) {
+                    return peso.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        private HttpRequest.Builder get(String caminho) {
+            return requisicao(caminho).GET();
+        }
+
+        private HttpRequest.Builder requisicao(String caminho) {
+            var builder = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json");
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+
+        private HttpResponse<String> enviar(String endpoint, HttpRequest.Builder requisicao) {
+            var inicio = System.nanoTime();
+            try {
+                var resposta = http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+                registro.registrar(endpoint, System.nanoTime() - inicio, resposta.statusCode());
+                return resposta;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception ex) {
+                registro.registrarFalha(endpoint);
+                return null;
+            }
+        }
+    }
+
+    private String json(Object valor) {
+        try {
+            return mapper.writeValueAsString(valor);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private JsonNode ler(HttpResponse<String> resposta) {
+        try {
+            return mapper.readTree(resposta.body());
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void imprimir(List<RegistroDeLatencias.ResultadoDoEndpoint> resultados, double duracao) {
+        System.out.printf("%nCarga mista: %d usuarios virtuais, %.1fs%n", usuariosVirtuais, duracao);
+        System.out.printf("%-24s %10s %8s %8s %6s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requisicoes", "sucesso", "recusa", "erro", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        resultados.forEach(r -> System.out.printf("%-24s %10d %8d %8d %6d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                r.endpoint(), r.requisicoes(), r.sucessos(), r.recusas(), r.erros(),
+                r.requisicoesPorSegundo(), r.p50Ms(), r.p99Ms(), r.p999Ms(), r.maximoMs()));
+    }
+
+    private void gravar(List<RegistroDeLatencias.ResultadoDoEndpoint> resultados, double duracao) throws Exception {
+        var relatorio = new LinkedHashMap<String, Object>();
+        relatorio.put("executadoEm", LocalDateTime.now());
+        relatorio.put("usuariosVirtuais", usuariosVirtuais);
+        relatorio.put("duracaoSegundos", duracao);
+        relatorio.put("massa", parametros);
+        relatorio.put("endpoints", resultados);
+
+        var arquivo = Path.of(arquivoDeResultado);
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+        mapper.writerWithDefaultPrettyPrinter().writeValue(arquivo.toFile(), relatorio);
+    }
+}
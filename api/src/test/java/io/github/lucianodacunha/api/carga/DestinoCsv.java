@@ -0,0 +1,79 @@
+package io.github.lucianodacunha.api.carga;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Grava um CSV por tabela (medicos.csv, pacientes.csv, consultas.csv) com
+ * cabeçalho e nulos como \N, pronto para ser recarregado com
+ * LOAD DATA LOCAL INFILE ... FIELDS TERMINATED BY ',' IGNORE 1 LINES no
+ * MySQL ou CSVREAD no H2. Os valores gerados não contêm vírgulas.
+ */
+class DestinoCsv implements DestinoDosDados {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path diretorio;
+    private final Map<Tabela, BufferedWriter> arquivos = new EnumMap<>(Tabela.class);
+
+    DestinoCsv(Path diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    @Override
+    public void gravar(Tabela tabela, Object[] linha) {
+        try {
+            var arquivo = arquivos.computeIfAbsent(tabela, this::abrir);
+            for (int i = 0; i < linha.length; i++) {
+                if (i > 0) {
+                    arquivo.write(',');
+                }
+                arquivo.write(formatar(linha[i]));
+            }
+            arquivo.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (var arquivo : arquivos.values()) {
+            try {
+                arquivo.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private String formatar(Object valor) {
+        if (valor == null) {
+            return "\\N";
+        }
+        if (valor instanceof LocalDateTime data) {
+            return FORMATO_DATA.format(data);
+        }
+        return valor.toString();
+    }
+
+    private BufferedWriter abrir(Tabela tabela) {
+        try {
+            Files.createDirectories(diretorio);
+            var arquivo = Files.newBufferedWriter(diretorio.resolve(tabela.nome() + ".csv"), StandardCharsets.UTF_8);
+            arquivo.write(String.join(",", tabela.colunas()));
+            arquivo.newLine();
+            return arquivo;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
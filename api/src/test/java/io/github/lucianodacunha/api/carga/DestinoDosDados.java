@@ -0,0 +1,39 @@
+package io.github.lucianodacunha.api.carga;
+
+import java.util.List;
+
+/**
+ * Para onde o GeradorDeDados envia as linhas, na ordem em que são geradas:
+ * todos os médicos, depois os pacientes e por fim as consultas.
+ */
+interface DestinoDosDados extends AutoCloseable {
+
+    void gravar(Tabela tabela, Object[] linha);
+
+    @Override
+    void close();
+
+    enum Tabela {
+        MEDICOS("medicos", List.of("id", "nome", "email", "crm", "especialidade", "telefone",
+                "logradouro", "bairro", "cep", "complemento", "numero", "uf", "cidade", "ativo")),
+        PACIENTES("pacientes", List.of("id", "nome", "email", "telefone", "cpf",
+                "logradouro", "bairro", "cep", "complemento", "numero", "uf", "cidade", "ativo")),
+        CONSULTAS("consultas", List.of("id", "medico_id", "paciente_id", "data", "motivo_cancelamento"));
+
+        private final String nome;
+        private final List<String> colunas;
+
+        Tabela(String nome, List<String> colunas) {
+            this.nome = nome;
+            this.colunas = colunas;
+        }
+
+        String nome() {
+            return nome;
+        }
+
+        List<String> colunas() {
+            return colunas;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.lucianodacunha.api.carga;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grava as linhas no banco com JDBC batch. No MySQL use
+ * rewriteBatchedStatements=true na URL para que cada batch vire um único
+ * insert com vários valores.
+ */
+class DestinoJdbc implements DestinoDosDados {
+
+    private final JdbcTemplate jdbc;
+    private final int tamanhoDoBatch;
+    private final Map<Tabela, List<Object[]>> pendentes = new EnumMap<>(Tabela.class);
+    private Tabela tabelaAtual;
+
+    DestinoJdbc(JdbcTemplate jdbc, int tamanhoDoBatch) {
+        this.jdbc = jdbc;
+        this.tamanhoDoBatch = tamanhoDoBatch;
+    }
+
+    @Override
+    public void gravar(Tabela tabela, Object[] linha) {
+        // ao mudar de tabela descarrega a anterior, para que as consultas
+        // só sejam inseridas depois de todos os médicos e pacientes
+        if (tabelaAtual != null && tabelaAtual != tabela) {
+            descarregar(tabelaAtual, pendentes.get(tabelaAtual));
+        }
+        tabelaAtual = tabela;
+
+        var lote = pendentes.computeIfAbsent(tabela, t -> new ArrayList<>(tamanhoDoBatch));
+        lote.add(paraJdbc(linha));
+        if (lote.size() == tamanhoDoBatch) {
+            descarregar(tabela, lote);
+        }
+    }
+
+    @Override
+    public void close() {
+        pendentes.forEach(this::descarregar);
+    }
+
+    private void descarregar(Tabela tabela, List<Object[]> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        var colunas = tabela.colunas();
+        var sql = "insert into %s (%s) values (%s)".formatted(tabela.nome(),
+                String.join(", ", colunas),
+                String.join(", ", colunas.stream().map(c -> "?").toList()));
+        jdbc.batchUpdate(sql, lote);
+        lote.clear();
+    }
+
+    private Object[] paraJdbc(Object[] linha) {
+        var valores = linha.clone();
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] instanceof LocalDateTime data) {
+                valores[i] = Timestamp.valueOf(data);
+            }
+        }
+        return valores;
+    }
+}
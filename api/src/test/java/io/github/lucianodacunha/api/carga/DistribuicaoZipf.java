@@ -0,0 +1,35 @@
+package io.github.lucianodacunha.api.carga;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Sorteia posições 0..n-1 com probabilidade proporcional a 1/(k+1)^s.
+ * Com s = 0 a distribuição é uniforme; quanto maior s, mais concentrada nas
+ * primeiras posições ("médicos quentes", "especialidades quentes").
+ */
+class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    DistribuicaoZipf(int n, double s) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n deve ser positivo");
+        }
+        acumulada = new double[n];
+        var soma = 0.0;
+        for (int k = 0; k < n; k++) {
+            soma += 1.0 / Math.pow(k + 1, s);
+            acumulada[k] = soma;
+        }
+        for (int k = 0; k < n; k++) {
+            acumulada[k] /= soma;
+        }
+    }
+
+    int sortear(SplittableRandom random) {
+        var posicao = Arrays.binarySearch(acumulada, random.nextDouble());
+        var indice = posicao >= 0 ? posicao : -posicao - 1;
+        return Math.min(indice, acumulada.length - 1);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.model.FormatoArquivo;
+import io.github.lucianodacunha.api.model.SituacaoConsulta;
+import io.github.lucianodacunha.api.service.ExportacaoDeConsultasService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exportação da massa de carga inteira para uma saída que só conta linhas e
+ * bytes, sem guardar nada: o que for medido de memória é da exportação. A
+ * cada bloco de linhas escritas a saída força um GC e anota o heap usado;
+ * se a exportação acumulasse linhas (ou entidades no contexto de
+ * persistência), o heap depois do GC cresceria junto com as linhas.
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("carga")
+class ExportacaoDeConsultasTest {
+
+    /**
+     * Folga para a variação natural do heap entre as amostras; muito abaixo
+     * do que ocupariam as linhas exportadas se fossem mantidas em memória.
+     */
+    private static final long CRESCIMENTO_MAXIMO_DO_HEAP = 2 * 1024 * 1024;
+
+    private static final int LINHAS_POR_AMOSTRA = 5_000;
+
+    @Autowired
+    private ExportacaoDeConsultasService exportacao;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Environment ambiente;
+
+    @BeforeEach
+    void setUp() {
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(MassaDeCarga.parametros(ambiente));
+        }
+    }
+
+    @Test
+    @DisplayName("Exportacao deveria escrever uma linha por consulta nos dois formatos")
+    void exportarTudo() throws IOException {
+        var total = jdbc.queryForObject("select count(*) from consultas", Long.class);
+
+        for (var formato : FormatoArquivo.values()) {
+            var saida = new ContadorDeLinhas();
+            var inicio = System.nanoTime();
+            exportacao.exportar(formato, null, null, SituacaoConsulta.TODAS, () -> saida);
+            var segundos = (System.nanoTime() - inicio) / 1e9;
+
+            var crescimento = saida.crescimentoDoHeap();
+            System.out.printf("%s: %d linhas, %d KB em %.2fs (%.0f linhas/s), heap retido cresceu %d KB em %d amostras%n",
+                    formato, saida.linhas, saida.bytes / 1024, segundos, saida.linhas / segundos,
+                    crescimento / 1024, saida.heapDepoisDoGc.size());
+            var cabecalho = formato == FormatoArquivo.CSV ? 1 : 0;
+            assertThat(saida.linhas).isEqualTo(total + cabecalho);
+            assertThat(saida.heapDepoisDoGc).hasSizeGreaterThan(2);
+            assertThat(crescimento).isLessThan(CRESCIMENTO_MAXIMO_DO_HEAP);
+        }
+    }
+
+    @Test
+    @DisplayName("Exportacao deveria aplicar o filtro de situacao")
+    void exportarCanceladas() throws IOException {
+        var canceladas = jdbc.queryForObject("select count(*) from consultas where motivo_cancelamento is not null", Long.class);
+        var saida = new ContadorDeLinhas();
+
+        exportacao.exportar(FormatoArquivo.NDJSON, null, null, SituacaoConsulta.CANCELADAS, () -> saida);
+
+        assertThat(saida.linhas).isEqualTo(canceladas);
+    }
+
+    private static class ContadorDeLinhas extends OutputStream {
+        private final List<Long> heapDepoisDoGc = new ArrayList<>();
+        private long linhas;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n' && ++linhas % LINHAS_POR_AMOSTRA == 0) {
+                var memoria = ManagementFactory.getMemoryMXBean();
+                memoria.gc();
+                heapDepoisDoGc.add(memoria.getHeapMemoryUsage().getUsed());
+            }
+        }
+
+        /**
+         * Da primeira amostra para a maior das seguintes: a primeira já
+         * inclui o que a exportação aloca de uma vez (buffers, cursor).
+         */
+        long crescimentoDoHeap() {
+            var primeira = heapDepoisDoGc.get(0);
+            return heapDepoisDoGc.stream().mapToLong(Long::longValue).max().getAsLong() - primeira;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.carga.DestinoDosDados.Tabela;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.MotivoCancelamento;
+
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gera médicos, pacientes e consultas de forma determinística: a mesma
+ * semente e os mesmos parâmetros produzem exatamente as mesmas linhas. As
+ * linhas são geradas sob demanda e enviadas ao destino uma a uma, então o
+ * volume não fica em memória; só as ocupações de agenda (médico x horário
+ * e paciente x dia) são mantidas em BitSets.
+ *
+ * As linhas respeitam as migrations e as regras das entidades: crm, email,
+ * telefone e cpf únicos (cpf com dígitos verificadores válidos; o telefone
+ * é derivado do id, tanto de médicos quanto de pacientes),
+ * especialidades válidas, consultas só de segunda a sábado das 7h às 18h,
+ * nenhum médico com duas consultas no mesmo horário e nenhum paciente com
+ * duas consultas no mesmo dia.
+ *
+ * Para gerar os arquivos CSV sem subir a aplicação:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.lucianodacunha.api.carga.GeradorDeDados \
+ *     -Dexec.args="target/massa 42 10 0.5 0.8 2030-01-07"
+ * </pre>
+ * (diretório, semente, escala, assimetria das especialidades e dos médicos,
+ * primeiro dia da agenda)
+ */
+public class GeradorDeDados {
+
+    private static final int MEDICOS_POR_ESCALA = 1_000;
+    private static final int PACIENTES_POR_ESCALA = 20_000;
+    private static final int CONSULTAS_POR_ESCALA = 100_000;
+    private static final int PRIMEIRA_HORA = 7;
+    private static final int HORARIOS_POR_DIA = 12;
+    private static final int TENTATIVAS_POR_CONSULTA = 100;
+
+    /**
+     * Fixo para que a mesma semente gere as mesmas linhas em qualquer dia;
+     * uma segunda-feira distante o bastante para as consultas serem futuras.
+     */
+    static final LocalDate PRIMEIRO_DIA_PADRAO = LocalDate.of(2030, 1, 7);
+
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela",
+            "Henrique", "Isabela", "João", "Juliana", "Lucas", "Mariana", "Nicolas", "Otávio", "Patrícia",
+            "Rafael", "Sofia", "Thiago", "Vitória"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes",
+            "Soares", "Fernandes", "Vieira", "Barbosa"};
+    private static final String[][] CIDADES = {{"São Paulo", "SP"}, {"Rio de Janeiro", "RJ"}, {"Brasília", "DF"},
+            {"Belo Horizonte", "MG"}, {"Salvador", "BA"}, {"Curitiba", "PR"}, {"Recife", "PE"}, {"Porto Alegre", "RS"}};
+
+    private final Parametros parametros;
+    private final List<LocalDateTime> horarios;
+
+    GeradorDeDados(Parametros parametros) {
+        this.parametros = parametros;
+        this.horarios = horariosDeAtendimento(parametros.primeiroDia(), parametros.dias());
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("uso: GeradorDeDados <diretorio> <semente> <escala> [assimetriaEspecialidades] [assimetriaMedicos] [primeiroDia]");
+            System.exit(1);
+        }
+
+        var padrao = Parametros.padrao(Long.parseLong(args[1]), Double.parseDouble(args[2]));
+        var parametros = new Parametros(padrao.semente(), padrao.escala(),
+                args.length > 3 ? Double.parseDouble(args[3]) : padrao.assimetriaEspecialidades(),
+                args.length > 4 ? Double.parseDouble(args[4]) : padrao.assimetriaMedicos(),
+                args.length > 5 ? LocalDate.parse(args[5]) : padrao.primeiroDia(), padrao.dias(), padrao.percentualInativos(), padrao.percentualCanceladas());
+
+        var inicio = System.nanoTime();
+        Resumo resumo;
+        try (var destino = new DestinoCsv(Path.of(args[0]))) {
+            resumo = new GeradorDeDados(parametros).gerar(destino);
+        }
+        System.out.printf("%d médicos, %d pacientes e %d consultas gravados em %s (%.1fs)%n",
+                resumo.medicos(), resumo.pacientes(), resumo.consultas(), args[0], (System.nanoTime() - inicio) / 1e9);
+    }
+
+    Resumo gerar(DestinoDosDados destino) {
+        var ativos = gerarMedicos(destino);
+        gerarPacientes(destino);
+        var consultas = gerarConsultas(destino, ativos);
+        return new Resumo(parametros.medicos(), parametros.pacientes(), consultas);
+    }
+
+    List<LocalDateTime> horarios() {
+        return horarios;
+    }
+
+    /**
+     * Especialidades sorteadas com assimetria: as primeiras do enum
+     * concentram mais médicos quando assimetriaEspecialidades > 0.
+     */
+    private int[] gerarMedicos(DestinoDosDados destino) {
+        var random = new SplittableRandom(parametros.semente() * 31 + 1);
+        var especialidades = Especialidade.values();
+        var zipf = new DistribuicaoZipf(especialidades.length, parametros.assimetriaEspecialidades());
+        var ativos = new ArrayList<Integer>();
+
+        for (int i = 0; i < parametros.medicos(); i++) {
+            var id = i + 1;
+            var nome = nome(random);
+            var ativo = random.nextDouble() >= parametros.percentualInativos();
+            var cidade = CIDADES[random.nextInt(CIDADES.length)];
+            destino.gravar(Tabela.MEDICOS, new Object[]{id, nome, email(nome, "medico", id), "%06d".formatted(id),
+                    especialidades[zipf.sortear(random)].name(), "%02d9%08d".formatted(11 + i % 89, i),
+                    "Rua " + (1 + random.nextInt(500)), "Centro", "%08d".formatted(random.nextInt(100_000_000)),
+                    null, String.valueOf(1 + random.nextInt(2000)), cidade[1], cidade[0], ativo ? 1 : 0});
+            if (ativo) {
+                ativos.add(i);
+            }
+        }
+
+        // embaralha para que os médicos "quentes" não sejam os primeiros ids
+        var indices = ativos.stream().mapToInt(Integer::intValue).toArray();
+        for (int i = indices.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var troca = indices[i];
+            indices[i] = indices[j];
+            indices[j] = troca;
+        }
+        return indices;
+    }
+
+    private void gerarPacientes(DestinoDosDados destino) {
+        var random = new SplittableRandom(parametros.semente() * 31 + 2);
+        for (int i = 0; i < parametros.pacientes(); i++) {
+            var id = i + 1;
+            var nome = nome(random);
+            var cidade = CIDADES[random.nextInt(CIDADES.length)];
+            destino.gravar(Tabela.PACIENTES, new Object[]{id, nome, email(nome, "paciente", id),
+                    "%02d9%08d".formatted(11 + i % 89, i), cpf(i),
+                    "Rua " + (1 + random.nextInt(500)), "Centro", "%08d".formatted(random.nextInt(100_000_000)),
+                    null, String.valueOf(1 + random.nextInt(2000)), cidade[1], cidade[0],
+                    random.nextDouble() >= parametros.percentualInativos() ? 1 : 0});
+        }
+    }
+
+    /**
+     * Médicos sorteados por Zipf (assimetriaMedicos) e horários uniformes
+     * no período. Se o horário sorteado estiver ocupado, procura o próximo
+     * livre na agenda do mesmo médico; se o paciente já tiver consulta
+     * naquele dia, sorteia outro paciente.
+     */
+    private long gerarConsultas(DestinoDosDados destino, int[] medicosAtivos) {
+        if (medicosAtivos.length == 0 || parametros.consultas() == 0) {
+            return 0;
+        }
+
+        var random = new SplittableRandom(parametros.semente() * 31 + 3);
+        var zipf = new DistribuicaoZipf(medicosAtivos.length, parametros.assimetriaMedicos());
+        var motivos = MotivoCancelamento.values();
+        var quantidadeDeHorarios = horarios.size();
+        var agendaDosMedicos = new BitSet(parametros.medicos() * quantidadeDeHorarios);
+        var diasDosPacientes = new BitSet(parametros.pacientes() * parametros.dias());
+
+        long gravadas = 0;
+        for (long id = 1; id <= parametros.consultas(); id++) {
+            var agendada = false;
+            for (int tentativa = 0; tentativa < TENTATIVAS_POR_CONSULTA && !agendada; tentativa++) {
+                var medico = medicosAtivos[zipf.sortear(random)];
+                var horario = agendaDosMedicos.nextClearBit(medico * quantidadeDeHorarios + random.nextInt(quantidadeDeHorarios))
+                        - medico * quantidadeDeHorarios;
+                if (horario >= quantidadeDeHorarios) {
+                    continue;
+                }
+
+                var paciente = random.nextInt(parametros.pacientes());
+                var dia = diaDoPeriodo(horarios.get(horario));
+                if (diasDosPacientes.get(paciente * parametros.dias() + dia)) {
+                    continue;
+                }
+
+                agendaDosMedicos.set(medico * quantidadeDeHorarios + horario);
+                diasDosPacientes.set(paciente * parametros.dias() + dia);
+                var cancelada = random.nextDouble() < parametros.percentualCanceladas();
+                destino.gravar(Tabela.CONSULTAS, new Object[]{id, medico + 1, paciente + 1, horarios.get(horario),
+                        cancelada ? motivos[random.nextInt(motivos.length)].name() : null});
+                agendada = true;
+                gravadas++;
+            }
+
+            if (!agendada) {
+                throw new IllegalStateException("Não foi possível encaixar a consulta %d: aumente os dias ou reduza a assimetria".formatted(id));
+            }
+        }
+        return gravadas;
+    }
+
+    private int diaDoPeriodo(LocalDateTime horario) {
+        return (int) (horario.toLocalDate().toEpochDay() - parametros.primeiroDia().toEpochDay());
+    }
+
+    private String nome(SplittableRandom random) {
+        return NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]
+                + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+    }
+
+    private String email(String nome, String perfil, int id) {
+        var semAcentos = Normalizer.normalize(nome, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return "%s.%s%d@voll.med".formatted(semAcentos.toLowerCase().replace(' ', '.'), perfil, id);
+    }
+
+    /**
+     * CPF válido derivado do índice: os nove primeiros dígitos são o
+     * próprio índice (deslocado), o que garante unicidade.
+     */
+    static String cpf(int indice) {
+        var base = "%09d".formatted(100_000_000 + indice);
+        var primeiro = digitoVerificador(base, 10);
+        var segundo = digitoVerificador(base + primeiro, 11);
+        return base + primeiro + segundo;
+    }
+
+    private static int digitoVerificador(String digitos, int pesoInicial) {
+        var soma = 0;
+        for (int i = 0; i < digitos.length(); i++) {
+            soma += (digitos.charAt(i) - '0') * (pesoInicial - i);
+        }
+        var resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    static List<LocalDateTime> horariosDeAtendimento(LocalDate primeiroDia, int dias) {
+        var horarios = new ArrayList<LocalDateTime>();
+        for (var dia = primeiroDia; dia.isBefore(primeiroDia.plusDays(dias)); dia = dia.plusDays(1)) {
+            if (dia.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (int hora = PRIMEIRA_HORA; hora < PRIMEIRA_HORA + HORARIOS_POR_DIA; hora++) {
+                horarios.add(dia.atTime(hora, 0));
+            }
+        }
+        return horarios;
+    }
+
+    /**
+     * escala 1 gera 1.000 médicos, 20.000 pacientes e 100.000 consultas;
+     * assimetria 0 é uniforme e valores em torno de 1 concentram a maior
+     * parte das consultas em poucos médicos/especialidades.
+     */
+    record Parametros(long semente,
+                      double escala,
+                      double assimetriaEspecialidades,
+                      double assimetriaMedicos,
+                      LocalDate primeiroDia,
+                      int dias,
+                      double percentualInativos,
+                      double percentualCanceladas) {
+
+        Parametros {
+            if (escala <= 0 || dias <= 0) {
+                throw new IllegalArgumentException("escala e dias devem ser positivos");
+            }
+            if (Math.round(MEDICOS_POR_ESCALA * escala) > 999_999) {
+                throw new IllegalArgumentException("crm tem 6 dígitos: no máximo 999.999 médicos");
+            }
+            if ((long) Math.round(PACIENTES_POR_ESCALA * escala) * dias > Integer.MAX_VALUE
+                    || (long) Math.round(MEDICOS_POR_ESCALA * escala) * dias * HORARIOS_POR_DIA > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("escala x dias grande demais para os índices de ocupação");
+            }
+        }
+
+        static Parametros padrao(long semente, double escala) {
+            return new Parametros(semente, escala, 0, 0, PRIMEIRO_DIA_PADRAO, 180, 0.05, 0.1);
+        }
+
+        int medicos() {
+            return (int) Math.max(1, Math.round(MEDICOS_POR_ESCALA * escala));
+        }
+
+        int pacientes() {
+            return (int) Math.max(1, Math.round(PACIENTES_POR_ESCALA * escala));
+        }
+
+        long consultas() {
+            return Math.round(CONSULTAS_POR_ESCALA * escala);
+        }
+    }
+
+    record Resumo(int medicos, int pacientes, long consultas) {}
+}
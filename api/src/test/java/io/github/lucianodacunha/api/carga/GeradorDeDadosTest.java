@@ -0,0 +1,90 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.carga.DestinoDosDados.Tabela;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeradorDeDadosTest {
+
+    private final GeradorDeDados.Parametros parametros = new GeradorDeDados.Parametros(
+            7, 0.05, 1.0, 1.2, LocalDate.of(2030, 1, 7), 30, 0.05, 0.1);
+
+    @Test
+    @DisplayName("Deveria gerar as mesmas linhas para a mesma semente")
+    void gerarCenario1() {
+        var primeira = gerar(parametros);
+        var segunda = gerar(parametros);
+
+        for (var tabela : Tabela.values()) {
+            assertThat(segunda.get(tabela)).hasSameSizeAs(primeira.get(tabela));
+            for (int i = 0; i < primeira.get(tabela).size(); i++) {
+                assertThat(segunda.get(tabela).get(i)).containsExactly(primeira.get(tabela).get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deveria respeitar unicidades, horario da clinica e agenda de medicos e pacientes")
+    void gerarCenario2() {
+        var linhas = gerar(parametros);
+
+        assertThat(linhas.get(Tabela.MEDICOS)).hasSize(parametros.medicos());
+        assertThat(linhas.get(Tabela.PACIENTES)).hasSize(parametros.pacientes());
+        assertThat(linhas.get(Tabela.CONSULTAS)).hasSize((int) parametros.consultas());
+        assertThat(distintos(linhas.get(Tabela.MEDICOS), 3)).isEqualTo(parametros.medicos());
+        assertThat(distintos(linhas.get(Tabela.MEDICOS), 2)).isEqualTo(parametros.medicos());
+        assertThat(distintos(linhas.get(Tabela.MEDICOS), 5)).isEqualTo(parametros.medicos());
+        assertThat(distintos(linhas.get(Tabela.PACIENTES), 3)).isEqualTo(parametros.pacientes());
+        assertThat(distintos(linhas.get(Tabela.PACIENTES), 4)).isEqualTo(parametros.pacientes());
+        assertThat(linhas.get(Tabela.PACIENTES)).allSatisfy(p -> assertThat((String) p[4]).matches("\\d{11}"));
+
+        var horariosDosMedicos = new HashSet<String>();
+        var diasDosPacientes = new HashSet<String>();
+        for (var consulta : linhas.get(Tabela.CONSULTAS)) {
+            var data = (LocalDateTime) consulta[3];
+            assertThat(data.getDayOfWeek()).isNotEqualTo(DayOfWeek.SUNDAY);
+            assertThat(data.getHour()).isBetween(7, 18);
+            assertThat(horariosDosMedicos.add(consulta[1] + "@" + data)).isTrue();
+            assertThat(diasDosPacientes.add(consulta[2] + "@" + data.toLocalDate())).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Os parametros padrao nao deveriam depender da data em que a massa e gerada")
+    void gerarCenario3() {
+        var padrao = GeradorDeDados.Parametros.padrao(7, 0.01);
+
+        assertThat(padrao.primeiroDia()).isEqualTo(LocalDate.of(2030, 1, 7));
+        assertThat(new GeradorDeDados(padrao).horarios().get(0)).isEqualTo(LocalDateTime.of(2030, 1, 7, 7, 0));
+    }
+
+    private long distintos(List<Object[]> linhas, int coluna) {
+        return linhas.stream().map(l -> l[coluna]).distinct().count();
+    }
+
+    private Map<Tabela, List<Object[]>> gerar(GeradorDeDados.Parametros parametros) {
+        var linhas = new EnumMap<Tabela, List<Object[]>>(Tabela.class);
+        new GeradorDeDados(parametros).gerar(new DestinoDosDados() {
+            @Override
+            public void gravar(Tabela tabela, Object[] linha) {
+                linhas.computeIfAbsent(tabela, t -> new ArrayList<>()).add(linha);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        return linhas;
+    }
+}
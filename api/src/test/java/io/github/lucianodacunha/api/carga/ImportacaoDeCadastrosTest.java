@@ -0,0 +1,176 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.model.DadosCadastroMedico;
+import io.github.lucianodacunha.api.model.DadosEndereco;
+import io.github.lucianodacunha.api.model.DadosErroImportacao;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.FormatoArquivo;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.service.ImportacaoDeCadastrosService;
+import io.github.lucianodacunha.api.service.IndiceDeOcupacaoDeHorarios;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Importação em lote sobre a massa de carga: relatório por registro e
+ * registros por segundo em comparação com um cadastro por requisição
+ * (validação, save e registro no índice de ocupação, numa transação cada,
+ * como no POST /medicos).
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("carga")
+class ImportacaoDeCadastrosTest {
+
+    private static final int REGISTROS = 2_000;
+
+    private static final String CABECALHO_MEDICOS = "nome,email,telefone,crm,especialidade,logradouro,bairro,cep,cidade,uf,complemento,numero\n";
+
+    @Autowired
+    private ImportacaoDeCadastrosService importacao;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment ambiente;
+
+    @BeforeEach
+    void setUp() {
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(MassaDeCarga.parametros(ambiente));
+        }
+    }
+
+    @Test
+    @DisplayName("Importacao deveria gravar os registros validos e relatar os recusados")
+    void relatorio() throws IOException {
+        var crmCadastrado = jdbc.queryForObject("select min(crm) from medicos", String.class);
+        var csv = CABECALHO_MEDICOS
+                + "\"Ana Souza, Jr.\",ana.importada@voll.med,61999990001,700001,CARDIOLOGIA,rua 1,bairro,70000000,Brasilia,DF,,\n"
+                + "Bruno Lima,bruno.importado@voll.med,61999990002,7,ORTOPEDIA,rua 2,bairro,70000000,Brasilia,DF,,\n"
+                + "Carla Dias,carla.importada@voll.med,61999990003,700001,ORTOPEDIA,rua 3,bairro,70000000,Brasilia,DF,,\n"
+                + "Davi Reis,davi.importado@voll.med,61999990004," + crmCadastrado + ",ORTOPEDIA,rua 4,bairro,70000000,Brasilia,DF,,\n"
+                + "Eva Melo,eva.importada@voll.med,61999990005,700005,PEDIATRA,rua 5,bairro,70000000,Brasilia,DF,,\n"
+                + "Fabio Rocha,fabio.importado@voll.med,61999990006,700006,GINECOLOGIA,\"rua 6\nfundos\",bairro,70000000,Brasilia,DF,casa,10\n";
+
+        var relatorio = importacao.importarMedicos(FormatoArquivo.CSV, entrada(csv));
+
+        assertThat(relatorio.lidos()).isEqualTo(6);
+        assertThat(relatorio.importados()).isEqualTo(2);
+        assertThat(relatorio.erros()).extracting(DadosErroImportacao::linha).containsExactly(3L, 4L, 5L, 6L);
+        // a mensagem da Bean Validation depende do locale
+        assertThat(relatorio.erros().get(0).erro()).startsWith("crm: ");
+        assertThat(relatorio.erros()).extracting(DadosErroImportacao::erro).endsWith(
+                "crm: repetido no arquivo (linha 2)",
+                "crm: já cadastrado",
+                "especialidade: valor inválido");
+        assertThat(jdbc.queryForObject("select nome from medicos where crm = '700001'", String.class)).isEqualTo("Ana Souza, Jr.");
+        assertThat(jdbc.queryForObject("select logradouro from medicos where crm = '700006'", String.class)).isEqualTo("rua 6\nfundos");
+    }
+
+    @Test
+    @DisplayName("Importacao de pacientes em NDJSON deveria recusar cpf ja cadastrado")
+    void pacientesNdjson() throws IOException {
+        var cpfCadastrado = jdbc.queryForObject("select min(cpf) from pacientes", String.class);
+        var ndjson = paciente("Gil Alves", "gil.importado@voll.med", "61988880001", "52998224725") + "\n"
+                + paciente("Hana Neri", "hana.importada@voll.med", "61988880002", cpfCadastrado) + "\n"
+                + "{\"nome\": \n";
+
+        var relatorio = importacao.importarPacientes(FormatoArquivo.NDJSON, entrada(ndjson));
+
+        assertThat(relatorio.importados()).isEqualTo(1);
+        assertThat(relatorio.erros()).extracting(DadosErroImportacao::erro)
+                .first().isEqualTo("cpf: já cadastrado");
+        assertThat(relatorio.erros().get(1).erro()).startsWith("JSON inválido");
+    }
+
+    @Test
+    @DisplayName("Importacao deveria gravar mais registros por segundo que o cadastro por requisicao")
+    void compararComCadastroPorRequisicao() throws IOException {
+        var transacao = new TransactionTemplate(transactionManager);
+        var inicio = System.nanoTime();
+        for (int i = 0; i < REGISTROS; i++) {
+            var dados = medico(800_000 + i);
+            assertThat(validator.validate(dados)).isEmpty();
+            transacao.executeWithoutResult(status -> {
+                var medico = medicoRepository.save(new Medico(dados));
+                indiceDeOcupacao.registrarMedico(medico.getId(), medico.getEspecialidade());
+            });
+        }
+        var porRequisicao = REGISTROS / ((System.nanoTime() - inicio) / 1e9);
+
+        var csv = CABECALHO_MEDICOS + IntStream.range(0, REGISTROS)
+                .mapToObj(i -> linhaCsv(medico(900_000 + i)))
+                .collect(Collectors.joining());
+        inicio = System.nanoTime();
+        var relatorio = importacao.importarMedicos(FormatoArquivo.CSV, entrada(csv));
+        var emLote = REGISTROS / ((System.nanoTime() - inicio) / 1e9);
+
+        System.out.printf("%nCadastro de %d medicos%n", REGISTROS);
+        System.out.printf("%-22s %12s%n", "caminho", "registros/s");
+        System.out.printf("%-22s %12.0f%n", "POST por registro", porRequisicao);
+        System.out.printf("%-22s %12.0f%n", "importacao em lote", emLote);
+
+        assertThat(relatorio.importados()).isEqualTo(REGISTROS);
+        assertThat(emLote).isGreaterThan(porRequisicao);
+    }
+
+    private DadosCadastroMedico medico(int crm) {
+        return new DadosCadastroMedico("Medico " + crm, "medico.%d@importacao.voll.med".formatted(crm), "61%09d".formatted(crm),
+                String.valueOf(crm), Especialidade.values()[crm % Especialidade.values().length],
+                new DadosEndereco("rua " + crm, "bairro", "70000000", "Brasilia", "DF", null, null));
+    }
+
+    private String linhaCsv(DadosCadastroMedico m) {
+        var e = m.endereco();
+        return String.join(",", m.nome(), m.email(), m.telefone(), m.crm(), m.especialidade().name(),
+                e.logradouro(), e.bairro(), e.cep(), e.cidade(), e.uf(), "", "") + "\n";
+    }
+
+    private String paciente(String nome, String email, String telefone, String cpf) {
+        return """
+                {"nome": "%s", "email": "%s", "telefone": "%s", "cpf": "%s", "endereco": {"logradouro": "rua", "bairro": "bairro", "cep": "70000000", "cidade": "Brasilia", "uf": "DF"}}"""
+                .formatted(nome, email, telefone, cpf);
+    }
+
+    private ByteArrayInputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
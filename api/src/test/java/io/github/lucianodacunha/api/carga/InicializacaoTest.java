@@ -0,0 +1,257 @@
+package io.github.lucianodacunha.api.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.ApiApplication;
+import io.github.lucianodacunha.api.infra.inicializacao.RelatorioDeInicializacao;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tempo até a primeira requisição: sobe a API em outra JVM, como em
+ * produção, e mede do início do processo até a primeira resposta do
+ * POST /login (credenciais inválidas; basta não ser 5xx, e a autenticação
+ * já passa pelo banco). Cada modo roda carga.inicializacao.repeticoes vezes
+ * e vale a mediana:
+ *
+ * - padrao: perfil carga;
+ * - inicio-rapido: perfis carga e inicio-rapido (sem springdoc);
+ * - inicio-rapido + cds: o mesmo com um arquivo de class-data sharing da
+ *   aplicação, gerado antes numa execução de treino (-XX:ArchiveClassesAtExit);
+ * - aot: só quando target/classes tem o código gerado pelo perfil aot do
+ *   Maven (mvn -Paot package -DskipTests -Dspring-boot.aot.perfis=carga),
+ *   com -Dspring.aot.enabled=true.
+ *
+ * O CDS não aceita diretórios não vazios no classpath, então target/classes
+ * e target/test-classes são empacotados em jars em target/inicializacao,
+ * e todos os modos usam esse mesmo classpath.
+ */
+@Tag("carga")
+class InicializacaoTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Path DIRETORIO = Path.of("target", "inicializacao");
+    private static final Duration LIMITE = Duration.ofMinutes(3);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    @DisplayName("Perfil inicio-rapido deveria atender a primeira requisicao e exportar a linha do tempo")
+    void compararModos() throws Exception {
+        Files.createDirectories(DIRETORIO);
+        var classpath = classpathEmJars();
+        var repeticoes = Integer.parseInt(propriedadesDeCarga().getProperty("carga.inicializacao.repeticoes", "3"));
+
+        var arquivoCds = DIRETORIO.resolve("api.jsa").toAbsolutePath();
+        Files.deleteIfExists(arquivoCds);
+        medir(classpath, "treino-cds", "carga,inicio-rapido", List.of("-XX:ArchiveClassesAtExit=" + arquivoCds));
+        assertThat(arquivoCds).exists();
+
+        var modos = new LinkedHashMap<String, List<String>>();
+        modos.put("padrao", List.of());
+        modos.put("inicio-rapido", List.of());
+        modos.put("inicio-rapido + cds", List.of("-XX:SharedArchiveFile=" + arquivoCds));
+        var comAot = ApiApplication.class.getResource("ApiApplication__ApplicationContextInitializer.class") != null;
+        if (comAot) {
+            modos.put("aot", List.of("-Dspring.aot.enabled=true"));
+        }
+
+        var resultados = new LinkedHashMap<String, List<Medicao>>();
+        for (int i = 0; i < repeticoes; i++) {
+            for (var modo : modos.entrySet()) {
+                var perfis = modo.getKey().startsWith("inicio-rapido") ? "carga,inicio-rapido" : "carga";
+                resultados.computeIfAbsent(modo.getKey(), m -> new ArrayList<>())
+                        .add(medir(classpath, modo.getKey(), perfis, modo.getValue()));
+            }
+        }
+
+        System.out.printf("%nTempo ate a primeira requisicao (mediana de %d)%n", repeticoes);
+        System.out.printf("%-20s %14s %12s %8s%n", "modo", "1a resposta ms", "pronto ms", "passos");
+        resultados.forEach((modo, medicoes) -> System.out.printf("%-20s %14d %12d %8d%n",
+                modo,
+                mediana(medicoes.stream().map(Medicao::primeiraRespostaMs)),
+                mediana(medicoes.stream().map(Medicao::prontoMs)),
+                medicoes.get(0).passos()));
+        if (!comAot) {
+            System.out.println("(aot não medido: gere com mvn -Paot package -DskipTests -Dspring-boot.aot.perfis=carga)");
+        }
+
+        assertThat(resultados.values()).allSatisfy(medicoes -> assertThat(medicoes).allSatisfy(m -> {
+            assertThat(m.status()).isLessThan(500);
+            assertThat(m.passos()).isPositive();
+        }));
+    }
+
+    private Medicao medir(String classpath, String modo, String perfis, List<String> opcoesDaJvm) throws Exception {
+        var porta = portaLivre();
+        var nome = modo.replaceAll("[^a-z0-9]+", "-");
+        var relatorio = DIRETORIO.resolve(nome + ".json").toAbsolutePath();
+        Files.deleteIfExists(relatorio);
+
+        var comando = new ArrayList<String>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(opcoesDaJvm);
+        // o devtools está no classpath de teste e reiniciaria a aplicação num classloader próprio
+        comando.add("-Dspring.devtools.restart.enabled=false");
+        comando.addAll(List.of("-cp", classpath, ApiApplication.class.getName(),
+                "--spring.profiles.active=" + perfis,
+                "--server.port=" + porta,
+                "--api.inicializacao.relatorio=" + relatorio,
+                "--logging.level." + RelatorioDeInicializacao.class.getName() + "=INFO"));
+
+        var inicio = System.nanoTime();
+        var processo = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(DIRETORIO.resolve(nome + ".log").toFile())
+                .start();
+        try {
+            var status = primeiraResposta(processo, porta);
+            var primeiraRespostaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+            // o relatório é gravado no ApplicationReadyEvent, que pode chegar depois da primeira resposta
+            var fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!Files.exists(relatorio) && System.nanoTime() < fim) {
+                Thread.sleep(50);
+            }
+            Thread.sleep(200);
+            var linhaDoTempo = MAPPER.readTree(relatorio.toFile());
+            return new Medicao(status, primeiraRespostaMs, linhaDoTempo.get("prontoEmMs").asLong(), linhaDoTempo.get("passos").size());
+        } finally {
+            // SIGTERM: o desligamento normal é o que grava o arquivo do CDS
+            processo.destroy();
+            if (!processo.waitFor(60, TimeUnit.SECONDS)) {
+                processo.destroyForcibly();
+            }
+        }
+    }
+
+    private int primeiraResposta(Process processo, int porta) throws Exception {
+        var requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"login\":\"inexistente@voll.med\",\"senha\":\"x\"}"))
+                .build();
+        var fim = System.nanoTime() + LIMITE.toNanos();
+        while (System.nanoTime() < fim) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("A API terminou com código " + processo.exitValue() + "; veja " + DIRETORIO);
+            }
+            try {
+                return http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (ConnectException ex) {
+                Thread.sleep(10);
+            }
+        }
+        throw new IllegalStateException("A API não respondeu em " + LIMITE);
+    }
+
+    /**
+     * Classpath do teste com os diretórios trocados por jars. O surefire
+     * costuma passar um único jar cujo manifesto lista o classpath real.
+     */
+    private String classpathEmJars() throws IOException {
+        var entradas = new ArrayList<Path>();
+        for (var entrada : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            entradas.addAll(expandir(Path.of(entrada)));
+        }
+
+        var classpath = new ArrayList<String>();
+        for (var entrada : entradas) {
+            if (Files.isDirectory(entrada)) {
+                var jar = DIRETORIO.resolve(entrada.getFileName() + ".jar").toAbsolutePath();
+                empacotar(entrada, jar);
+                classpath.add(jar.toString());
+            } else if (Files.exists(entrada)) {
+                classpath.add(entrada.toAbsolutePath().toString());
+            }
+        }
+        return String.join(File.pathSeparator, classpath);
+    }
+
+    private List<Path> expandir(Path entrada) throws IOException {
+        if (!entrada.toString().endsWith(".jar") || !Files.isRegularFile(entrada)) {
+            return List.of(entrada);
+        }
+        try (var jar = new JarFile(entrada.toFile())) {
+            var manifesto = jar.getManifest();
+            var classPath = manifesto == null ? null : manifesto.getMainAttributes().getValue("Class-Path");
+            if (classPath == null || jar.stream().anyMatch(e -> e.getName().endsWith(".class"))) {
+                return List.of(entrada);
+            }
+            var base = entrada.toUri();
+            return Arrays.stream(classPath.trim().split("\\s+"))
+                    .map(url -> Path.of(base.resolve(url)))
+                    .toList();
+        }
+    }
+
+    private void empacotar(Path diretorio, Path jar) throws IOException {
+        try (var saida = new JarOutputStream(Files.newOutputStream(jar));
+             var arquivos = Files.walk(diretorio)) {
+            // com as entradas de diretório, sem as quais a varredura de componentes e o Flyway não acham nada
+            arquivos.filter(arquivo -> !arquivo.equals(diretorio)).sorted().forEach(arquivo -> {
+                var nome = diretorio.relativize(arquivo).toString().replace(File.separatorChar, '/');
+                try {
+                    if (Files.isDirectory(arquivo)) {
+                        saida.putNextEntry(new JarEntry(nome + "/"));
+                    } else {
+                        saida.putNextEntry(new JarEntry(nome));
+                        Files.copy(arquivo, saida);
+                    }
+                    saida.closeEntry();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    private Properties propriedadesDeCarga() throws IOException {
+        var propriedades = new Properties();
+        try (var entrada = getClass().getResourceAsStream("/application-carga.properties")) {
+            propriedades.load(entrada);
+        }
+        return propriedades;
+    }
+
+    private static int portaLivre() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long mediana(Stream<Long> valores) {
+        var ordenados = valores.sorted().toList();
+        return ordenados.get(ordenados.size() / 2);
+    }
+
+    private record Medicao(int status, long primeiraRespostaMs, long prontoMs, int passos) {}
+}
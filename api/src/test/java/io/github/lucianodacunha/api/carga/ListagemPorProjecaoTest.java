@@ -0,0 +1,114 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.model.DadosListagemMedico;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara, por página da listagem de médicos, a consulta antiga (entidades
+ * Medico completas, depois convertidas em DadosListagemMedico) com a
+ * projeção direta no record: latência média e bytes alocados pela thread.
+ * Cada página roda em uma transação, como numa requisição, para incluir o
+ * custo do contexto de persistência.
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("carga")
+class ListagemPorProjecaoTest {
+
+    private static final int TAMANHO_PAGINA = 20;
+    private static final int REPETICOES = 2_000;
+
+    @Autowired
+    private MedicoRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment ambiente;
+
+    private GeradorDeDados.Parametros parametros;
+
+    @BeforeEach
+    void setUp() {
+        parametros = MassaDeCarga.parametros(ambiente);
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(parametros);
+        }
+    }
+
+    @Test
+    @DisplayName("Projecao direta deveria alocar menos por pagina que a listagem por entidades")
+    void compararListagens() {
+        var ativos = Example.of(new Medico(null, null, null, null, null, null, null, true));
+        var paginas = repository.findListagemDosAtivos(PageRequest.of(0, TAMANHO_PAGINA)).getTotalPages() - 1;
+
+        IntFunction<Page<DadosListagemMedico>> porEntidade = pagina -> repository
+                .findAll(ativos, PageRequest.of(pagina, TAMANHO_PAGINA, Sort.by("nome")))
+                .map(DadosListagemMedico::new);
+        IntFunction<Page<DadosListagemMedico>> porProjecao = pagina -> repository
+                .findListagemDosAtivos(PageRequest.of(pagina, TAMANHO_PAGINA, Sort.by("nome")));
+
+        medir(porEntidade, paginas);
+        medir(porProjecao, paginas);
+        var entidade = medir(porEntidade, paginas);
+        var projecao = medir(porProjecao, paginas);
+
+        System.out.printf("%nListagem de medicos, paginas de %d (%d repeticoes)%n", TAMANHO_PAGINA, REPETICOES);
+        System.out.printf("%-10s %12s %14s%n", "consulta", "us/pagina", "bytes/pagina");
+        System.out.printf("%-10s %12.1f %14d%n", "entidade", entidade.microssegundos(), entidade.bytes());
+        System.out.printf("%-10s %12.1f %14d%n", "projecao", projecao.microssegundos(), projecao.bytes());
+
+        assertThat(projecao.bytes()).isLessThan(entidade.bytes());
+    }
+
+    private Medida medir(IntFunction<Page<DadosListagemMedico>> listagem, int paginas) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+
+        var threadId = Thread.currentThread().getId();
+        var bytesAntes = threads.getThreadAllocatedBytes(threadId);
+        var inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            var pagina = i % paginas;
+            var resultado = transacao.execute(status -> listagem.apply(pagina));
+            assertThat(resultado.getContent()).hasSize(TAMANHO_PAGINA);
+        }
+        var duracao = System.nanoTime() - inicio;
+        var bytes = threads.getThreadAllocatedBytes(threadId) - bytesAntes;
+
+        return new Medida(duracao / 1000.0 / REPETICOES, bytes / REPETICOES);
+    }
+
+    private record Medida(double microssegundos, long bytes) {}
+}
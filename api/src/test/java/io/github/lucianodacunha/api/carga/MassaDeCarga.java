@@ -0,0 +1,59 @@
+package io.github.lucianodacunha.api.carga;
+
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+
+/**
+ * Popula o banco da suíte de carga: o usuário de login e a massa do
+ * GeradorDeDados, gravada com JDBC batch.
+ */
+class MassaDeCarga {
+
+    static final String LOGIN = "carga@voll.med";
+    static final String SENHA = "carga123";
+
+    private static final int TAMANHO_DO_BATCH = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final PasswordEncoder passwordEncoder;
+
+    MassaDeCarga(JdbcTemplate jdbc, PasswordEncoder passwordEncoder) {
+        this.jdbc = jdbc;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Parâmetros da massa a partir das propriedades carga.* (ver
+     * application-carga.properties). As consultas começam depois de amanhã
+     * para que possam ser canceladas (antecedência de 24h).
+     */
+    static GeradorDeDados.Parametros parametros(Environment ambiente) {
+        return new GeradorDeDados.Parametros(
+                ambiente.getRequiredProperty("carga.semente", Long.class),
+                ambiente.getRequiredProperty("carga.escala", Double.class),
+                ambiente.getRequiredProperty("carga.assimetria-especialidades", Double.class),
+                ambiente.getRequiredProperty("carga.assimetria-medicos", Double.class),
+                LocalDate.now().plusDays(2),
+                ambiente.getRequiredProperty("carga.dias-de-agenda", Integer.class),
+                ambiente.getRequiredProperty("carga.percentual-inativos", Double.class),
+                ambiente.getRequiredProperty("carga.percentual-canceladas", Double.class));
+    }
+
+    boolean populado() {
+        return jdbc.queryForObject("select count(*) from usuarios where login = ?", Long.class, LOGIN) > 0;
+    }
+
+    GeradorDeDados.Resumo popular(GeradorDeDados.Parametros parametros) {
+        jdbc.update("insert into usuarios (login, senha) values (?, ?)", LOGIN, passwordEncoder.encode(SENHA));
+
+        GeradorDeDados.Resumo resumo;
+        try (var destino = new DestinoJdbc(jdbc, TAMANHO_DO_BATCH)) {
+            resumo = new GeradorDeDados(parametros).gerar(destino);
+        }
+        jdbc.update("update consultas_seq set next_val = ?", resumo.consultas() + 1);
+        return resumo;
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.lucianodacunha.api.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.ApiApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compara o pool de threads de plataforma do Tomcat com o modo de threads
+ * virtuais (api.threads.virtuais.habilitado) sob muitas conexões
+ * simultâneas: sobe a API duas vezes, uma em cada modo, e dispara listagens
+ * de médicos e pacientes com carga.threads.conexoes clientes ao mesmo tempo.
+ * Imprime vazão e p50/p99/p99.9 de cada modo.
+ *
+ * Threads virtuais exigem Java 21; em JVMs anteriores só o modo de plataforma
+ * é medido e o teste termina como ignorado.
+ */
+@Tag("carga")
+class ModoDeThreadsTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    @DisplayName("Threads virtuais deveriam atender muitas conexoes sem erros alem das recusas do limite")
+    void compararModos() throws Exception {
+        var resultados = new LinkedHashMap<String, List<RegistroDeLatencias.ResultadoDoEndpoint>>();
+
+        resultados.put("plataforma", medir(false));
+        imprimir(resultados);
+
+        assumeTrue(Runtime.version().feature() >= 21, "threads virtuais exigem Java 21 (JVM atual: " + Runtime.version() + ")");
+        resultados.put("virtuais", medir(true));
+        imprimir(resultados);
+
+        assertThat(resultados.values()).allSatisfy(endpoints -> assertThat(endpoints).allSatisfy(r -> {
+            assertThat(r.erros()).as("erros em %s", r.endpoint()).isZero();
+            assertThat(r.sucessos()).as("sucessos em %s", r.endpoint()).isPositive();
+        }));
+    }
+
+    private List<RegistroDeLatencias.ResultadoDoEndpoint> medir(boolean threadsVirtuais) throws Exception {
+        try (var contexto = iniciar(threadsVirtuais)) {
+            var ambiente = contexto.getEnvironment();
+            var parametros = MassaDeCarga.parametros(ambiente);
+            var massa = new MassaDeCarga(contexto.getBean(JdbcTemplate.class), contexto.getBean(PasswordEncoder.class));
+            if (!massa.populado()) {
+                massa.popular(parametros);
+            }
+
+            var carga = new Carga(
+                    "http://localhost:" + ambiente.getRequiredProperty("local.server.port", Integer.class),
+                    ambiente.getRequiredProperty("carga.threads.conexoes", Integer.class),
+                    ambiente.getRequiredProperty("carga.semente", Long.class));
+            carga.login();
+
+            carga.executar(new RegistroDeLatencias(), ambiente.getRequiredProperty("carga.threads.aquecimento-segundos", Integer.class));
+            var registro = new RegistroDeLatencias();
+            var inicio = System.nanoTime();
+            carga.executar(registro, ambiente.getRequiredProperty("carga.threads.duracao-segundos", Integer.class));
+            return registro.resultados((System.nanoTime() - inicio) / 1e9);
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(boolean threadsVirtuais) {
+        return new SpringApplicationBuilder(ApiApplication.class)
+                .profiles("carga")
+                .properties(
+                        "server.port=0",
+                        "api.threads.virtuais.habilitado=" + threadsVirtuais)
+                .run();
+    }
+
+    private void imprimir(Map<String, List<RegistroDeLatencias.ResultadoDoEndpoint>> resultados) {
+        System.out.printf("%nModos de threads%n");
+        System.out.printf("%-11s %-22s %10s %8s %8s %6s %9s %9s %9s %9s%n",
+                "modo", "endpoint", "requisicoes", "sucesso", "recusa", "erro", "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+        resultados.forEach((modo, endpoints) -> endpoints.forEach(r ->
+                System.out.printf("%-11s %-22s %10d %8d %8d %6d %9.1f %9.2f %9.2f %9.2f%n",
+                        modo, r.endpoint(), r.requisicoes(), r.sucessos(), r.recusas(), r.erros(),
+                        r.requisicoesPorSegundo(), r.p50Ms(), r.p99Ms(), r.p999Ms())));
+    }
+
+    private static class Carga {
+
+        private final String endereco;
+        private final int conexoes;
+        private final long semente;
+        private final HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        private String token;
+
+        Carga(String endereco, int conexoes, long semente) {
+            this.endereco = endereco;
+            this.conexoes = conexoes;
+            this.semente = semente;
+        }
+
+        void login() throws Exception {
+            var corpo = MAPPER.writeValueAsString(Map.of("login", MassaDeCarga.LOGIN, "senha", MassaDeCarga.SENHA));
+            var resposta = http.send(requisicao("/login").POST(HttpRequest.BodyPublishers.ofString(corpo)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(resposta.statusCode()).isEqualTo(200);
+            token = MAPPER.readTree(resposta.body()).get("token").asText();
+        }
+
+        void executar(RegistroDeLatencias registro, int segundos) throws Exception {
+            var fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+            var executor = Executors.newFixedThreadPool(conexoes);
+            try {
+                var clientes = new ArrayList<Future<?>>();
+                for (int i = 0; i < conexoes; i++) {
+                    var random = new Random(semente + i);
+                    clientes.add(executor.submit(() -> {
+                        while (System.nanoTime() < fim) {
+                            if (random.nextBoolean()) {
+                                enviar(registro, "GET /medicos", "/medicos?page=" + random.nextInt(50) + "&size=20");
+                            } else {
+                                enviar(registro, "GET /pacientes?cursor", "/pacientes?tamanho=20&cursor=");
+                            }
+                        }
+                    }));
+                }
+                for (var cliente : clientes) {
+                    cliente.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void enviar(RegistroDeLatencias registro, String endpoint, String caminho) {
+            var inicio = System.nanoTime();
+            try {
+                var resposta = http.send(requisicao(caminho).GET().build(), HttpResponse.BodyHandlers.discarding());
+                registro.registrar(endpoint, System.nanoTime() - inicio, resposta.statusCode());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                registro.registrarFalha(endpoint);
+            }
+        }
+
+        private HttpRequest.Builder requisicao(String caminho) {
+            var builder = HttpRequest.newBuilder(URI.create(endereco + caminho))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json");
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package io.github.lucianodacunha.api.carga;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosEventoOutbox;
+import io.github.lucianodacunha.api.model.MotivoCancelamento;
+import io.github.lucianodacunha.api.model.TipoEvento;
+import io.github.lucianodacunha.api.service.AgendaDeConsultasService;
+import io.github.lucianodacunha.api.service.DespachanteDeEventos;
+import io.github.lucianodacunha.api.service.DestinoDeEventosEmMemoria;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox de eventos de consultas com o destino em memória. O despachante
+ * agendado fica praticamente parado (intervalo de uma hora) e o teste chama
+ * despachar() quando quer publicar. Lotes de dois eventos, para que poucos
+ * agregados já ocupem mais de um lote, e duas tentativas por evento.
+ */
+@Tag("carga")
+@SpringBootTest(properties = {
+        "api.outbox.destino-em-memoria.habilitado=true",
+        "api.outbox.intervalo-ms=3600000",
+        "api.outbox.tamanho-lote=2",
+        "api.outbox.espera-inicial-ms=0",
+        "api.outbox.maximo-tentativas=2",
+        "api.outbox.timeout-ms=500"})
+@ActiveProfiles("carga")
+class OutboxDeEventosTest {
+
+    @Autowired
+    private AgendaDeConsultasService agendaDeConsultas;
+
+    @Autowired
+    private DespachanteDeEventos despachante;
+
+    @Autowired
+    private DestinoDeEventosEmMemoria destino;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment ambiente;
+
+    private TransactionTemplate transacao;
+    private Long idMedico;
+    private Long idPaciente;
+    private LocalDate segunda;
+
+    @BeforeEach
+    void setUp() {
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(MassaDeCarga.parametros(ambiente));
+        }
+
+        transacao = new TransactionTemplate(transactionManager);
+        idMedico = jdbc.queryForObject("select id from medicos where ativo = 1 order by id limit 1 offset 1", Long.class);
+        idPaciente = jdbc.queryForObject("select id from pacientes where ativo = 1 order by id desc limit 1 offset 1", Long.class);
+        // depois da massa de carga e dos dias usados pelos outros testes
+        segunda = LocalDate.now().plusYears(3).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        // publica o que outros testes deixaram pendente no mesmo banco
+        despachante.despachar();
+        destino.limpar();
+    }
+
+    @Test
+    @DisplayName("Agendamento e cancelamento deveriam ser publicados em ordem depois do commit")
+    void publicarEmOrdem() {
+        var idConsulta = agendarECancelar(segunda);
+        assertThat(doAgregado(idConsulta)).isEmpty();
+
+        despachante.despachar();
+
+        assertThat(doAgregado(idConsulta)).extracting(DadosEventoOutbox::tipo)
+                .containsExactly(TipoEvento.CONSULTA_AGENDADA, TipoEvento.CONSULTA_CANCELADA);
+        assertThat(doAgregado(idConsulta).get(0).conteudo()).contains("\"idMedico\":" + idMedico);
+        assertThat(meterRegistry.get("api.outbox.pendentes").gauge().value()).isZero();
+        assertThat(meterRegistry.get("api.outbox.atraso").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Falha na publicacao deveria segurar os eventos seguintes do mesmo agregado")
+    void segurarAgregadoAteNovaTentativa() {
+        var idConsulta = agendarECancelar(segunda.plusDays(1));
+
+        destino.falharNasProximas(1);
+        despachante.despachar();
+        assertThat(doAgregado(idConsulta)).isEmpty();
+        Integer tentativas = jdbc.queryForObject("select tentativas from eventos_outbox where agregado_id = ? and tipo = 'CONSULTA_AGENDADA'",
+                Integer.class, idConsulta);
+        assertThat(tentativas).isEqualTo(1);
+
+        despachante.despachar();
+        assertThat(doAgregado(idConsulta)).extracting(DadosEventoOutbox::tipo)
+                .containsExactly(TipoEvento.CONSULTA_AGENDADA, TipoEvento.CONSULTA_CANCELADA);
+    }
+
+    @Test
+    @DisplayName("Agregados esperando nova tentativa nao deveriam segurar os demais, mesmo ocupando um lote inteiro")
+    void passarPelosAgregadosBloqueados() {
+        var bloqueados = List.of(agendarECancelar(segunda.plusDays(3)), agendarECancelar(segunda.plusDays(4)));
+        var livre = agendarECancelar(segunda.plusDays(5));
+
+        destino.falharNasProximas(2);
+        despachante.despachar();
+
+        assertThat(doAgregado(livre)).extracting(DadosEventoOutbox::tipo)
+                .containsExactly(TipoEvento.CONSULTA_AGENDADA, TipoEvento.CONSULTA_CANCELADA);
+        assertThat(bloqueados).allSatisfy(idConsulta -> assertThat(doAgregado(idConsulta)).isEmpty());
+
+        despachante.despachar();
+        assertThat(bloqueados).allSatisfy(idConsulta -> assertThat(doAgregado(idConsulta)).extracting(DadosEventoOutbox::tipo)
+                .containsExactly(TipoEvento.CONSULTA_AGENDADA, TipoEvento.CONSULTA_CANCELADA));
+    }
+
+    @Test
+    @DisplayName("Evento sem mais tentativas deveria ficar descartado e segurar os seguintes do agregado")
+    void descartar() {
+        var idConsulta = agendarECancelar(segunda.plusWeeks(2));
+
+        destino.falharNasProximas(2);
+        despachante.despachar();
+        despachante.despachar();
+        despachante.despachar();
+
+        assertThat(doAgregado(idConsulta)).isEmpty();
+        assertThat(jdbc.queryForList("select descartado_em is not null from eventos_outbox where agregado_id = ? order by sequencia",
+                Boolean.class, idConsulta)).containsExactly(true, false);
+        assertThat(meterRegistry.get("api.outbox.descartados").gauge().value()).isPositive();
+
+        jdbc.update("delete from eventos_outbox where agregado_id = ?", idConsulta);
+    }
+
+    @Test
+    @DisplayName("Destino que passa do timeout deveria contar como falha e o evento ser tentado de novo")
+    void timeout() {
+        var idConsulta = agendarECancelar(segunda.plusWeeks(2).plusDays(1));
+
+        destino.demorarNasProximas(1, 2000);
+        despachante.despachar();
+        assertThat(jdbc.queryForObject("select ultimo_erro from eventos_outbox where agregado_id = ? and sequencia = 1",
+                String.class, idConsulta)).contains("não respondeu");
+
+        despachante.despachar();
+        assertThat(doAgregado(idConsulta)).extracting(DadosEventoOutbox::tipo)
+                .containsExactly(TipoEvento.CONSULTA_AGENDADA, TipoEvento.CONSULTA_CANCELADA);
+    }
+
+    @Test
+    @DisplayName("Eventos do mesmo agregado deveriam receber sequencias crescentes")
+    void sequenciaPorAgregado() {
+        var idConsulta = agendarECancelar(segunda.plusWeeks(1));
+
+        assertThat(jdbc.queryForList("select sequencia from eventos_outbox where agregado_id = ? order by sequencia",
+                Integer.class, idConsulta)).containsExactly(1, 2);
+    }
+
+    @Test
+    @DisplayName("Evento de agendamento desfeito nao deveria ficar no outbox")
+    void rollback() {
+        var eventosAntes = jdbc.queryForObject("select count(*) from eventos_outbox", Long.class);
+
+        transacao.executeWithoutResult(status -> {
+            agendaDeConsultas.agendar(new DadosAgendamentoConsulta(idMedico, idPaciente, segunda.plusDays(2).atTime(10, 0), null));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbc.queryForObject("select count(*) from eventos_outbox", Long.class)).isEqualTo(eventosAntes);
+    }
+
+    private Long agendarECancelar(LocalDate dia) {
+        var consulta = transacao.execute(s -> agendaDeConsultas.agendar(
+                new DadosAgendamentoConsulta(idMedico, idPaciente, dia.atTime(9, 0), null)));
+        transacao.executeWithoutResult(s -> agendaDeConsultas.cancelar(
+                new DadosCancelamentoConsulta(consulta.id(), MotivoCancelamento.PACIENTE_DESISTIU)));
+        return consulta.id();
+    }
+
+    private List<DadosEventoOutbox> doAgregado(Long idConsulta) {
+        return destino.getRecebidos().stream().filter(e -> e.idAgregado().equals(idConsulta)).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.lucianodacunha.api.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências por endpoint em histogramas HdrHistogram (microssegundos, três
+ * dígitos de precisão), seguras para gravação concorrente.
+ */
+class RegistroDeLatencias {
+
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Medicao> medicoes = new ConcurrentHashMap<>();
+
+    void registrar(String endpoint, long duracaoEmNanos, int status) {
+        var medicao = medicoes.computeIfAbsent(endpoint, e -> new Medicao());
+        medicao.latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(duracaoEmNanos), LATENCIA_MAXIMA_US));
+        if (status >= 200 && status < 300) {
+            medicao.sucessos.increment();
+        } else if (status == 400 || status == 409 || status == 429 || status == 503) {
+            medicao.recusas.increment();
+        } else {
+            medicao.erros.increment();
+        }
+    }
+
+    void registrarFalha(String endpoint) {
+        medicoes.computeIfAbsent(endpoint, e -> new Medicao()).erros.increment();
+    }
+
+    List<ResultadoDoEndpoint> resultados(double duracaoEmSegundos) {
+        var resultados = new ArrayList<ResultadoDoEndpoint>();
+        medicoes.forEach((endpoint, medicao) -> {
+            Histogram histograma = medicao.latencias.getIntervalHistogram();
+            var requisicoes = medicao.sucessos.sum() + medicao.recusas.sum() + medicao.erros.sum();
+            resultados.add(new ResultadoDoEndpoint(
+                    endpoint,
+                    requisicoes,
+                    medicao.sucessos.sum(),
+                    medicao.recusas.sum(),
+                    medicao.erros.sum(),
+                    requisicoes / duracaoEmSegundos,
+                    emMilissegundos(histograma.getValueAtPercentile(50)),
+                    emMilissegundos(histograma.getValueAtPercentile(99)),
+                    emMilissegundos(histograma.getValueAtPercentile(99.9)),
+                    emMilissegundos(histograma.getMaxValue())));
+        });
+        resultados.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return resultados;
+    }
+
+    private double emMilissegundos(long microssegundos) {
+        return microssegundos / 1000.0;
+    }
+
+    private static class Medicao {
+        private final Recorder latencias = new Recorder(LATENCIA_MAXIMA_US, 3);
+        private final LongAdder sucessos = new LongAdder();
+        private final LongAdder recusas = new LongAdder();
+        private final LongAdder erros = new LongAdder();
+    }
+
+    /**
+     * recusas são respostas esperadas sob carga (400 de regra de negócio,
+     * 409, 429 e o 503 do limite de conexões); erros são as demais, incluindo falhas de conexão.
+     */
+    record ResultadoDoEndpoint(String endpoint,
+                               long requisicoes,
+                               long sucessos,
+                               long recusas,
+                               long erros,
+                               double requisicoesPorSegundo,
+                               double p50Ms,
+                               double p99Ms,
+                               double p999Ms,
+                               double maximoMs) {}
+}
@@ -0,0 +1,92 @@
+package io.github.lucianodacunha.api.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Header Server-Timing com todas as requisições amostradas.
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "api.server-timing.amostragem=1")
+@ActiveProfiles("carga")
+class ServerTimingTest {
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Environment ambiente;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        var massa = new MassaDeCarga(jdbc, passwordEncoder);
+        if (!massa.populado()) {
+            massa.popular(MassaDeCarga.parametros(ambiente));
+        }
+    }
+
+    @Test
+    @DisplayName("Listagem deveria informar autenticacao, comandos SQL e tempo ate a resposta")
+    void listagem() throws Exception {
+        var resposta = http.send(requisicao("/medicos?page=0&size=20").header("Authorization", "Bearer " + login()).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        assertThat(resposta.headers().firstValue("Server-Timing")).hasValueSatisfying(header -> assertThat(header)
+                .containsPattern("auth;dur=\\d+\\.\\d{2}")
+                .containsPattern("sql;dur=\\d+\\.\\d{2};desc=\"[1-9]\\d* comandos\"")
+                .containsPattern("app;dur=\\d+\\.\\d{2}$"));
+    }
+
+    @Test
+    @DisplayName("Resposta de erro do Spring Security deveria receber o header")
+    void respostaDeErro() throws Exception {
+        var resposta = http.send(requisicao("/medicos").GET().build(), HttpResponse.BodyHandlers.discarding());
+
+        assertThat(resposta.statusCode()).isEqualTo(403);
+        assertThat(resposta.headers().firstValue("Server-Timing")).hasValueSatisfying(header ->
+                assertThat(header).matches("app;dur=\\d+\\.\\d{2}"));
+    }
+
+    private String login() throws Exception {
+        var corpo = mapper.writeValueAsString(Map.of("login", MassaDeCarga.LOGIN, "senha", MassaDeCarga.SENHA));
+        var resposta = http.send(requisicao("/login").POST(HttpRequest.BodyPublishers.ofString(corpo)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        return mapper.readTree(resposta.body()).get("token").asText();
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+                .header("Content-Type", "application/json");
+    }
+}
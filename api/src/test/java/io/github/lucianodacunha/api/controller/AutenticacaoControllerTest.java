@@ -0,0 +1,87 @@
+package io.github.lucianodacunha.api.controller;
+
+import io.github.lucianodacunha.api.infra.exception.TratadorDeErros;
+import io.github.lucianodacunha.api.infra.security.LoginExecutorConfigurations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Login com o executor de login saturado: uma thread ocupada e a fila
+ * cheia. O login seguinte deve ser recusado na hora com 429.
+ */
+class AutenticacaoControllerTest {
+
+    private final CountDownLatch liberarExecutor = new CountDownLatch(1);
+
+    private final AuthenticationManager manager = mock(AuthenticationManager.class);
+
+    private ExecutorService executorDeLogin;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        var configuracoes = new LoginExecutorConfigurations();
+        ReflectionTestUtils.setField(configuracoes, "quantidadeDeThreads", 1);
+        ReflectionTestUtils.setField(configuracoes, "tamanhoDaFila", 1);
+        executorDeLogin = configuracoes.executorDeLogin(new SimpleMeterRegistry());
+
+        var controller = new AutenticacaoController();
+        ReflectionTestUtils.setField(controller, "manager", manager);
+        ReflectionTestUtils.setField(controller, "executorDeLogin", executorDeLogin);
+
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new TratadorDeErros())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberarExecutor.countDown();
+        executorDeLogin.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deveria devolver codigo http 429 com Retry-After quando o executor de login estiver saturado")
+    void efetuarLoginCenario1() throws Exception {
+        executorDeLogin.execute(this::aguardarLiberacao);
+        executorDeLogin.execute(this::aguardarLiberacao);
+
+        var response = mvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"login": "ana.souza@voll.med", "senha": "123456"}
+                                """))
+                .andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        verifyNoInteractions(manager);
+    }
+
+    private void aguardarLiberacao() {
+        try {
+            liberarExecutor.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
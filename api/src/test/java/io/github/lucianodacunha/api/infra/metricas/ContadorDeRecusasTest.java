@@ -0,0 +1,65 @@
+package io.github.lucianodacunha.api.infra.metricas;
+
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.validation.agendamento.ContextoAgendamento;
+import io.github.lucianodacunha.api.validation.agendamento.HorarioAntecedenciaValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class ContadorDeRecusasTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ContadorDeRecusas contador = new ContadorDeRecusas();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(contador, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deveria contar as recusas pelo motivo e nao pela mensagem")
+    void registrarCenario1() {
+        contador.registrar(new ValidacaoException(MotivoRecusa.PACIENTE_INEXISTENTE, "Id do paciente 1 não existe!"), "requisicao");
+        contador.registrar(new ValidacaoException(MotivoRecusa.PACIENTE_INEXISTENTE, "Id do paciente 2 não existe!"), "requisicao");
+        contador.registrar(new ValidacaoException(MotivoRecusa.PACIENTE_INEXISTENTE, "Id do paciente 3 não existe!"), "lote");
+
+        assertThat(meterRegistry.find("api.validacao.recusas").counters()).hasSize(2);
+        assertThat(meterRegistry.get("api.validacao.recusas")
+                .tag("motivo", "PACIENTE_INEXISTENTE")
+                .tag("origem", "requisicao")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deveria separar motivos diferentes lancados pelo mesmo validador")
+    void registrarCenario2() {
+        var validador = new HorarioAntecedenciaValidator();
+        var proximoDomingo = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SUNDAY)).atTime(10, 0);
+        for (var data : List.of(LocalDateTime.now(), proximoDomingo)) {
+            var dados = new DadosAgendamentoConsulta(1l, 1l, data, null);
+            contador.registrar(catchThrowableOfType(
+                    () -> validador.validar(new ContextoAgendamento(dados, 1l, true, true, false, false)),
+                    ValidacaoException.class), "requisicao");
+        }
+
+        assertThat(meterRegistry.get("api.validacao.recusas").tag("motivo", "AGENDAMENTO_SEM_ANTECEDENCIA").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("api.validacao.recusas").tag("motivo", "FORA_DO_HORARIO_DE_FUNCIONAMENTO").counter().count())
+                .isEqualTo(1);
+    }
+}
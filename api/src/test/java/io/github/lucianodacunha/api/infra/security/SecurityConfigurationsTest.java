@@ -0,0 +1,41 @@
+package io.github.lucianodacunha.api.infra.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityConfigurationsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deveria gerar hashes com o custo configurado e medir cada hash no timer api.login.hash")
+    void passwordEncoderCenario1() {
+        var configuracoes = new SecurityConfigurations();
+        ReflectionTestUtils.setField(configuracoes, "custoBCrypt", 4);
+        var passwordEncoder = configuracoes.passwordEncoder(meterRegistry);
+
+        var hash = passwordEncoder.encode("123456");
+
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(passwordEncoder.matches("123456", hash)).isTrue();
+        assertThat(meterRegistry.get("api.login.hash").tag("custo", "4").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deveria conferir hashes gravados com outro custo")
+    void passwordEncoderCenario2() {
+        var configuracoes = new SecurityConfigurations();
+        ReflectionTestUtils.setField(configuracoes, "custoBCrypt", 4);
+        var passwordEncoder = configuracoes.passwordEncoder(meterRegistry);
+
+        var hashComCusto5 = new BCryptPasswordEncoder(5).encode("123456");
+
+        assertThat(passwordEncoder.matches("123456", hashComCusto5)).isTrue();
+        assertThat(passwordEncoder.matches("outra", hashComCusto5)).isFalse();
+    }
+}
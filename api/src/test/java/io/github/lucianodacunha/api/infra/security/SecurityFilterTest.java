@@ -0,0 +1,81 @@
+package io.github.lucianodacunha.api.infra.security;
+
+import io.github.lucianodacunha.api.entity.Usuario;
+import io.github.lucianodacunha.api.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SecurityFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TokenService tokenService = new TokenService();
+
+    private final SecurityFilter filtro = new SecurityFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenService, "secret", "12345678");
+        ReflectionTestUtils.setField(tokenService, "tamanhoMaximoDoCache", 100l);
+        ReflectionTestUtils.setField(tokenService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(tokenService, "inicializar");
+
+        ReflectionTestUtils.setField(filtro, "tokenService", tokenService);
+        ReflectionTestUtils.setField(filtro, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filtro, "origemDoPrincipal", "claims");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deveria autenticar pelas claims do token e medir a autenticacao no timer api.security.filtro")
+    void doFilterCenario1() throws Exception {
+        var token = tokenService.gerarToken(new Usuario(7l, "ana.souza@voll.med", "senha"));
+
+        filtro.doFilter(requisicao("Bearer " + token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isInstanceOf(UsuarioAutenticado.class);
+        assertThat(meterRegistry.get("api.security.filtro").tag("autenticacao", "claims").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("api.token").tag("operacao", "verificar").tag("origem", "assinatura").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Token invalido deveria ser medido como invalido")
+    void doFilterCenario2() {
+        assertThatThrownBy(() -> filtro.doFilter(requisicao("Bearer invalido"), new MockHttpServletResponse(), new MockFilterChain()))
+                .hasMessage("Token JWT inválido ou expirado!");
+
+        assertThat(meterRegistry.get("api.security.filtro").tag("autenticacao", "invalido").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Requisicao sem token nao deveria ser medida")
+    void doFilterCenario3() throws Exception {
+        filtro.doFilter(requisicao(null), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(meterRegistry.find("api.security.filtro").timers()).isEmpty();
+    }
+
+    private MockHttpServletRequest requisicao(String authorization) {
+        var requisicao = new MockHttpServletRequest("GET", "/consultas");
+        if (authorization != null) {
+            requisicao.addHeader("Authorization", authorization);
+        }
+        return requisicao;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.lucianodacunha.api.infra.threads;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class LimiteDeConexoesFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Sem permissao livre deveria responder 503 com Retry-After direto, sem despachar para /error")
+    void doFilterCenario1() throws Exception {
+        var filtro = new LimiteDeConexoesFilter(0, 0, meterRegistry);
+        var resposta = spy(new MockHttpServletResponse());
+        var cadeia = new MockFilterChain();
+
+        filtro.doFilter(new MockHttpServletRequest("GET", "/consultas"), resposta, cadeia);
+
+        assertThat(resposta.getStatus()).isEqualTo(503);
+        assertThat(resposta.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(resposta.getContentAsString()).isEqualTo("Serviço sobrecarregado, tente novamente em instantes.");
+        assertThat(cadeia.getRequest()).isNull();
+        verify(resposta, never()).sendError(anyInt());
+        assertThat(meterRegistry.get("api.threads.limite.recusadas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Com permissao livre deveria seguir a cadeia e devolver a permissao no fim")
+    void doFilterCenario2() throws Exception {
+        var filtro = new LimiteDeConexoesFilter(1, 0, meterRegistry);
+
+        for (int i = 0; i < 2; i++) {
+            var cadeia = new MockFilterChain();
+            filtro.doFilter(new MockHttpServletRequest("GET", "/consultas"), new MockHttpServletResponse(), cadeia);
+            assertThat(cadeia.getRequest()).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.lucianodacunha.api.infra.threads;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ThreadsVirtuaisConfigurationsTest {
+
+    @Test
+    @DisplayName("Threads virtuais com Connector/J anterior ao 9 deveriam impedir a aplicacao de subir")
+    void verificarDriverCenario1() throws Exception {
+        assertThatThrownBy(() -> ThreadsVirtuaisConfigurations.verificarDriver(dataSource("MySQL Connector/J", 8)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Connector/J 9");
+        assertThatNoException().isThrownBy(() -> ThreadsVirtuaisConfigurations.verificarDriver(dataSource("MySQL Connector/J", 9)));
+        assertThatNoException().isThrownBy(() -> ThreadsVirtuaisConfigurations.verificarDriver(dataSource("H2 JDBC Driver", 2)));
+    }
+
+    private DataSource dataSource(String nomeDoDriver, int versao) throws Exception {
+        var metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDriverName()).thenReturn(nomeDoDriver);
+        when(metaData.getDriverMajorVersion()).thenReturn(versao);
+        var conexao = mock(Connection.class);
+        when(conexao.getMetaData()).thenReturn(metaData);
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conexao);
+        return dataSource;
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.lucianodacunha.api.model;
+
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorDeListagemTest {
+
+    @Test
+    @DisplayName("Deveria recuperar nome e id a partir do cursor codificado")
+    void decodificarCenario1() {
+        var cursor = new CursorDeListagem("Ana Souza\nda Silva", 42l).codificar();
+
+        assertThat(CursorDeListagem.decodificar(cursor)).isEqualTo(new CursorDeListagem("Ana Souza\nda Silva", 42l));
+    }
+
+    @Test
+    @DisplayName("Deveria tratar cursor vazio como primeira pagina e recusar cursor adulterado")
+    void decodificarCenario2() {
+        assertThat(CursorDeListagem.decodificar("")).isNull();
+        assertThatThrownBy(() -> CursorDeListagem.decodificar("nao-e-um-cursor"))
+                .isInstanceOf(ValidacaoException.class);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.lucianodacunha.api.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Envolve o DataSource do teste e guarda o último SELECT preparado, com os
+ * valores passados a cada parâmetro, para que o teste rode EXPLAIN
+ * exatamente no SQL que o repository gerou.
+ */
+class CapturaDeComandos implements BeanPostProcessor {
+
+    private final AtomicReference<Comando> ultimoSelect = new AtomicReference<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nome) {
+        if (bean instanceof DataSource dataSource) {
+            return envolver(DataSource.class, dataSource, (metodo, resultado, args) ->
+                    resultado instanceof Connection conexao ? envolverConexao(conexao) : resultado);
+        }
+        return bean;
+    }
+
+    void limpar() {
+        ultimoSelect.set(null);
+    }
+
+    Comando ultimoSelect() {
+        var comando = ultimoSelect.get();
+        if (comando == null) {
+            throw new IllegalStateException("Nenhum SELECT foi executado");
+        }
+        return comando;
+    }
+
+    private Connection envolverConexao(Connection conexao) {
+        return envolver(Connection.class, conexao, (metodo, resultado, args) -> {
+            if (resultado instanceof PreparedStatement comando && metodo.equals("prepareStatement")) {
+                var capturado = new Comando((String) args[0], new TreeMap<>());
+                if (capturado.sql().trim().toLowerCase().startsWith("select")) {
+                    ultimoSelect.set(capturado);
+                }
+                return envolverComando(comando, capturado);
+            }
+            return resultado;
+        });
+    }
+
+    private PreparedStatement envolverComando(PreparedStatement comando, Comando capturado) {
+        return envolver(PreparedStatement.class, comando, (metodo, resultado, args) -> {
+            if (metodo.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                capturado.parametros().put(indice, metodo.equals("setNull") ? null : args[1]);
+            }
+            return resultado;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T envolver(Class<T> tipo, T alvo, AposChamada aposChamada) {
+        InvocationHandler handler = (proxy, metodo, args) -> {
+            try {
+                return aposChamada.aplicar(metodo.getName(), metodo.invoke(alvo, args), args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(CapturaDeComandos.class.getClassLoader(), new Class<?>[]{tipo}, handler);
+    }
+
+    record Comando(String sql, Map<Integer, Object> parametros) {}
+
+    private interface AposChamada {
+        Object aplicar(String metodo, Object resultado, Object[] args);
+    }
+}
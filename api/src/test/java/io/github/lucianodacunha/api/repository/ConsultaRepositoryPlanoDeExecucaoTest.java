@@ -0,0 +1,181 @@
+package io.github.lucianodacunha.api.repository;
+
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.Especialidade;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda EXPLAIN no MySQL para as queries usadas no agendamento e falha se
+ * alguma delas voltar a fazer full scan (type = ALL) em uma tabela real.
+ * Cada cenário chama o método do repository e a CapturaDeComandos guarda o
+ * SQL que ele enviou ao banco, com os parâmetros; o EXPLAIN é feito sobre
+ * esse SQL, então uma alteração na query é verificada sem mudar o teste.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({CapturaDeComandos.class, ContextoAgendamentoRepository.class})
+class ConsultaRepositoryPlanoDeExecucaoTest {
+
+    private static final int QUANTIDADE_MEDICOS = 200;
+    private static final int QUANTIDADE_PACIENTES = 500;
+    private static final int DIAS_COM_CONSULTAS = 30;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CapturaDeComandos captura;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private ContextoAgendamentoRepository contextoAgendamentoRepository;
+
+    private LocalDateTime proximaSegundaAs10;
+
+    @BeforeEach
+    void setUp() {
+        proximaSegundaAs10 = LocalDate.now()
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .atTime(10, 0);
+        popularBanco();
+    }
+
+    @Test
+    @DisplayName("ContextoAgendamentoRepository.carregar nao deveria fazer full scan")
+    void carregarContextoAgendamento() {
+        var idMedico = primeiroId("medicos");
+        var dados = new DadosAgendamentoConsulta(idMedico, primeiroId("pacientes"), proximaSegundaAs10, null);
+
+        captura.limpar();
+        contextoAgendamentoRepository.carregar(dados, idMedico);
+
+        assertSemFullScan(captura.ultimoSelect());
+    }
+
+    @Test
+    @DisplayName("MedicoRepository.escolherMedicoAleatorioLivreNaData nao deveria fazer full scan")
+    void escolherMedicoAleatorioLivreNaData() {
+        captura.limpar();
+        medicoRepository.escolherMedicoAleatorioLivreNaData(Especialidade.CARDIOLOGIA, proximaSegundaAs10);
+
+        assertSemFullScan(captura.ultimoSelect());
+    }
+
+    @Test
+    @DisplayName("MedicoRepository.escolherMedicoAleatorioLivreNaDataExceto nao deveria fazer full scan")
+    void escolherMedicoAleatorioLivreNaDataExceto() {
+        var descartados = List.of(primeiroId("medicos"), primeiroId("medicos") + 1);
+
+        captura.limpar();
+        medicoRepository.escolherMedicoAleatorioLivreNaDataExceto(Especialidade.CARDIOLOGIA, proximaSegundaAs10, descartados);
+
+        assertSemFullScan(captura.ultimoSelect());
+    }
+
+    @Test
+    @DisplayName("MedicoRepository.isLivreNaData nao deveria fazer full scan")
+    void isLivreNaData() {
+        var idMedico = primeiroId("medicos");
+
+        captura.limpar();
+        medicoRepository.isLivreNaData(idMedico, proximaSegundaAs10);
+
+        assertSemFullScan(captura.ultimoSelect());
+    }
+
+    private void assertSemFullScan(CapturaDeComandos.Comando comando) {
+        var linhas = em.getEntityManager().unwrap(Session.class).doReturningWork(conexao -> {
+            try (var explain = conexao.prepareStatement("EXPLAIN " + comando.sql())) {
+                for (var parametro : comando.parametros().entrySet()) {
+                    explain.setObject(parametro.getKey(), parametro.getValue());
+                }
+                var resultado = new ArrayList<String[]>();
+                try (var rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        resultado.add(new String[]{rs.getString("table"), rs.getString("type"), rs.getString("key")});
+                    }
+                }
+                return resultado;
+            }
+        });
+
+        assertThat(linhas).as("EXPLAIN de %s", comando.sql()).isNotEmpty();
+        for (var linha : linhas) {
+            var tabela = linha[0];
+            var tabelaReal = tabela != null && !tabela.startsWith("<");
+            if (tabelaReal) {
+                assertThat(linha[1])
+                        .as("tipo de acesso na tabela %s (chave: %s) em %s", tabela, linha[2], comando.sql())
+                        .isNotEqualTo("ALL");
+            }
+        }
+    }
+
+    private Long primeiroId(String tabela) {
+        var id = em.getEntityManager()
+                .createNativeQuery("select min(id) from " + tabela + " where email like 'plano%'")
+                .getSingleResult();
+        return ((Number) id).longValue();
+    }
+
+    private void popularBanco() {
+        var especialidades = new String[]{"ORTOPEDIA", "CARDIOLOGIA", "GINECOLOGIA", "DERMATOLOGIA"};
+
+        var medicos = new StringJoiner(",", "insert into medicos (nome, email, crm, especialidade, logradouro, bairro, cep, uf, cidade, telefone, ativo) values ", "");
+        for (int i = 0; i < QUANTIDADE_MEDICOS; i++) {
+            medicos.add("('Medico %d', 'plano.medico%d@voll.med', '%06d', '%s', 'rua', 'bairro', '00000000', 'DF', 'Brasilia', '6199%07d', 1)"
+                    .formatted(i, i, 900000 + i, especialidades[i % especialidades.length], i));
+        }
+        executar(medicos.toString());
+
+        var pacientes = new StringJoiner(",", "insert into pacientes (nome, email, telefone, cpf, logradouro, bairro, cep, uf, cidade, ativo) values ", "");
+        for (int i = 0; i < QUANTIDADE_PACIENTES; i++) {
+            pacientes.add("('Paciente %d', 'plano.paciente%d@voll.med', '6198%07d', '%011d', 'rua', 'bairro', '00000000', 'DF', 'Brasilia', 1)"
+                    .formatted(i, i, i, 90000000000L + i));
+        }
+        executar(pacientes.toString());
+
+        var primeiroMedico = primeiroId("medicos");
+        var primeiroPaciente = primeiroId("pacientes");
+        var primeiroDia = proximaSegundaAs10.toLocalDate();
+        // consultas.id não é AUTO_INCREMENT: os ids vêm de consultas_seq
+        var primeiraConsulta = ((Number) em.getEntityManager()
+                .createNativeQuery("select next_val from consultas_seq")
+                .getSingleResult()).longValue();
+        for (int dia = 0; dia < DIAS_COM_CONSULTAS; dia++) {
+            var consultas = new StringJoiner(",", "insert into consultas (id, medico_id, paciente_id, data) values ", "");
+            for (int i = 0; i < QUANTIDADE_MEDICOS; i++) {
+                var data = primeiroDia.plusDays(dia).atTime(7 + i % 12, 0);
+                var paciente = primeiroPaciente + (dia * QUANTIDADE_MEDICOS + i) % QUANTIDADE_PACIENTES;
+                consultas.add("(%d, %d, %d, '%s')".formatted(primeiraConsulta + dia * QUANTIDADE_MEDICOS + i, primeiroMedico + i, paciente, data));
+            }
+            executar(consultas.toString());
+        }
+    }
+
+    private void executar(String sql) {
+        em.getEntityManager().createNativeQuery(sql).executeUpdate();
+    }
+}
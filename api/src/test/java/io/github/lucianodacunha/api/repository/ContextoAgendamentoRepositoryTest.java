@@ -0,0 +1,139 @@
+package io.github.lucianodacunha.api.repository;
+
+import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.entity.Paciente;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosCadastroMedico;
+import io.github.lucianodacunha.api.model.DadosCadastroPaciente;
+import io.github.lucianodacunha.api.model.DadosEndereco;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.MotivoCancelamento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ContextoAgendamentoRepository.class)
+class ContextoAgendamentoRepositoryTest {
+
+    @Autowired
+    private ContextoAgendamentoRepository repository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private LocalDateTime proximaSegundaAs10;
+    private Medico medico;
+    private Paciente paciente;
+
+    @BeforeEach
+    void setUp() {
+        proximaSegundaAs10 = LocalDate.now()
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .atTime(10, 0);
+        medico = cadastrarMedico("Medico", "medico@voll.med", "123456");
+        paciente = cadastrarPaciente("Paciente", "paciente@voll.med", "00000000000");
+    }
+
+    @Test
+    @DisplayName("Deveria carregar paciente e medico ativos sem conflitos quando a agenda esta livre")
+    void carregarCenario1() {
+        var contexto = repository.carregar(agendamento(medico.getId(), paciente.getId()), medico.getId());
+
+        assertThat(contexto.pacienteAtivo()).isTrue();
+        assertThat(contexto.medicoAtivo()).isTrue();
+        assertThat(contexto.medicoPossuiOutraConsultaNoHorario()).isFalse();
+        assertThat(contexto.pacientePossuiOutraConsultaNoDia()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deveria devolver nulo para ids inexistentes e para o medico nao informado")
+    void carregarCenario2() {
+        var inexistentes = repository.carregar(agendamento(-1l, -1l), -1l);
+        var semMedico = repository.carregar(agendamento(null, paciente.getId()), null);
+
+        assertThat(inexistentes.pacienteAtivo()).isNull();
+        assertThat(inexistentes.medicoAtivo()).isNull();
+        assertThat(semMedico.pacienteAtivo()).isTrue();
+        assertThat(semMedico.medicoAtivo()).isNull();
+        assertThat(semMedico.medicoPossuiOutraConsultaNoHorario()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deveria indicar medico e paciente excluidos")
+    void carregarCenario3() {
+        medico.excluir();
+        paciente.excluir();
+        em.flush();
+
+        var contexto = repository.carregar(agendamento(medico.getId(), paciente.getId()), medico.getId());
+
+        assertThat(contexto.pacienteAtivo()).isFalse();
+        assertThat(contexto.medicoAtivo()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deveria indicar os conflitos do medico no horario e do paciente no dia")
+    void carregarCenario4() {
+        var outroPaciente = cadastrarPaciente("Outro", "outro@voll.med", "11111111111");
+        var outroMedico = cadastrarMedico("Outro", "outro.medico@voll.med", "654321");
+        em.persist(new Consulta(null, medico, outroPaciente, proximaSegundaAs10));
+        em.persist(new Consulta(null, outroMedico, paciente, proximaSegundaAs10.withHour(15)));
+        em.flush();
+
+        var contexto = repository.carregar(agendamento(medico.getId(), paciente.getId()), medico.getId());
+
+        assertThat(contexto.medicoPossuiOutraConsultaNoHorario()).isTrue();
+        assertThat(contexto.pacientePossuiOutraConsultaNoDia()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Nao deveria considerar a consulta cancelada como conflito do medico")
+    void carregarCenario5() {
+        var outroPaciente = cadastrarPaciente("Outro", "outro@voll.med", "11111111111");
+        var consulta = new Consulta(null, medico, outroPaciente, proximaSegundaAs10);
+        em.persist(consulta);
+        consulta.cancelar(MotivoCancelamento.PACIENTE_DESISTIU);
+        em.flush();
+
+        var contexto = repository.carregar(agendamento(medico.getId(), paciente.getId()), medico.getId());
+
+        assertThat(contexto.medicoPossuiOutraConsultaNoHorario()).isFalse();
+    }
+
+    private DadosAgendamentoConsulta agendamento(Long idMedico, Long idPaciente) {
+        return new DadosAgendamentoConsulta(idMedico, idPaciente, proximaSegundaAs10, null);
+    }
+
+    private Medico cadastrarMedico(String nome, String email, String crm) {
+        var medico = new Medico(new DadosCadastroMedico(nome, email, "6199" + crm, crm, Especialidade.CARDIOLOGIA, dadosEndereco()));
+        em.persist(medico);
+        return medico;
+    }
+
+    private Paciente cadastrarPaciente(String nome, String email, String cpf) {
+        var paciente = new Paciente(new DadosCadastroPaciente(nome, email, "61" + cpf.substring(2), cpf, dadosEndereco()));
+        em.persist(paciente);
+        return paciente;
+    }
+
+    private DadosEndereco dadosEndereco() {
+        return new DadosEndereco("rua xpto", "bairro", "00000000", "Brasilia", "DF", null, null);
+    }
+}
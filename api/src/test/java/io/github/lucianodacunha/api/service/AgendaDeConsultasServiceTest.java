@@ -0,0 +1,195 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.entity.Paciente;
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.ContextoAgendamentoRepository;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.repository.PacienteRepository;
+import io.github.lucianodacunha.api.validation.CadeiaDeValidacoes;
+import io.github.lucianodacunha.api.validation.agendamento.ContextoAgendamento;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ordem das verificações do agendamento: os erros de paciente, de médico
+ * informado e dos validadores vêm antes da escolha do médico. Na escolha
+ * pela API, o médico só é usado depois de confirmado livre na reserva.
+ */
+@ExtendWith(MockitoExtension.class)
+class AgendaDeConsultasServiceTest {
+
+    @Mock
+    private ConsultaRepository consultaRepository;
+
+    @Mock
+    private ContextoAgendamentoRepository contextoAgendamentoRepository;
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Mock
+    private ReservaDeHorarios reservaDeHorarios;
+
+    @Mock
+    private CadeiaDeValidacoes validacoes;
+
+    @Mock
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Mock
+    private OutboxDeEventos outbox;
+
+    @Mock
+    private AmostragemDeLog amostragem;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private AgendaDeConsultasService service;
+
+    private DadosAgendamentoConsulta semMedicoDisponivel;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "tentativasPeloIndice", 3);
+        ReflectionTestUtils.setField(service, "tentativasDeReserva", 5);
+        lenient().when(amostragem.info(any(), anyString())).thenReturn(NOPLoggingEventBuilder.singleton());
+        var proximaSegundaAs10 = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(10, 0);
+        semMedicoDisponivel = new DadosAgendamentoConsulta(null, 1l, proximaSegundaAs10, Especialidade.CARDIOLOGIA);
+        lenient().when(medicoRepository.escolherMedicoAleatorioLivreNaData(any(), any())).thenReturn(null);
+    }
+
+    @Test
+    @DisplayName("Paciente inexistente deveria ser recusado antes da escolha do medico")
+    void agendarCenario1() {
+        when(contextoAgendamentoRepository.carregar(semMedicoDisponivel, null)).thenReturn(contexto(null));
+
+        assertThatThrownBy(() -> service.agendar(semMedicoDisponivel))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("Id do paciente informado não existe!");
+        verifyNoInteractions(indiceDeOcupacao, validacoes);
+        assertThat(meterRegistry.get("api.consultas").tag("operacao", "agendar").tag("resultado", "recusado").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Recusa de um validador deveria vencer a falta de medico disponivel")
+    void agendarCenario2() {
+        when(contextoAgendamentoRepository.carregar(semMedicoDisponivel, null)).thenReturn(contexto(true));
+        doThrow(new ValidacaoException(MotivoRecusa.FORA_DO_HORARIO_DE_FUNCIONAMENTO, "Consulta fora do horário de funcionamento da clínica"))
+                .when(validacoes).validarAgendamento(any());
+
+        assertThatThrownBy(() -> service.agendar(semMedicoDisponivel))
+                .hasMessage("Consulta fora do horário de funcionamento da clínica");
+        verifyNoInteractions(indiceDeOcupacao);
+    }
+
+    @Test
+    @DisplayName("Sem medico livre o agendamento valido deveria ser recusado por falta de medico")
+    void agendarCenario3() {
+        when(contextoAgendamentoRepository.carregar(semMedicoDisponivel, null)).thenReturn(contexto(true));
+
+        assertThatThrownBy(() -> service.agendar(semMedicoDisponivel))
+                .hasMessage("Não existe médico disponível nessa data.");
+        verifyNoInteractions(reservaDeHorarios);
+    }
+
+    @Test
+    @DisplayName("Medico escolhido ocupado por agendamento concorrente deveria ser trocado por outro livre")
+    void agendarCenario4() {
+        when(contextoAgendamentoRepository.carregar(semMedicoDisponivel, null)).thenReturn(contexto(true));
+        when(indiceDeOcupacao.escolherMedicoLivre(eq(Especialidade.CARDIOLOGIA), eq(semMedicoDisponivel.data()), anySet()))
+                .thenReturn(Optional.of(1l), Optional.of(2l));
+        when(reservaDeHorarios.reservarSeLivre(anyLong(), eq(semMedicoDisponivel.data()), any()))
+                .thenAnswer(invocation -> invocation.<BooleanSupplier>getArgument(2).getAsBoolean());
+        when(medicoRepository.isLivreNaData(1l, semMedicoDisponivel.data())).thenReturn(false);
+        when(medicoRepository.isLivreNaData(2l, semMedicoDisponivel.data())).thenReturn(true);
+        when(medicoRepository.getReferenceById(2l)).thenReturn(medico(2l));
+        when(pacienteRepository.getReferenceById(1l)).thenReturn(paciente(1l));
+
+        var consulta = service.agendar(semMedicoDisponivel);
+
+        assertThat(consulta.idMedico()).isEqualTo(2l);
+        verify(medicoRepository, never()).getReferenceById(1l);
+        verify(indiceDeOcupacao).ocupar(2l, semMedicoDisponivel.data());
+    }
+
+    @Test
+    @DisplayName("Medicos ocupados em todas as tentativas deveriam terminar em falta de medico disponivel")
+    void agendarCenario5() {
+        when(contextoAgendamentoRepository.carregar(semMedicoDisponivel, null)).thenReturn(contexto(true));
+        when(medicoRepository.escolherMedicoAleatorioLivreNaData(Especialidade.CARDIOLOGIA, semMedicoDisponivel.data()))
+                .thenReturn(medico(1l));
+        when(medicoRepository.escolherMedicoAleatorioLivreNaDataExceto(eq(Especialidade.CARDIOLOGIA), eq(semMedicoDisponivel.data()), anyCollection()))
+                .thenAnswer(invocation -> medico(10l + invocation.<Collection<?>>getArgument(2).size()));
+        when(reservaDeHorarios.reservarSeLivre(anyLong(), eq(semMedicoDisponivel.data()), any())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.agendar(semMedicoDisponivel))
+                .hasMessage("Não existe médico disponível nessa data.");
+        verify(reservaDeHorarios, times(5)).reservarSeLivre(anyLong(), eq(semMedicoDisponivel.data()), any());
+        verifyNoInteractions(consultaRepository);
+    }
+
+    private Medico medico(Long id) {
+        var medico = new Medico();
+        ReflectionTestUtils.setField(medico, "id", id);
+        return medico;
+    }
+
+    private Paciente paciente(Long id) {
+        var paciente = new Paciente();
+        ReflectionTestUtils.setField(paciente, "id", id);
+        return paciente;
+    }
+
+    private ContextoAgendamento contexto(Boolean pacienteAtivo) {
+        return new ContextoAgendamento(semMedicoDisponivel, null, pacienteAtivo, null, false, false);
+    }
+}
@@ -0,0 +1,278 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.entity.Paciente;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.metricas.ContadorDeRecusas;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosResultadoAgendamentoLote;
+import io.github.lucianodacunha.api.model.DadosSituacaoCadastro;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.TipoEvento;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import io.github.lucianodacunha.api.repository.PacienteRepository;
+import io.github.lucianodacunha.api.validation.CadeiaDeValidacoes;
+import io.github.lucianodacunha.api.validation.agendamento.HorarioAntecedenciaValidator;
+import io.github.lucianodacunha.api.validation.agendamento.HorarioFuncionamentoClinicaValidator;
+import io.github.lucianodacunha.api.validation.agendamento.MedicoAtivoValidator;
+import io.github.lucianodacunha.api.validation.agendamento.PacienteAtivoValidator;
+import io.github.lucianodacunha.api.validation.agendamento.ValidadorMedicoComOutraConsultaNoMesmoHorario;
+import io.github.lucianodacunha.api.validation.agendamento.ValidadorPacienteSemOutraConsultaNoDia;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Agendamento em lote com os repositórios simulados e a cadeia de
+ * validadores de agendamento real: conflitos entre itens do próprio lote,
+ * escolha do médico, recusa parcial e conflito descoberto só no insert.
+ */
+@ExtendWith(MockitoExtension.class)
+class AgendamentoEmLoteServiceTest {
+
+    @Mock
+    private ConsultaRepository consultaRepository;
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private IndiceDeOcupacaoDeHorarios indiceDeOcupacao;
+
+    @Mock
+    private ReservaDeHorarios reservaDeHorarios;
+
+    @Mock
+    private ContadorDeRecusas contadorDeRecusas;
+
+    @Mock
+    private AgendaDosMedicosService agendaDosMedicos;
+
+    @Mock
+    private OutboxDeEventos outbox;
+
+    @Mock
+    private JdbcTemplate jdbc;
+
+    @Mock
+    private EntityManager em;
+
+    @InjectMocks
+    private AgendamentoEmLoteService service;
+
+    private final LocalDateTime proximaSegundaAs10 = LocalDate.now()
+            .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+            .atTime(10, 0);
+
+    @BeforeEach
+    void setUp() {
+        var validacoes = new CadeiaDeValidacoes();
+        ReflectionTestUtils.setField(validacoes, "agendamentoValidators", List.of(
+                new HorarioAntecedenciaValidator(),
+                new HorarioFuncionamentoClinicaValidator(),
+                new MedicoAtivoValidator(),
+                new PacienteAtivoValidator(),
+                new ValidadorMedicoComOutraConsultaNoMesmoHorario(),
+                new ValidadorPacienteSemOutraConsultaNoDia()));
+        ReflectionTestUtils.setField(validacoes, "cancelamentoValidators", List.of());
+        ReflectionTestUtils.setField(validacoes, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(validacoes, "registrarTimers");
+
+        ReflectionTestUtils.setField(service, "validacoes", validacoes);
+        ReflectionTestUtils.setField(service, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "tamanhoMaximo", 3);
+        ReflectionTestUtils.setField(service, "tamanhoBatchJdbc", 50);
+
+        var ids = new AtomicLong();
+        var sessao = mock(SharedSessionContractImplementor.class, RETURNS_DEEP_STUBS);
+        var geradorDeIds = mock(IdentifierGenerator.class);
+        lenient().when(geradorDeIds.generate(any(), any())).thenAnswer(invocation -> ids.incrementAndGet());
+        lenient().when(sessao.getFactory().getMappingMetamodel().getEntityDescriptor(Consulta.class).getIdentifierGenerator())
+                .thenReturn(geradorDeIds);
+        lenient().when(em.unwrap(SharedSessionContractImplementor.class)).thenReturn(sessao);
+        lenient().when(em.unwrap(Session.class)).thenReturn(mock(Session.class));
+        lenient().when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(mock(Connection.class)));
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(reservaDeHorarios).reservarDurante(anyCollection(), any());
+        lenient().when(medicoRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> medico(invocation.getArgument(0)));
+        lenient().when(pacienteRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> paciente(invocation.getArgument(0)));
+        lenient().when(medicoRepository.findSituacaoByIdIn(anyCollection()))
+                .thenAnswer(invocation -> ativos(invocation.getArgument(0)));
+        lenient().when(pacienteRepository.findSituacaoByIdIn(anyCollection()))
+                .thenAnswer(invocation -> ativos(invocation.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Deveria recusar o lote vazio ou acima do tamanho maximo sem ir ao banco")
+    void agendarCenario1() {
+        var item = new DadosAgendamentoConsulta(1l, 1l, proximaSegundaAs10, null);
+
+        assertThatThrownBy(() -> service.agendar(List.of()))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("O lote deve conter ao menos um agendamento!");
+        assertThatThrownBy(() -> service.agendar(List.of(item, item, item, item)))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("O lote deve conter no máximo 3 agendamentos!");
+        verifyNoInteractions(consultaRepository, medicoRepository, pacienteRepository, reservaDeHorarios);
+    }
+
+    @Test
+    @DisplayName("Deveria recusar os itens em conflito com outro item do mesmo lote")
+    void agendarCenario2() {
+        var resultados = service.agendar(List.of(
+                new DadosAgendamentoConsulta(1l, 1l, proximaSegundaAs10, null),
+                new DadosAgendamentoConsulta(1l, 2l, proximaSegundaAs10, null),
+                new DadosAgendamentoConsulta(2l, 1l, proximaSegundaAs10.plusHours(2), null)));
+
+        assertThat(resultados).extracting(DadosResultadoAgendamentoLote::erro).containsExactly(
+                null,
+                "Médico já possui outra consulta agendada nesse mesmo horário",
+                "Paciente já possui uma consulta agendada nesse dia");
+        verify(jdbc).batchUpdate(anyString(), argThat((List<Object[]> linhas) -> linhas.size() == 1));
+    }
+
+    @Test
+    @DisplayName("Deveria sortear pela query SQL outro medico que nao os ja escolhidos no lote para o mesmo horario")
+    void agendarCenario3() {
+        when(medicoRepository.escolherMedicoAleatorioLivreNaData(Especialidade.CARDIOLOGIA, proximaSegundaAs10))
+                .thenReturn(medico(1l));
+        when(medicoRepository.escolherMedicoAleatorioLivreNaDataExceto(
+                eq(Especialidade.CARDIOLOGIA), eq(proximaSegundaAs10), argThat(ids -> ids.size() == 1 && ids.contains(1l))))
+                .thenReturn(medico(2l));
+
+        var resultados = service.agendar(List.of(
+                new DadosAgendamentoConsulta(null, 1l, proximaSegundaAs10, Especialidade.CARDIOLOGIA),
+                new DadosAgendamentoConsulta(null, 2l, proximaSegundaAs10, Especialidade.CARDIOLOGIA)));
+
+        assertThat(resultados).extracting(DadosResultadoAgendamentoLote::erro).containsOnlyNulls();
+        assertThat(resultados).extracting(r -> r.consulta().idMedico()).containsExactly(1l, 2l);
+    }
+
+    @Test
+    @DisplayName("Deveria agendar os itens validos e recusar so os invalidos, na ordem recebida")
+    void agendarCenario4() {
+        when(pacienteRepository.findSituacaoByIdIn(anyCollection())).thenReturn(List.of(new DadosSituacaoCadastro(1l, true)));
+
+        var resultados = service.agendar(List.of(
+                new DadosAgendamentoConsulta(1l, null, proximaSegundaAs10, null),
+                new DadosAgendamentoConsulta(1l, 1l, proximaSegundaAs10, null),
+                new DadosAgendamentoConsulta(2l, 99l, proximaSegundaAs10, null)));
+
+        assertThat(resultados).extracting(DadosResultadoAgendamentoLote::indice).containsExactly(0, 1, 2);
+        assertThat(resultados.get(0).erro()).startsWith("idPaciente: ");
+        assertThat(resultados.get(1).consulta().idPaciente()).isEqualTo(1l);
+        assertThat(resultados.get(2).erro()).isEqualTo("Id do paciente informado não existe!");
+        verify(jdbc).batchUpdate(anyString(), argThat((List<Object[]> linhas) -> linhas.size() == 1));
+        verify(indiceDeOcupacao).ocupar(1l, proximaSegundaAs10);
+    }
+
+    @Test
+    @DisplayName("Candidato do indice ocupado no banco deveria ser trocado pelo proximo candidato")
+    void agendarCenario5() {
+        ReflectionTestUtils.setField(service, "tentativasPeloIndice", 3);
+        when(indiceDeOcupacao.escolherMedicoLivre(eq(Especialidade.CARDIOLOGIA), eq(proximaSegundaAs10), anySet()))
+                .thenReturn(Optional.of(1l), Optional.of(2l));
+        when(medicoRepository.isLivreNaData(1l, proximaSegundaAs10)).thenReturn(false);
+        when(medicoRepository.isLivreNaData(2l, proximaSegundaAs10)).thenReturn(true);
+
+        var resultados = service.agendar(List.of(
+                new DadosAgendamentoConsulta(null, 1l, proximaSegundaAs10, Especialidade.CARDIOLOGIA)));
+
+        assertThat(resultados.get(0).consulta().idMedico()).isEqualTo(2l);
+        verify(medicoRepository, never()).escolherMedicoAleatorioLivreNaData(any(), any());
+    }
+
+    @Test
+    @DisplayName("Horario ocupado por outra instancia so no insert deveria recusar apenas o item conflitante")
+    void agendarCenario6() {
+        var violacao = new DuplicateKeyException("Unique index or primary key violation: UK_CONSULTAS_MEDICO_ATIVO_DATA");
+        when(jdbc.batchUpdate(anyString(), anyList())).thenThrow(violacao);
+        when(jdbc.update(anyString(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    if (invocation.getArgument(2).equals(1l)) {
+                        throw violacao;
+                    }
+                    return 1;
+                });
+
+        var resultados = service.agendar(List.of(
+                new DadosAgendamentoConsulta(1l, 1l, proximaSegundaAs10, null),
+                new DadosAgendamentoConsulta(2l, 2l, proximaSegundaAs10, null)));
+
+        assertThat(resultados).extracting(DadosResultadoAgendamentoLote::erro).containsExactly(
+                "Médico já possui outra consulta agendada nesse mesmo horário",
+                null);
+        verify(outbox).registrar(eq(TipoEvento.CONSULTA_AGENDADA), argThat((List<Consulta> consultas) ->
+                consultas.size() == 1 && consultas.get(0).getMedico().getId().equals(2l)));
+        verify(indiceDeOcupacao, never()).ocupar(1l, proximaSegundaAs10);
+    }
+
+    private List<DadosSituacaoCadastro> ativos(Collection<Long> ids) {
+        return ids.stream().map(id -> new DadosSituacaoCadastro(id, true)).toList();
+    }
+
+    private Medico medico(Long id) {
+        var medico = new Medico();
+        ReflectionTestUtils.setField(medico, "id", id);
+        return medico;
+    }
+
+    private Paciente paciente(Long id) {
+        var paciente = new Paciente();
+        ReflectionTestUtils.setField(paciente, "id", id);
+        return paciente;
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.Usuario;
+import io.github.lucianodacunha.api.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache de usuários no modo de threads virtuais, em que a leitura no banco
+ * acontece fora do lock do Caffeine.
+ */
+class CacheDeUsuariosTest {
+
+    private static final String LOGIN = "ana.souza@voll.med";
+
+    private final UsuarioRepository repository = mock(UsuarioRepository.class);
+
+    private final CacheDeUsuarios cache = new CacheDeUsuarios();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "repository", repository);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "tamanhoMaximo", 100l);
+        ReflectionTestUtils.setField(cache, "expiracaoEmMinutos", 10l);
+        ReflectionTestUtils.setField(cache, "threadsVirtuais", true);
+        cache.inicializar();
+    }
+
+    @Test
+    @DisplayName("Deveria ir ao banco so na primeira busca do login")
+    void buscarPorLoginCenario1() {
+        var usuario = new Usuario(1l, LOGIN, "senha");
+        when(repository.findByLogin(LOGIN)).thenReturn(usuario);
+
+        assertThat(cache.buscarPorLogin(LOGIN)).isSameAs(usuario);
+        assertThat(cache.buscarPorLogin(LOGIN)).isSameAs(usuario);
+
+        verify(repository, times(1)).findByLogin(LOGIN);
+    }
+
+    @Test
+    @DisplayName("Usuario lido antes de uma invalidacao concorrente nao deveria ficar no cache")
+    void buscarPorLoginCenario2() {
+        var antigo = new Usuario(1l, LOGIN, "senha antiga");
+        var atualizado = new Usuario(1l, LOGIN, "senha nova");
+        when(repository.findByLogin(LOGIN))
+                .thenAnswer(invocation -> {
+                    // a alteração do usuário é confirmada enquanto a leitura ainda não voltou
+                    cache.invalidar(LOGIN);
+                    return antigo;
+                })
+                .thenReturn(atualizado);
+
+        assertThat(cache.buscarPorLogin(LOGIN)).isSameAs(antigo);
+        assertThat(cache.buscarPorLogin(LOGIN)).isSameAs(atualizado);
+        assertThat(cache.buscarPorLogin(LOGIN)).isSameAs(atualizado);
+
+        verify(repository, times(2)).findByLogin(LOGIN);
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.model.DadosOcupacaoMedico;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DisponibilidadeDeMedicosServiceTest {
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @InjectMocks
+    private DisponibilidadeDeMedicosService service;
+
+    private LocalDate proximaSegunda;
+
+    @BeforeEach
+    void setUp() {
+        proximaSegunda = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    @Test
+    @DisplayName("Deveria devolver todos os horarios da clinica menos os ocupados de cada medico")
+    void consultarCenario1() {
+        when(medicoRepository.findOcupacaoDosAtivosEntre(any(), any(), any())).thenReturn(List.of(
+                new DadosOcupacaoMedico(1l, "Ana", "123456", proximaSegunda.atTime(7, 0)),
+                new DadosOcupacaoMedico(1l, "Ana", "123456", proximaSegunda.atTime(18, 0)),
+                new DadosOcupacaoMedico(2l, "Bruno", "654321", null)));
+
+        var disponibilidade = service.consultar(Especialidade.CARDIOLOGIA, proximaSegunda);
+
+        assertThat(disponibilidade).hasSize(2);
+        assertThat(disponibilidade.get(0).horariosLivres())
+                .hasSize(10)
+                .doesNotContain(proximaSegunda.atTime(7, 0), proximaSegunda.atTime(18, 0));
+        assertThat(disponibilidade.get(1).horariosLivres())
+                .hasSize(12)
+                .startsWith(proximaSegunda.atTime(7, 0))
+                .endsWith(proximaSegunda.atTime(18, 0));
+    }
+
+    @Test
+    @DisplayName("Deveria devolver vazio aos domingos sem consultar o banco")
+    void consultarCenario2() {
+        var domingo = proximaSegunda.minusDays(1);
+
+        assertThat(service.consultar(Especialidade.CARDIOLOGIA, domingo)).isEmpty();
+        verifyNoInteractions(medicoRepository);
+    }
+
+    @Test
+    @DisplayName("Deveria descartar os horarios sem a antecedencia minima de 30 minutos")
+    void horariosAgendaveisCenario1() {
+        var agora = proximaSegunda.atTime(9, 45);
+
+        var horarios = DisponibilidadeDeMedicosService.horariosAgendaveis(proximaSegunda, agora);
+
+        assertThat(horarios).first().isEqualTo(proximaSegunda.atTime(11, 0));
+        assertThat(horarios).hasSize(8);
+    }
+}
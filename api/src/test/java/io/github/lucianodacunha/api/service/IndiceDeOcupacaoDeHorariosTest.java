@@ -0,0 +1,143 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.model.DadosIndiceConsulta;
+import io.github.lucianodacunha.api.model.DadosIndiceMedico;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.repository.MedicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceDeOcupacaoDeHorariosTest {
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @Mock
+    private ConsultaRepository consultaRepository;
+
+    @InjectMocks
+    private IndiceDeOcupacaoDeHorarios indice;
+
+    private LocalDateTime proximaSegundaAs10;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(indice, "habilitado", true);
+        ReflectionTestUtils.setField(indice, "horizonteEmDias", 30);
+        proximaSegundaAs10 = LocalDate.now()
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .atTime(10, 0);
+    }
+
+    @Test
+    @DisplayName("Deveria devolver vazio quando todos os medicos da especialidade estao ocupados no horario")
+    void escolherMedicoLivreCenario1() {
+        when(medicoRepository.findIndiceDosAtivos()).thenReturn(List.of(
+                new DadosIndiceMedico(1l, Especialidade.CARDIOLOGIA),
+                new DadosIndiceMedico(2l, Especialidade.CARDIOLOGIA)));
+        when(consultaRepository.findOcupacaoEntre(any(), any())).thenReturn(List.of(
+                new DadosIndiceConsulta(1l, proximaSegundaAs10),
+                new DadosIndiceConsulta(2l, proximaSegundaAs10)));
+        indice.aquecer();
+
+        var medicoLivre = indice.escolherMedicoLivre(Especialidade.CARDIOLOGIA, proximaSegundaAs10, Set.of());
+
+        assertThat(medicoLivre).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deveria devolver somente o medico livre da especialidade no horario")
+    void escolherMedicoLivreCenario2() {
+        when(medicoRepository.findIndiceDosAtivos()).thenReturn(List.of(
+                new DadosIndiceMedico(1l, Especialidade.CARDIOLOGIA),
+                new DadosIndiceMedico(2l, Especialidade.CARDIOLOGIA),
+                new DadosIndiceMedico(3l, Especialidade.ORTOPEDIA)));
+        when(consultaRepository.findOcupacaoEntre(any(), any())).thenReturn(List.of(
+                new DadosIndiceConsulta(1l, proximaSegundaAs10)));
+        indice.aquecer();
+
+        for (int i = 0; i < 20; i++) {
+            var medicoLivre = indice.escolherMedicoLivre(Especialidade.CARDIOLOGIA, proximaSegundaAs10, Set.of());
+            assertThat(medicoLivre).contains(2l);
+        }
+    }
+
+    @Test
+    @DisplayName("Deveria refletir agendamentos, cancelamentos e exclusoes feitos apos o aquecimento")
+    void escolherMedicoLivreCenario3() {
+        when(medicoRepository.findIndiceDosAtivos()).thenReturn(List.of(
+                new DadosIndiceMedico(1l, Especialidade.DERMATOLOGIA)));
+        when(consultaRepository.findOcupacaoEntre(any(), any())).thenReturn(List.of());
+        indice.aquecer();
+
+        indice.ocupar(1l, proximaSegundaAs10);
+        assertThat(indice.escolherMedicoLivre(Especialidade.DERMATOLOGIA, proximaSegundaAs10, Set.of())).isEmpty();
+
+        indice.liberar(1l, proximaSegundaAs10);
+        assertThat(indice.escolherMedicoLivre(Especialidade.DERMATOLOGIA, proximaSegundaAs10, Set.of())).contains(1l);
+        assertThat(indice.escolherMedicoLivre(Especialidade.DERMATOLOGIA, proximaSegundaAs10, Set.of(1l))).isEmpty();
+
+        indice.removerMedico(1l);
+        assertThat(indice.escolherMedicoLivre(Especialidade.DERMATOLOGIA, proximaSegundaAs10, Set.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deveria devolver vazio para datas fora do horizonte indexado")
+    void escolherMedicoLivreCenario4() {
+        when(medicoRepository.findIndiceDosAtivos()).thenReturn(List.of(
+                new DadosIndiceMedico(1l, Especialidade.ORTOPEDIA)));
+        when(consultaRepository.findOcupacaoEntre(any(), any())).thenReturn(List.of());
+        indice.aquecer();
+
+        var medicoLivre = indice.escolherMedicoLivre(Especialidade.ORTOPEDIA, proximaSegundaAs10.plusDays(60), Set.of());
+
+        assertThat(medicoLivre).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deveria indexar o dia que entra no horizonte e descartar os dias passados")
+    void avancarHorizonteCenario1() {
+        var hoje = LocalDate.now();
+        var diaNovo = hoje.plusDays(31).atTime(10, 0);
+        when(medicoRepository.findIndiceDosAtivos()).thenReturn(List.of(
+                new DadosIndiceMedico(1l, Especialidade.CARDIOLOGIA),
+                new DadosIndiceMedico(2l, Especialidade.CARDIOLOGIA)));
+        when(consultaRepository.findOcupacaoEntre(any(), any())).thenReturn(List.of());
+        indice.aquecer();
+        indice.ocupar(1l, hoje.atTime(LocalTime.MAX.withNano(0)));
+        assertThat(indice.escolherMedicoLivre(Especialidade.CARDIOLOGIA, diaNovo, Set.of())).isEmpty();
+
+        when(consultaRepository.findOcupacaoEntre(diaNovo.toLocalDate().atStartOfDay(), diaNovo.toLocalDate().atTime(LocalTime.MAX)))
+                .thenReturn(List.of(new DadosIndiceConsulta(1l, diaNovo)));
+        indice.avancarHorizonte(hoje.plusDays(1));
+
+        verify(consultaRepository).findOcupacaoEntre(diaNovo.toLocalDate().atStartOfDay(), diaNovo.toLocalDate().atTime(LocalTime.MAX));
+        for (int i = 0; i < 20; i++) {
+            assertThat(indice.escolherMedicoLivre(Especialidade.CARDIOLOGIA, diaNovo, Set.of())).contains(2l);
+        }
+        var ocupacaoPorDia = (Map<?, ?>) ReflectionTestUtils.getField(indice, "ocupacaoPorDia");
+        assertThat(ocupacaoPorDia.keySet()).extracting("dia").containsOnly(diaNovo.toLocalDate());
+    }
+}
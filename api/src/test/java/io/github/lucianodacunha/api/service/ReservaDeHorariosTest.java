@@ -0,0 +1,109 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReservaDeHorariosTest {
+
+    private final LocalDateTime data = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Deveria bloquear o mesmo horario ate o fim da transacao que o reservou")
+    void reservarCenario1() throws Exception {
+        var reserva = new ReservaDeHorarios(16, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        reserva.reservar(1l, data);
+
+        var concorrente = CompletableFuture.runAsync(() -> emTransacao(() -> reserva.reservar(1l, data)));
+
+        assertThatThrownBy(() -> concorrente.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ValidacaoException.class);
+
+        finalizarTransacao();
+        CompletableFuture.runAsync(() -> emTransacao(() -> reserva.reservar(1l, data))).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Deveria permitir reservas simultaneas de horarios diferentes")
+    void reservarCenario2() throws Exception {
+        var reserva = new ReservaDeHorarios(1024, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        reserva.reservar(1l, data);
+
+        var reservou = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> emTransacao(() -> {
+            reserva.reservar(2l, data.plusHours(1));
+            reservou.countDown();
+        })).get(5, TimeUnit.SECONDS);
+
+        assertThat(reservou.getCount()).isZero();
+        finalizarTransacao();
+    }
+
+    @Test
+    @DisplayName("Horario confirmado ocupado deveria liberar a listra na hora, sem esperar o fim da transacao")
+    void reservarSeLivreCenario1() throws Exception {
+        var reserva = new ReservaDeHorarios(16, 100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(reserva.reservarSeLivre(1l, data, () -> false)).isFalse();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        CompletableFuture.runAsync(() -> emTransacao(() -> reserva.reservar(1l, data))).get(5, TimeUnit.SECONDS);
+
+        assertThat(reserva.reservarSeLivre(1l, data, () -> true)).isTrue();
+        var concorrente = CompletableFuture.runAsync(() -> emTransacao(() -> reserva.reservar(1l, data)));
+        assertThatThrownBy(() -> concorrente.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ValidacaoException.class);
+        finalizarTransacao();
+    }
+
+    @Test
+    @DisplayName("Deveria prender as listras do lote so enquanto a gravacao executa")
+    void reservarDuranteCenario1() throws Exception {
+        var reserva = new ReservaDeHorarios(16, 100);
+        var horarios = List.of(new ReservaDeHorarios.Horario(1l, data), new ReservaDeHorarios.Horario(2l, data));
+
+        reserva.reservarDurante(horarios, () -> {
+            var concorrente = CompletableFuture.runAsync(() -> emTransacao(() -> reserva.reservar(2l, data)));
+            assertThatThrownBy(() -> concorrente.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(ValidacaoException.class);
+        });
+
+        CompletableFuture.runAsync(() -> emTransacao(() -> reserva.reservar(2l, data))).get(5, TimeUnit.SECONDS);
+    }
+
+    private void emTransacao(Runnable acao) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            acao.run();
+        } finally {
+            finalizarTransacao();
+        }
+    }
+
+    private void finalizarTransacao() {
+        var sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
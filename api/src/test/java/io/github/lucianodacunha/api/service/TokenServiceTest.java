@@ -0,0 +1,70 @@
+package io.github.lucianodacunha.api.service;
+
+import io.github.lucianodacunha.api.entity.Usuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TokenService tokenService = new TokenService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenService, "secret", "12345678");
+        ReflectionTestUtils.setField(tokenService, "tamanhoMaximoDoCache", 100l);
+        ReflectionTestUtils.setField(tokenService, "meterRegistry", meterRegistry);
+        tokenService.inicializar();
+    }
+
+    @Test
+    @DisplayName("Deveria verificar o token uma unica vez e atender as demais chamadas pelo cache")
+    void getSubjectCenario1() {
+        var token = tokenService.gerarToken(new Usuario(1l, "ana.souza@voll.med", "senha"));
+
+        assertThat(tokenService.getSubject(token)).isEqualTo("ana.souza@voll.med");
+        assertThat(tokenService.getSubject(token)).isEqualTo("ana.souza@voll.med");
+        assertThat(tokenService.getSubject(token)).isEqualTo("ana.souza@voll.med");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "tokens-jwt").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "tokens-jwt").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("api.token").tag("operacao", "emitir").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("api.token").tag("operacao", "verificar").tag("origem", "assinatura").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("api.token").tag("operacao", "verificar").tag("origem", "cache").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deveria rejeitar token invalido mesmo com o cache habilitado")
+    void getSubjectCenario2() {
+        var token = tokenService.gerarToken(new Usuario(1l, "ana.souza@voll.med", "senha"));
+        var adulterado = token.substring(0, token.length() - 2) + "xx";
+
+        assertThatThrownBy(() -> tokenService.getSubject(adulterado))
+                .hasMessage("Token JWT inválido ou expirado!");
+        assertThatThrownBy(() -> tokenService.getSubject(adulterado))
+                .hasMessage("Token JWT inválido ou expirado!");
+    }
+
+    @Test
+    @DisplayName("Deveria incluir no token o id e os perfis do usuario")
+    void verificarCenario1() {
+        var token = tokenService.gerarToken(new Usuario(7l, "ana.souza@voll.med", "senha"));
+
+        var verificado = tokenService.verificar(token);
+
+        assertThat(verificado.subject()).isEqualTo("ana.souza@voll.med");
+        assertThat(verificado.idUsuario()).isEqualTo(7l);
+        assertThat(verificado.perfis()).containsExactly("ROLE_USER");
+    }
+}
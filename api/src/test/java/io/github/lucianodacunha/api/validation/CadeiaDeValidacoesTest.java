@@ -0,0 +1,95 @@
+package io.github.lucianodacunha.api.validation;
+
+import io.github.lucianodacunha.api.exception.MotivoRecusa;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
+import io.github.lucianodacunha.api.model.MotivoCancelamento;
+import io.github.lucianodacunha.api.validation.cancelamento.CancelamentoDeConsultaValidator;
+import io.github.lucianodacunha.api.validation.cancelamento.ContextoCancelamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CadeiaDeValidacoesTest {
+
+    private final ContextoCancelamento contexto = new ContextoCancelamento(
+            new DadosCancelamentoConsulta(1l, MotivoCancelamento.PACIENTE_DESISTIU),
+            LocalDateTime.now().plusDays(2));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Deveria devolver a recusa do primeiro validador da lista e nao executar os seguintes")
+    void validarCenario1() {
+        var seguinte = new Contado(null);
+        var cadeia = cadeia(new Contado(null), new Contado("recusa"), seguinte);
+
+        assertThatThrownBy(() -> cadeia.validarCancelamento(contexto))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("recusa");
+        assertThat(seguinte.execucoes).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Deveria medir cada validador no timer api.validacao separando aprovacoes e recusas")
+    void validarCenario2() {
+        var cadeia = cadeia(new Contado(null), new Recusa());
+
+        assertThatThrownBy(() -> cadeia.validarCancelamento(contexto)).hasMessage("recusa");
+        assertThatThrownBy(() -> cadeia.validarCancelamento(contexto)).hasMessage("recusa");
+
+        assertThat(execucoesDoTimer("Contado", "aprovado")).isEqualTo(2);
+        assertThat(execucoesDoTimer("Recusa", "recusado")).isEqualTo(2);
+        assertThat(execucoesDoTimer("Recusa", "aprovado")).isZero();
+    }
+
+    private long execucoesDoTimer(String validador, String resultado) {
+        return meterRegistry.get("api.validacao")
+                .tag("tipo", "cancelamento")
+                .tag("validador", validador)
+                .tag("resultado", resultado)
+                .timer().count();
+    }
+
+    private CadeiaDeValidacoes cadeia(CancelamentoDeConsultaValidator... validadores) {
+        var cadeia = new CadeiaDeValidacoes();
+        ReflectionTestUtils.setField(cadeia, "agendamentoValidators", List.of());
+        ReflectionTestUtils.setField(cadeia, "cancelamentoValidators", List.of(validadores));
+        ReflectionTestUtils.setField(cadeia, "meterRegistry", meterRegistry);
+        cadeia.registrarTimers();
+        return cadeia;
+    }
+
+    private static class Contado implements CancelamentoDeConsultaValidator {
+
+        private final String recusa;
+        private final AtomicInteger execucoes = new AtomicInteger();
+
+        Contado(String recusa) {
+            this.recusa = recusa;
+        }
+
+        @Override
+        public void validar(ContextoCancelamento contexto) {
+            execucoes.incrementAndGet();
+            if (recusa != null) {
+                throw new ValidacaoException(MotivoRecusa.CANCELAMENTO_SEM_ANTECEDENCIA, recusa);
+            }
+        }
+    }
+
+    private static class Recusa extends Contado {
+
+        Recusa() {
+            super("recusa");
+        }
+    }
+}
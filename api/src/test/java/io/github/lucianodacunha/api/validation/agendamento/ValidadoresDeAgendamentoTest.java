@@ -0,0 +1,94 @@
+package io.github.lucianodacunha.api.validation.agendamento;
+
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidadoresDeAgendamentoTest {
+
+    private final LocalDateTime proximaSegundaAs10 = LocalDate.now()
+            .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+            .atTime(10, 0);
+
+    @Test
+    @DisplayName("Validadores deveriam aprovar o contexto sem restricoes")
+    void validarCenario1() {
+        var contexto = contexto(proximaSegundaAs10, true, true, false, false);
+
+        for (var validador : validadores()) {
+            assertThatNoException().isThrownBy(() -> validador.validar(contexto));
+        }
+    }
+
+    @Test
+    @DisplayName("Validadores do medico nao deveriam recusar quando o medico ainda nao foi escolhido")
+    void validarCenario2() {
+        var contexto = new ContextoAgendamento(dados(proximaSegundaAs10), null, true, null, false, false);
+
+        assertThatNoException().isThrownBy(() -> new MedicoAtivoValidator().validar(contexto));
+        assertThatNoException().isThrownBy(() -> new ValidadorMedicoComOutraConsultaNoMesmoHorario().validar(contexto));
+    }
+
+    @Test
+    @DisplayName("Deveria recusar medico e paciente excluidos")
+    void validarCenario3() {
+        assertThatThrownBy(() -> new MedicoAtivoValidator().validar(contexto(proximaSegundaAs10, true, false, false, false)))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("Consulta não pode ser agendada com médico excluído");
+        assertThatThrownBy(() -> new PacienteAtivoValidator().validar(contexto(proximaSegundaAs10, false, true, false, false)))
+                .isInstanceOf(ValidacaoException.class)
+                .hasMessage("Paciente informado não está inativo");
+    }
+
+    @Test
+    @DisplayName("Deveria recusar os conflitos de horario do medico e do paciente")
+    void validarCenario4() {
+        assertThatThrownBy(() -> new ValidadorMedicoComOutraConsultaNoMesmoHorario().validar(contexto(proximaSegundaAs10, true, true, true, false)))
+                .hasMessage("Médico já possui outra consulta agendada nesse mesmo horário");
+        assertThatThrownBy(() -> new ValidadorPacienteSemOutraConsultaNoDia().validar(contexto(proximaSegundaAs10, true, true, false, true)))
+                .hasMessage("Paciente já possui uma consulta agendada nesse dia");
+    }
+
+    @Test
+    @DisplayName("Deveria recusar horarios fora do funcionamento da clinica e sem antecedencia")
+    void validarCenario5() {
+        var domingo = proximaSegundaAs10.minusDays(1);
+        var depoisDoEncerramento = proximaSegundaAs10.withHour(19);
+        var emDezMinutos = LocalDateTime.now().plusMinutes(10);
+
+        assertThatThrownBy(() -> new HorarioFuncionamentoClinicaValidator().validar(contexto(domingo, true, true, false, false)))
+                .hasMessage("Consulta fora do horário de funcionamento da clínica");
+        assertThatThrownBy(() -> new HorarioFuncionamentoClinicaValidator().validar(contexto(depoisDoEncerramento, true, true, false, false)))
+                .hasMessage("Consulta fora do horário de funcionamento da clínica");
+        assertThatThrownBy(() -> new HorarioAntecedenciaValidator().validar(contexto(emDezMinutos, true, true, false, false)))
+                .hasMessage("Consulta deve ser agendada com antecedencia mínima de 30 minutos");
+    }
+
+    private AgendamentoDeConsultaValidator[] validadores() {
+        return new AgendamentoDeConsultaValidator[]{
+                new HorarioAntecedenciaValidator(),
+                new HorarioFuncionamentoClinicaValidator(),
+                new MedicoAtivoValidator(),
+                new PacienteAtivoValidator(),
+                new ValidadorMedicoComOutraConsultaNoMesmoHorario(),
+                new ValidadorPacienteSemOutraConsultaNoDia()};
+    }
+
+    private ContextoAgendamento contexto(LocalDateTime data, Boolean pacienteAtivo, Boolean medicoAtivo,
+                                         boolean medicoOcupado, boolean pacienteOcupado) {
+        return new ContextoAgendamento(dados(data), 1l, pacienteAtivo, medicoAtivo, medicoOcupado, pacienteOcupado);
+    }
+
+    private DadosAgendamentoConsulta dados(LocalDateTime data) {
+        return new DadosAgendamentoConsulta(1l, 1l, data, null);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.lucianodacunha.benchmarks;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Monta os componentes da API fora do contexto do Spring, preenchendo os
+ * campos que normalmente chegam por @Autowired e @Value.
+ */
+final class Componentes {
+
+    private Componentes() {
+    }
+
+    static void definir(Object alvo, String campo, Object valor) {
+        var field = ReflectionUtils.findField(alvo.getClass(), campo);
+        if (field == null) {
+            throw new IllegalArgumentException("Campo %s não existe em %s".formatted(campo, alvo.getClass().getName()));
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, alvo, valor);
+    }
+
+    static void invocar(Object alvo, String metodo) {
+        var method = ReflectionUtils.findMethod(alvo.getClass(), metodo);
+        if (method == null) {
+            throw new IllegalArgumentException("Método %s não existe em %s".formatted(metodo, alvo.getClass().getName()));
+        }
+        ReflectionUtils.makeAccessible(method);
+        ReflectionUtils.invokeMethod(method, alvo);
+    }
+}
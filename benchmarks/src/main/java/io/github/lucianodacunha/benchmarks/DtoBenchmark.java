@@ -0,0 +1,89 @@
+package io.github.lucianodacunha.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.lucianodacunha.api.entity.Medico;
+import io.github.lucianodacunha.api.entity.Paciente;
+import io.github.lucianodacunha.api.model.DadosCadastroMedico;
+import io.github.lucianodacunha.api.model.DadosCadastroPaciente;
+import io.github.lucianodacunha.api.model.DadosDetalhamentoMedico;
+import io.github.lucianodacunha.api.model.DadosEndereco;
+import io.github.lucianodacunha.api.model.DadosListagemPaciente;
+import io.github.lucianodacunha.api.model.Especialidade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construção dos DTOs a partir das entidades e serialização com o mesmo
+ * ObjectMapper que o Spring MVC monta (Jackson2ObjectMapperBuilder).
+ * tamanhoPagina simula uma página da listagem de pacientes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DtoBenchmark {
+
+    @Param({"10", "100"})
+    private int tamanhoPagina;
+
+    private ObjectMapper mapper;
+    private Medico medico;
+    private DadosDetalhamentoMedico detalhamentoMedico;
+    private List<Paciente> pacientes;
+    private List<DadosListagemPaciente> paginaDePacientes;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        var endereco = new DadosEndereco("rua 1", "bairro", "12345678", "Brasilia", "DF", "apto 101", "1");
+        medico = new Medico(new DadosCadastroMedico("Ana Souza", "ana.souza@voll.med", "61999990000",
+                "123456", Especialidade.CARDIOLOGIA, endereco));
+        detalhamentoMedico = new DadosDetalhamentoMedico(medico);
+
+        pacientes = new ArrayList<>();
+        for (int i = 0; i < tamanhoPagina; i++) {
+            pacientes.add(new Paciente(new DadosCadastroPaciente("Paciente %d".formatted(i),
+                    "paciente%d@voll.med".formatted(i), "6198%07d".formatted(i),
+                    "%011d".formatted(90000000000L + i), endereco)));
+        }
+        paginaDePacientes = pacientes.stream().map(DadosListagemPaciente::new).toList();
+    }
+
+    @Benchmark
+    public DadosDetalhamentoMedico construirDetalhamentoMedico() {
+        return new DadosDetalhamentoMedico(medico);
+    }
+
+    @Benchmark
+    public String serializarDetalhamentoMedico() throws JsonProcessingException {
+        return mapper.writeValueAsString(detalhamentoMedico);
+    }
+
+    @Benchmark
+    public List<DadosListagemPaciente> construirPaginaDePacientes() {
+        return pacientes.stream().map(DadosListagemPaciente::new).toList();
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaDePacientes() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(paginaDePacientes);
+    }
+}
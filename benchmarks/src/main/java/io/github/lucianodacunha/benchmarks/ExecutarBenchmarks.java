@@ -0,0 +1,42 @@
+package io.github.lucianodacunha.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do benchmarks.jar. Aceita os mesmos argumentos do JMH e
+ * acrescenta, por padrão, o profiler de GC e a saída em JSON para que os
+ * resultados de releases diferentes possam ser comparados.
+ */
+public class ExecutarBenchmarks {
+
+    private static final String RESULTADO_PADRAO = "target/jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        var linhaDeComando = new CommandLineOptions(args);
+        if (linhaDeComando.shouldHelp()) {
+            linhaDeComando.showHelp();
+            return;
+        }
+        if (linhaDeComando.shouldList()) {
+            new Runner(linhaDeComando).list();
+            return;
+        }
+
+        var opcoes = new OptionsBuilder()
+                .parent(linhaDeComando)
+                .addProfiler(GCProfiler.class);
+
+        if (!linhaDeComando.getResultFormat().hasValue()) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linhaDeComando.getResult().hasValue()) {
+            opcoes.result(RESULTADO_PADRAO);
+        }
+
+        new Runner(opcoes.build()).run();
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.lucianodacunha.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.github.lucianodacunha.api.infra.log.AmostragemDeLog;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por agendamento do registro em log com 8 threads disputando a
+ * saída. println reproduz o antigo System.out.println(dados) do
+ * ConsultaController (PrintStream sincronizado, com flush a cada linha);
+ * logSincrono é o mesmo evento estruturado escrito direto no appender;
+ * logAssincrono passa pela fila do AsyncAppender, como no
+ * logback-spring.xml; logAmostrado registra 10% dos eventos e logDesligado
+ * tem o nível INFO desligado. Tudo é escrito em /dev/null, então o que se
+ * mede é a disputa pelo lock e a formatação, não o terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(8)
+public class LogBenchmark {
+
+    private static final String PADRAO = "%d %5p [%15.15t] %-40.40logger{39} : %m %kvp%n";
+
+    private LoggerContext contexto;
+    private PrintStream saida;
+    private Logger sincrono;
+    private Logger assincrono;
+    private Logger desligado;
+    private AmostragemDeLog todos;
+    private AmostragemDeLog dezPorCento;
+    private DadosAgendamentoConsulta dados;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        // o contexto ligado ao SLF4J, que tem o adaptador de MDC
+        contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        saida = new PrintStream(new BufferedOutputStream(descarte(), 128), true);
+
+        var direto = appender("direto");
+        var fila = new AsyncAppender();
+        fila.setContext(contexto);
+        fila.setName("fila");
+        fila.setQueueSize(8192);
+        fila.setNeverBlock(true);
+        fila.addAppender(appender("console"));
+        fila.start();
+
+        sincrono = logger("sincrono", direto, Level.INFO);
+        assincrono = logger("assincrono", fila, Level.INFO);
+        desligado = logger("desligado", fila, Level.WARN);
+
+        todos = amostragem(1);
+        dezPorCento = amostragem(0.1);
+        dados = new DadosAgendamentoConsulta(42l, 1_234l, LocalDateTime.now().plusDays(3), null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.stop();
+        saida.close();
+    }
+
+    @Benchmark
+    public void println() {
+        saida.println(dados);
+    }
+
+    @Benchmark
+    public void logSincrono() {
+        registrar(sincrono, todos);
+    }
+
+    @Benchmark
+    public void logAssincrono() {
+        registrar(assincrono, todos);
+    }
+
+    @Benchmark
+    public void logAmostrado() {
+        registrar(assincrono, dezPorCento);
+    }
+
+    @Benchmark
+    public void logDesligado() {
+        registrar(desligado, todos);
+    }
+
+    private void registrar(Logger log, AmostragemDeLog amostragem) {
+        amostragem.info(log, "consultas.agendar")
+                .addKeyValue("medico", dados.idMedico())
+                .addKeyValue("paciente", dados.idPaciente())
+                .addKeyValue("data", dados.data())
+                .log("consulta agendada");
+    }
+
+    private Appender<ILoggingEvent> appender(String nome) throws FileNotFoundException {
+        var encoder = new PatternLayoutEncoder();
+        encoder.setContext(contexto);
+        encoder.setPattern(PADRAO);
+        encoder.start();
+
+        var appender = new OutputStreamAppender<ILoggingEvent>();
+        appender.setContext(contexto);
+        appender.setName(nome);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(descarte());
+        appender.start();
+        return appender;
+    }
+
+    private Logger logger(String nome, Appender<ILoggingEvent> appender, Level nivel) {
+        var logger = contexto.getLogger(nome);
+        logger.setAdditive(false);
+        logger.setLevel(nivel);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private AmostragemDeLog amostragem(double taxa) {
+        var amostragem = new AmostragemDeLog();
+        Componentes.definir(amostragem, "taxaPadrao", taxa);
+        Componentes.definir(amostragem, "taxasPorEvento", List.of());
+        Componentes.invocar(amostragem, "carregarTaxas");
+        return amostragem;
+    }
+
+    private static OutputStream descarte() throws FileNotFoundException {
+        var devNull = new File("/dev/null");
+        return devNull.exists() ? new FileOutputStream(devNull) : OutputStream.nullOutputStream();
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.lucianodacunha.benchmarks;
+
+import io.github.lucianodacunha.api.entity.Usuario;
+import io.github.lucianodacunha.api.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão e verificação de token. verificarSemCache usa uma instância com
+ * cache de tamanho zero, mostrando o custo de HMAC + parse a cada
+ * requisição; verificarComCache é o caminho comum do SecurityFilter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TokenBenchmark {
+
+    private TokenService comCache;
+    private TokenService semCache;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        comCache = tokenService(10_000);
+        semCache = tokenService(0);
+        usuario = new Usuario(1l, "ana.souza@voll.med", "senha");
+        token = comCache.gerarToken(usuario);
+        comCache.verificar(token);
+    }
+
+    @Benchmark
+    public String emitir() {
+        return comCache.gerarToken(usuario);
+    }
+
+    @Benchmark
+    public TokenService.TokenVerificado verificarComCache() {
+        return comCache.verificar(token);
+    }
+
+    @Benchmark
+    public TokenService.TokenVerificado verificarSemCache() {
+        return semCache.verificar(token);
+    }
+
+    private TokenService tokenService(long tamanhoMaximoDoCache) {
+        var tokenService = new TokenService();
+        Componentes.definir(tokenService, "secret", "benchmark-secret");
+        Componentes.definir(tokenService, "tamanhoMaximoDoCache", tamanhoMaximoDoCache);
+        Componentes.definir(tokenService, "meterRegistry", new SimpleMeterRegistry());
+        Componentes.invocar(tokenService, "inicializar");
+        return tokenService;
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.lucianodacunha.benchmarks;
+
+import io.github.lucianodacunha.api.controller.MedicoController;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.infra.exception.TratadorDeErros;
+import io.github.lucianodacunha.api.infra.metricas.ContadorDeRecusas;
+import io.github.lucianodacunha.api.model.DadosCadastroMedico;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão das exceptions em resposta pelo TratadorDeErros: erros de Bean
+ * Validation (400 com lista de campos) e regra de negócio (400 com a
+ * mensagem).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TratadorDeErrosBenchmark {
+
+    private TratadorDeErros tratador;
+    private MethodArgumentNotValidException camposInvalidos;
+    private ValidacaoException regraDeNegocio;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        var contadorDeRecusas = new ContadorDeRecusas();
+        Componentes.definir(contadorDeRecusas, "meterRegistry", new SimpleMeterRegistry());
+        tratador = new TratadorDeErros();
+        Componentes.definir(tratador, "contadorDeRecusas", contadorDeRecusas);
+
+        var cadastrar = MedicoController.class.getMethod("cadastrar", DadosCadastroMedico.class, UriComponentsBuilder.class);
+        var erros = new BeanPropertyBindingResult(new Object(), "dadosCadastroMedico");
+        erros.addError(new FieldError("dadosCadastroMedico", "email", "não deve estar em branco"));
+        erros.addError(new FieldError("dadosCadastroMedico", "crm", "deve corresponder a \"\\d{4,6}\""));
+        erros.addError(new FieldError("dadosCadastroMedico", "endereco.cep", "deve corresponder a \"\\d{8}\""));
+        camposInvalidos = new MethodArgumentNotValidException(new MethodParameter(cadastrar, 0), erros);
+
+        regraDeNegocio = new ValidacaoException("Médico já possui outra consulta agendada nesse mesmo horário");
+    }
+
+    @Benchmark
+    public ResponseEntity camposInvalidos() {
+        return tratador.tratarErro400(camposInvalidos);
+    }
+
+    @Benchmark
+    public ResponseEntity regraDeNegocio() {
+        return tratador.tratarErroRegraDeNegocio(regraDeNegocio);
+    }
+}
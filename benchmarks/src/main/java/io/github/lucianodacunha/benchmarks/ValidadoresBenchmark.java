@@ -0,0 +1,114 @@
+package io.github.lucianodacunha.benchmarks;
+
+import io.github.lucianodacunha.api.entity.Consulta;
+import io.github.lucianodacunha.api.exception.ValidacaoException;
+import io.github.lucianodacunha.api.model.DadosAgendamentoConsulta;
+import io.github.lucianodacunha.api.model.DadosCancelamentoConsulta;
+import io.github.lucianodacunha.api.model.Especialidade;
+import io.github.lucianodacunha.api.model.MotivoCancelamento;
+import io.github.lucianodacunha.api.repository.ConsultaRepository;
+import io.github.lucianodacunha.api.validation.agendamento.AgendamentoDeConsultaValidator;
+import io.github.lucianodacunha.api.validation.agendamento.ContextoAgendamento;
+import io.github.lucianodacunha.api.validation.agendamento.HorarioAntecedenciaValidator;
+import io.github.lucianodacunha.api.validation.agendamento.HorarioFuncionamentoClinicaValidator;
+import io.github.lucianodacunha.api.validation.agendamento.MedicoAtivoValidator;
+import io.github.lucianodacunha.api.validation.agendamento.PacienteAtivoValidator;
+import io.github.lucianodacunha.api.validation.agendamento.ValidadorMedicoComOutraConsultaNoMesmoHorario;
+import io.github.lucianodacunha.api.validation.agendamento.ValidadorPacienteSemOutraConsultaNoDia;
+import io.github.lucianodacunha.api.validation.cancelamento.CancelamentoDeConsultaValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cadeia de validadores do agendamento e do cancelamento. Os validadores de
+ * agendamento recebem o ContextoAgendamento já carregado, então não há
+ * repository para simular; o de cancelamento usa um ConsultaRepository
+ * falso, que devolve a consulta sem ir ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ValidadoresBenchmark {
+
+    private List<AgendamentoDeConsultaValidator> agendamento;
+    private CancelamentoDeConsultaValidator cancelamento;
+    private ContextoAgendamento contextoValido;
+    private ContextoAgendamento contextoComConflito;
+    private DadosCancelamentoConsulta cancelamentoValido;
+
+    @Setup
+    public void setUp() {
+        agendamento = List.of(
+                new HorarioAntecedenciaValidator(),
+                new HorarioFuncionamentoClinicaValidator(),
+                new MedicoAtivoValidator(),
+                new PacienteAtivoValidator(),
+                new ValidadorMedicoComOutraConsultaNoMesmoHorario(),
+                new ValidadorPacienteSemOutraConsultaNoDia());
+
+        var proximaSegundaAs10 = LocalDate.now()
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .atTime(10, 0);
+        var dados = new DadosAgendamentoConsulta(1l, 1l, proximaSegundaAs10, Especialidade.CARDIOLOGIA);
+        contextoValido = new ContextoAgendamento(dados, 1l, true, true, false, false);
+        contextoComConflito = new ContextoAgendamento(dados, 1l, true, true, true, false);
+
+        var consulta = new Consulta(1l, null, null, proximaSegundaAs10.plusDays(7));
+        var repository = (ConsultaRepository) Proxy.newProxyInstance(
+                ConsultaRepository.class.getClassLoader(),
+                new Class<?>[]{ConsultaRepository.class},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("getReferenceById")) {
+                        return consulta;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+        cancelamento = new io.github.lucianodacunha.api.validation.cancelamento.HorarioAntecedenciaValidator();
+        Componentes.definir(cancelamento, "repository", repository);
+        cancelamentoValido = new DadosCancelamentoConsulta(1l, MotivoCancelamento.PACIENTE_DESISTIU);
+    }
+
+    @Benchmark
+    public ContextoAgendamento agendamentoAprovado() {
+        agendamento.forEach(v -> v.validar(contextoValido));
+        return contextoValido;
+    }
+
+    /**
+     * Inclui o custo de criar a ValidacaoException (com stack trace), que é
+     * o caminho de toda requisição recusada.
+     */
+    @Benchmark
+    public Object agendamentoRecusado() {
+        try {
+            agendamento.forEach(v -> v.validar(contextoComConflito));
+            return contextoComConflito;
+        } catch (ValidacaoException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public DadosCancelamentoConsulta cancelamentoAprovado() {
+        cancelamento.validar(cancelamentoValido);
+        return cancelamentoValido;
+    }
+}